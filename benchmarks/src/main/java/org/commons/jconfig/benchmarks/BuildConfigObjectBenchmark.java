@@ -0,0 +1,62 @@
+package org.commons.jconfig.benchmarks;
+
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+
+import org.commons.jconfig.config.App2Config;
+import org.commons.jconfig.config.App4Config;
+import org.commons.jconfig.config.ConfigContext;
+import org.commons.jconfig.config.ConfigContext.Entry;
+import org.commons.jconfig.config.ConfigException;
+import org.commons.jconfig.config.ConfigManager;
+import org.commons.jconfig.config.ConfigManagerConfig;
+import org.commons.jconfig.internal.ConfigAdapterJson;
+import org.commons.jconfig.internal.ConfigManagerCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * ConfigManager.buildConfigObject, the cost of a getConfig miss without the
+ * caching around it. App4Config has 25 Number keys without context, App2Config
+ * has keys of most value types and a SUBSET1 context.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BuildConfigObjectBenchmark {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private ConfigManagerCache cache;
+    private ConfigContext app2Context;
+
+    @Setup
+    public void setUp() throws ConfigException {
+        cache = new ConfigManagerCache(ConfigManager.INSTANCE);
+        new ConfigAdapterJson("app4.json", UTF8, new ConfigManagerConfig()).loadValue(cache);
+        new ConfigAdapterJson("app2.json", UTF8, new ConfigManagerConfig()).loadValue(cache);
+        cache.flipCache();
+        app2Context = new ConfigContext(new Entry("SUBSET1", "800"));
+    }
+
+    @Benchmark
+    public App4Config buildApp4Config() {
+        return ConfigManager.INSTANCE.buildConfigObject(new App4Config(), ConfigContext.EMPTY, UTF8, cache);
+    }
+
+    @Benchmark
+    public App2Config buildApp2Config() {
+        return ConfigManager.INSTANCE.buildConfigObject(new App2Config(), app2Context, UTF8, cache);
+    }
+}
@@ -0,0 +1,164 @@
+package org.commons.jconfig.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.commons.jconfig.internal.ConcurrentLRUCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * ConcurrentLRUCache get, put and touch, alone and mixed.
+ * 
+ * keyFactor is the number of distinct keys relative to cacheSize: 0.5 never
+ * evicts, 1 runs at the max size and 4 forces evictions on most puts. Keys are
+ * read uniformly or following a Zipfian distribution.
+ * 
+ * Run the main method to measure the suite at 1 to 64 threads with the gc
+ * profiler, the same as:
+ * 
+ * <code>
+ * java -jar benchmarks.jar ConcurrentLRUCacheBenchmark -t [1|4|16|64] -prof gc
+ * </code>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrentLRUCacheBenchmark {
+
+    /** thread counts measured by main */
+    private static final int[] THREADS = { 1, 4, 16, 64 };
+    /** length of the per thread key sequence, a power of 2 */
+    private static final int SEQUENCE_LENGTH = 1 << 16;
+
+    /** ConfigManagerConfig maxCacheSize default and a smaller cache */
+    @Param({ "1000", "10000" })
+    public int cacheSize;
+
+    @Param({ "0.5", "1", "4" })
+    public double keyFactor;
+
+    @Param({ "uniform", "zipfian" })
+    public String distribution;
+
+    private ConcurrentLRUCache<String, Object> cache;
+    private String[] keys;
+    private final Object value = new Object();
+    private final AtomicLong seeds = new AtomicLong(0);
+
+    /**
+     * Key sequence of a benchmark thread
+     */
+    @State(Scope.Thread)
+    public static class ThreadState {
+        private int[] sequence;
+        private int next = 0;
+
+        @Setup
+        public void setUp(final ConcurrentLRUCacheBenchmark benchmark) {
+            sequence = ZipfianKeys.sequence(benchmark.keys.length, SEQUENCE_LENGTH,
+                    "zipfian".equals(benchmark.distribution), benchmark.seeds.incrementAndGet());
+        }
+
+        int nextKey() {
+            int key = sequence[next];
+            next = (next + 1) & (SEQUENCE_LENGTH - 1);
+            return key;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        cache = new ConcurrentLRUCache<String, Object>(cacheSize);
+        keys = new String[(int) (cacheSize * keyFactor)];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = "org.commons.jconfig.config.App2ConfigSUBSET1" + i;
+        }
+        for (int i = 0; i < Math.min(keys.length, cacheSize); i++) {
+            cache.put(keys[i], value);
+        }
+    }
+
+    @Benchmark
+    public Object get(final ThreadState state) {
+        return cache.get(keys[state.nextKey()]);
+    }
+
+    @Benchmark
+    public void put(final ThreadState state) {
+        cache.put(keys[state.nextKey()], value);
+    }
+
+    @Benchmark
+    public void touch(final ThreadState state) {
+        cache.touch(keys[state.nextKey()]);
+    }
+
+    /**
+     * The ConfigManager pattern: get, and put on a miss
+     */
+    @Benchmark
+    public Object getOrPut(final ThreadState state) {
+        String key = keys[state.nextKey()];
+        Object cached = cache.get(key);
+        if (cached == null) {
+            cache.put(key, value);
+            cached = value;
+        }
+        return cached;
+    }
+
+    /**
+     * 80% get, 10% touch, 10% put
+     */
+    @Benchmark
+    public Object mixed(final ThreadState state) {
+        int key = state.nextKey();
+        switch (state.next % 10) {
+        case 0:
+            cache.put(keys[key], value);
+            return value;
+        case 1:
+            cache.touch(keys[key]);
+            return value;
+        default:
+            return cache.get(keys[key]);
+        }
+    }
+
+    /**
+     * Runs this suite at every thread count in THREADS with the gc profiler.
+     * Other JMH command line options are passed through.
+     * 
+     * @param args
+     *            JMH command line options
+     * @throws RunnerException
+     * @throws CommandLineOptionException
+     */
+    public static void main(final String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        for (int threads : THREADS) {
+            new Runner(new OptionsBuilder().parent(commandLine)
+                    .include(ConcurrentLRUCacheBenchmark.class.getSimpleName()).threads(threads)
+                    .addProfiler(GCProfiler.class).build()).run();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package org.commons.jconfig.benchmarks;
+
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import org.commons.jconfig.config.ConfigContext;
+import org.commons.jconfig.config.ConfigContext.Entry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * ConfigContext.getUniqueId, computed for a new context, cached in the
+ * context, and restricted to the context types of a config class as done on
+ * every ConfigManager.getConfig call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConfigContextBenchmark {
+
+    @Param({ "1", "4", "8" })
+    public int entryCount;
+
+    private Entry[] entries;
+    private ConfigContext context;
+    private SortedSet<String> contextTypes;
+
+    @Setup
+    public void setUp() {
+        entries = new Entry[entryCount];
+        contextTypes = new TreeSet<String>();
+        for (int i = 0; i < entryCount; i++) {
+            entries[i] = new Entry("KEY" + i, "value" + i);
+            if (i % 2 == 0) {
+                contextTypes.add("KEY" + i);
+            }
+        }
+        context = new ConfigContext(entries);
+        context.getUniqueId();
+    }
+
+    @Benchmark
+    public String uniqueIdNewContext() {
+        return new ConfigContext(entries).getUniqueId();
+    }
+
+    @Benchmark
+    public String uniqueIdCached() {
+        return context.getUniqueId();
+    }
+
+    @Benchmark
+    public String uniqueIdForContextTypes() {
+        return context.getUniqueId(contextTypes);
+    }
+}
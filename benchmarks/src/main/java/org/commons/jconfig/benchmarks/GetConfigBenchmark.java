@@ -0,0 +1,112 @@
+package org.commons.jconfig.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.commons.jconfig.config.App2Config;
+import org.commons.jconfig.config.ConfigContext;
+import org.commons.jconfig.config.ConfigContext.Entry;
+import org.commons.jconfig.config.ConfigManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * ConfigManager.getConfig read path.
+ * 
+ * The hit benchmarks read config objects that are already cached, cycling
+ * through contextCount different contexts. The miss benchmarks use a new
+ * context on every call, so every call builds a config object.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GetConfigBenchmark {
+
+    /** SUBSET1 values of app2.json */
+    private static final String[] SUBSETS = { "800", "706", "505" };
+
+    @Param({ "1", "16", "256" })
+    public int contextCount;
+
+    private ConfigContext[] contexts;
+    private final AtomicLong missCount = new AtomicLong(0);
+
+    /**
+     * Index of the next context read by a benchmark thread
+     */
+    @State(Scope.Thread)
+    public static class ThreadState {
+        private int next = 0;
+    }
+
+    @Setup
+    public void setUp() {
+        contexts = new ConfigContext[contextCount];
+        for (int i = 0; i < contextCount; i++) {
+            String subset = i < SUBSETS.length ? SUBSETS[i] : String.valueOf(i);
+            contexts[i] = new ConfigContext(new Entry("SUBSET1", subset));
+            // load the objects read by the hit benchmarks
+            ConfigManager.INSTANCE.getConfig(App2Config.class, contexts[i]);
+        }
+    }
+
+    private App2Config hit(final ThreadState state) {
+        ConfigContext context = contexts[state.next];
+        state.next = (state.next + 1) % contexts.length;
+        return ConfigManager.INSTANCE.getConfig(App2Config.class, context);
+    }
+
+    private App2Config miss() {
+        ConfigContext context = new ConfigContext(new Entry("SUBSET1", "miss" + missCount.incrementAndGet()));
+        return ConfigManager.INSTANCE.getConfig(App2Config.class, context);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public App2Config hit1Thread(final ThreadState state) {
+        return hit(state);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public App2Config hit4Threads(final ThreadState state) {
+        return hit(state);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public App2Config hit16Threads(final ThreadState state) {
+        return hit(state);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public App2Config miss1Thread() {
+        return miss();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public App2Config miss4Threads() {
+        return miss();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public App2Config miss16Threads() {
+        return miss();
+    }
+}
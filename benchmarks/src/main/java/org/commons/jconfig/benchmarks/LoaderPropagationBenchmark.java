@@ -0,0 +1,288 @@
+package org.commons.jconfig.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.commons.jconfig.config.ConfigManagerConfig;
+import org.commons.jconfig.configloader.ConfigLoaderRunner;
+
+/**
+ * End to end propagation of a config source file change, from the file to
+ * the applications.
+ * 
+ * Starts a ConfigLoaderRunner in this vm, reading the files listed in a
+ * generated config_file_list.json, and N {@link PropagationApp} vms loading
+ * their configs from the loader over JMX. On every
+ * cycle the Generation key of propagation.json is incremented, and the time
+ * until each application flips to the new generation is measured along with
+ * the cpu used by the loader vm and the application vms.
+ * 
+ * Usage:
+ * 
+ * <code>
+ * java -cp benchmarks.jar org.commons.jconfig.benchmarks.LoaderPropagationBenchmark [apps,apps,..] [cycles]
+ * </code>
+ * 
+ * apps defaults to 1,4,16 and cycles to 10. The config server read interval
+ * of the loader is 1 s, so time to flip includes on average 500 ms of polling.
+ */
+public class LoaderPropagationBenchmark {
+
+    private static final String SOURCE_FILE = "propagation.json";
+    /** max ms to wait for all applications to flip */
+    private static final long FLIP_TIMEOUT = 60000;
+
+    private final File configDir;
+    private long generation = 0;
+
+    /**
+     * Generation reported by a stand-in application vm
+     */
+    private static final class App {
+        private final Process process;
+        private long generation = -1;
+        private long flipTime = 0;
+        private long cpuTime = 0;
+
+        App(final Process process) {
+            this.process = process;
+        }
+    }
+
+    private final List<App> apps = new ArrayList<App>();
+
+    LoaderPropagationBenchmark(final File configDir) {
+        this.configDir = configDir;
+    }
+
+    public static void main(final String[] args) throws Exception {
+        int[] appCounts = { 1, 4, 16 };
+        int cycles = 10;
+        if (args.length > 0) {
+            String[] counts = args[0].split(",");
+            appCounts = new int[counts.length];
+            for (int i = 0; i < counts.length; i++) {
+                appCounts[i] = Integer.parseInt(counts[i].trim());
+            }
+        }
+        if (args.length > 1) {
+            cycles = Integer.parseInt(args[1]);
+        }
+
+        File configDir = new File(System.getProperty("java.io.tmpdir"), "jconfig-propagation-" + System.nanoTime());
+        if (!configDir.mkdirs()) {
+            throw new IOException("Failed to create " + configDir);
+        }
+        LoaderPropagationBenchmark benchmark = new LoaderPropagationBenchmark(configDir);
+        benchmark.startLoader();
+        try {
+            for (int appCount : appCounts) {
+                benchmark.run(appCount, cycles);
+            }
+        } finally {
+            benchmark.stopApps();
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Write the loader config and source files, and start the loader in this
+     * vm
+     */
+    void startLoader() throws IOException {
+        String path = configDir.getAbsolutePath() + File.separator;
+        write("config_loader.json", "{ \"Modules\" : { \"org.commons.jconfig.configloader.ConfigLoaderConfig\" : {"
+                + " \"LoadFromServer\" : false," + " \"ConfigServerReadInterval\" : \"1 s\","
+                + " \"ConfigPath\" : \"" + path + "\"," + " \"ConfigFileName\" : \"" + path + "mergedConf.json\","
+                + " \"JmxFileName\" : \"" + path + "jmx\" } } }");
+        write("config_file_list.json", "{ \"files\" : [ \"" + SOURCE_FILE + "\" ] }");
+        writeSource();
+        // put first on the application class path, ahead of any other configmanager.json
+        write("configmanager.json", "{ \"Modules\" : { \"" + ConfigManagerConfig.class.getName() + "\" : {"
+                + " \"LoadFrom\" : \"JMX\"," + " \"ConfigLoaderSyncInterval\" : \"60s\" } } }");
+
+        System.setProperty("JCONFIG_CDIR", path);
+        Thread loader = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    new ConfigLoaderRunner().start();
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+        }, "ConfigLoaderRunner");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * Measure cycles with appCount application vms
+     */
+    void run(final int appCount, final int cycles) throws IOException, InterruptedException {
+        stopApps();
+        for (int i = 0; i < appCount; i++) {
+            startApp();
+        }
+        // applications are ready once they have the current generation
+        if (!awaitGeneration(generation)) {
+            System.out.println("apps=" + appCount + ": applications did not load the initial config in "
+                    + FLIP_TIMEOUT + " ms");
+            return;
+        }
+
+        long[] maxFlipTimes = new long[cycles];
+        long[] loaderCpuTimes = new long[cycles];
+        long[] appsCpuTimes = new long[cycles];
+        for (int cycle = 0; cycle < cycles; cycle++) {
+            long appsCpuStart = appsCpuTime();
+            long loaderCpuStart = PropagationApp.processCpuTime();
+            long start = System.currentTimeMillis();
+            generation++;
+            writeSource();
+            if (!awaitGeneration(generation)) {
+                System.out.println("apps=" + appCount + " cycle=" + cycle + ": timed out after " + FLIP_TIMEOUT
+                        + " ms");
+                return;
+            }
+            long[] flipTimes = flipTimes(start);
+            maxFlipTimes[cycle] = flipTimes[flipTimes.length - 1];
+            loaderCpuTimes[cycle] = (PropagationApp.processCpuTime() - loaderCpuStart) / 1000000;
+            appsCpuTimes[cycle] = (appsCpuTime() - appsCpuStart) / 1000000;
+            System.out.println("apps=" + appCount + " cycle=" + cycle + " timeToFlipMs(median/max)="
+                    + flipTimes[flipTimes.length / 2] + "/" + maxFlipTimes[cycle] + " loaderCpuMs="
+                    + loaderCpuTimes[cycle] + " appsCpuMs=" + appsCpuTimes[cycle]);
+            // let the loader go idle before the next change
+            Thread.sleep(1000);
+        }
+        System.out.println("apps=" + appCount + " cycles=" + cycles + " avgMaxTimeToFlipMs=" + average(maxFlipTimes)
+                + " avgLoaderCpuMs=" + average(loaderCpuTimes) + " avgAppsCpuMs=" + average(appsCpuTimes));
+    }
+
+    private void startApp() throws IOException {
+        ProcessBuilder builder = new ProcessBuilder(System.getProperty("java.home") + File.separator + "bin"
+                + File.separator + "java", "-cp", configDir.getAbsolutePath() + File.pathSeparator
+                + System.getProperty("java.class.path"), PropagationApp.class.getName());
+        builder.redirectErrorStream(true);
+        final App app = new App(builder.start());
+        synchronized (apps) {
+            apps.add(app);
+        }
+        Thread reader = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                readReports(app);
+            }
+        }, "PropagationAppReader");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    /**
+     * Read the generations reported by an application vm until it exits
+     */
+    private void readReports(final App app) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(app.process.getInputStream()));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.startsWith(PropagationApp.GENERATION)) {
+                    continue;
+                }
+                String[] report = line.split(" ");
+                synchronized (apps) {
+                    app.generation = Long.parseLong(report[1]);
+                    app.flipTime = Long.parseLong(report[2]);
+                    app.cpuTime = Long.parseLong(report[3]);
+                    apps.notifyAll();
+                }
+            }
+        } catch (IOException e) {
+            // application vm exited
+        }
+    }
+
+    private boolean awaitGeneration(final long expected) throws InterruptedException {
+        long endTime = System.currentTimeMillis() + FLIP_TIMEOUT;
+        synchronized (apps) {
+            long remaining = FLIP_TIMEOUT;
+            while (remaining > 0) {
+                boolean done = true;
+                for (App app : apps) {
+                    done &= app.generation >= expected;
+                }
+                if (done) {
+                    return true;
+                }
+                apps.wait(remaining);
+                remaining = endTime - System.currentTimeMillis();
+            }
+            return false;
+        }
+    }
+
+    /**
+     * @return sorted ms from start to the flip of each application
+     */
+    private long[] flipTimes(final long start) {
+        synchronized (apps) {
+            long[] flipTimes = new long[apps.size()];
+            for (int i = 0; i < flipTimes.length; i++) {
+                flipTimes[i] = apps.get(i).flipTime - start;
+            }
+            Arrays.sort(flipTimes);
+            return flipTimes;
+        }
+    }
+
+    /**
+     * @return cpu ns used by the application vms as of their last report
+     */
+    private long appsCpuTime() {
+        synchronized (apps) {
+            long cpuTime = 0;
+            for (App app : apps) {
+                cpuTime += app.cpuTime;
+            }
+            return cpuTime;
+        }
+    }
+
+    private void stopApps() {
+        synchronized (apps) {
+            for (App app : apps) {
+                app.process.destroy();
+            }
+            apps.clear();
+        }
+    }
+
+    private void writeSource() throws IOException {
+        write(SOURCE_FILE, "{ \"Modules\" : { \"" + PropagationConfig.class.getName() + "\" : { \"Generation\" : \""
+                + generation + "\" } } }");
+    }
+
+    private void write(final String fileName, final String content) throws IOException {
+        Writer writer = new FileWriter(new File(configDir, fileName));
+        try {
+            writer.write(content);
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static long average(final long[] values) {
+        long sum = 0;
+        for (long value : values) {
+            sum += value;
+        }
+        return values.length == 0 ? 0 : sum / values.length;
+    }
+}
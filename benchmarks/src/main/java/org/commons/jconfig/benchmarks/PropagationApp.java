@@ -0,0 +1,58 @@
+package org.commons.jconfig.benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.util.SortedSet;
+
+import org.commons.jconfig.config.ConfigContext;
+import org.commons.jconfig.config.ConfigManager;
+
+/**
+ * Stand-in application started by {@link LoaderPropagationBenchmark}. It
+ * subscribes to {@link PropagationConfig} changes and reports every generation
+ * it sees on stdout, as
+ * 
+ * <code>
+ * GENERATION [generation] [currentTimeMillis] [process cpu ns]
+ * </code>
+ * 
+ * The application exits when stdin is closed, i.e. when the benchmark exits.
+ */
+public class PropagationApp {
+
+    static final String GENERATION = "GENERATION";
+
+    public static void main(final String[] args) throws Exception {
+        ConfigManager.INSTANCE.subscribe(PropagationConfig.class, ConfigContext.EMPTY,
+                new ConfigManager.Listener<PropagationConfig>() {
+                    @Override
+                    public void configChanged(final PropagationConfig oldConfig, final PropagationConfig newConfig,
+                            final SortedSet<String> changedKeys) {
+                        report(newConfig);
+                    }
+                });
+        report(ConfigManager.INSTANCE.getConfig(PropagationConfig.class, ConfigContext.EMPTY));
+
+        while (System.in.read() != -1) {
+            // wait for the benchmark to exit
+        }
+        System.exit(0);
+    }
+
+    private static synchronized void report(final PropagationConfig config) {
+        System.out.println(GENERATION + " " + config.getGeneration().longValue() + " " + System.currentTimeMillis()
+                + " " + processCpuTime());
+        System.out.flush();
+    }
+
+    /**
+     * @return cpu time used by this process in ns, -1 if not supported by the
+     *         vm
+     */
+    static long processCpuTime() {
+        Object os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) os).getProcessCpuTime();
+        }
+        return -1;
+    }
+}
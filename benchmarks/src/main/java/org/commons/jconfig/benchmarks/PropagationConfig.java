@@ -0,0 +1,29 @@
+package org.commons.jconfig.benchmarks;
+
+import org.commons.jconfig.annotations.Config;
+import org.commons.jconfig.annotations.ConfigGet;
+import org.commons.jconfig.annotations.ConfigResource;
+import org.commons.jconfig.annotations.ConfigSet;
+import org.commons.jconfig.datatype.ValueType;
+
+/**
+ * Config of the {@link PropagationApp} stand-in applications. The
+ * {@link LoaderPropagationBenchmark} increments Generation in the source file
+ * on every cycle.
+ */
+@Config(description = "Loader propagation benchmark config")
+@ConfigResource(name = "propagation.json")
+public class PropagationConfig {
+
+    private Number mGeneration = -1;
+
+    @ConfigGet(description = "Benchmark cycle that wrote the config source file.", type = ValueType.Number, defaultValue = "-1")
+    public Number getGeneration() {
+        return mGeneration;
+    }
+
+    @ConfigSet
+    public void setGeneration(final Number value) {
+        mGeneration = value;
+    }
+}
@@ -0,0 +1,188 @@
+package org.commons.jconfig.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Cold start cost of ScanClassPath and ConfigManager initialize on a fat
+ * classpath.
+ * 
+ * For each class count, writes synthetic jars with that many classes, one in
+ * ANNOTATED_EVERY annotated with Config, and runs each scan strategy in a new
+ * class loader with the benchmark classpath plus the synthetic jars, so every
+ * run loads the scanned classes from scratch. Reports scan time, classes
+ * loaded and metaspace (perm gen before java 8) growth of each run.
+ * 
+ * Usage:
+ * 
+ * <code>
+ * java -cp benchmarks.jar org.commons.jconfig.benchmarks.StartupBenchmark [classes,classes,..] [iterations]
+ * </code>
+ * 
+ * classes defaults to 1000,10000 and iterations to 5. The averages leave out
+ * the first iteration, which also pays for class loading of the scanner and
+ * for jit compilation.
+ */
+public class StartupBenchmark {
+
+    private static final int JAR_COUNT = 10;
+    private static final int ANNOTATED_EVERY = 100;
+    private static final String SCAN_CLASS_PATH = "org.commons.jconfig.internal.ScanClassPath";
+    private static final String CONFIG = "org.commons.jconfig.annotations.Config";
+    /** ConfigManager scan allow filter */
+    private static final List<String> ALLOW_FILTER = Arrays.asList("org.commons.jconfig.");
+
+    /**
+     * Ways of finding the Config classes at startup
+     */
+    private enum Strategy {
+        /** ScanClassPath.scanAnnotatedClasses with the ConfigManager allow filter */
+        SCAN_ALLOW_FILTER {
+            @Override
+            int run(final ClassLoader loader, final File[] jars) throws Exception {
+                Object scanner = newScanner(loader, ALLOW_FILTER);
+                return ((Set<?>) scanner.getClass().getMethod("scanAnnotatedClasses").invoke(scanner)).size();
+            }
+        },
+        /** ScanClassPath.scanAnnotatedClasses with the default exclude filter */
+        SCAN_EXCLUDE_FILTER {
+            @Override
+            int run(final ClassLoader loader, final File[] jars) throws Exception {
+                Object scanner = newScanner(loader, Collections.<String> emptyList());
+                return ((Set<?>) scanner.getClass().getMethod("scanAnnotatedClasses").invoke(scanner)).size();
+            }
+        },
+        /** ScanClassPath.scanJarAnnotatedClasses of the synthetic jars only */
+        SCAN_JARS {
+            @Override
+            int run(final ClassLoader loader, final File[] jars) throws Exception {
+                Object scanner = newScanner(loader, ALLOW_FILTER);
+                Method scan = scanner.getClass().getMethod("scanJarAnnotatedClasses", File[].class);
+                return ((Set<?>) scan.invoke(scanner, (Object) jars)).size();
+            }
+        },
+        /** first ConfigManager initialize, scan included */
+        INITIALIZE {
+            @Override
+            int run(final ClassLoader loader, final File[] jars) throws Exception {
+                Class<?> configManager = loader.loadClass("org.commons.jconfig.config.ConfigManager");
+                Object instance = configManager.getField("INSTANCE").get(null);
+                configManager.getMethod("snapshot").invoke(instance);
+                return -1;
+            }
+        };
+
+        /**
+         * @return number of Config classes found, -1 if not known
+         */
+        abstract int run(ClassLoader loader, File[] jars) throws Exception;
+
+        private static Object newScanner(final ClassLoader loader, final List<String> allowFilter) throws Exception {
+            Class<?> config = loader.loadClass(CONFIG);
+            return loader.loadClass(SCAN_CLASS_PATH).getConstructor(Class.class, List.class).newInstance(config,
+                    allowFilter);
+        }
+    }
+
+    public static void main(final String[] args) throws Exception {
+        int[] classCounts = { 1000, 10000 };
+        int iterations = 5;
+        if (args.length > 0) {
+            String[] counts = args[0].split(",");
+            classCounts = new int[counts.length];
+            for (int i = 0; i < counts.length; i++) {
+                classCounts[i] = Integer.parseInt(counts[i].trim());
+            }
+        }
+        if (args.length > 1) {
+            iterations = Integer.parseInt(args[1]);
+        }
+
+        for (int classCount : classCounts) {
+            File dir = new File(System.getProperty("java.io.tmpdir"), "jconfig-startup-" + System.nanoTime());
+            if (!dir.mkdirs()) {
+                throw new IOException("Failed to create " + dir);
+            }
+            File[] jars = SyntheticJars.write(dir, JAR_COUNT, classCount, ANNOTATED_EVERY);
+            URL[] urls = classPath(jars);
+            for (Strategy strategy : Strategy.values()) {
+                run(classCount, strategy, urls, jars, iterations);
+            }
+        }
+        System.exit(0);
+    }
+
+    private static void run(final int classCount, final Strategy strategy, final URL[] urls, final File[] jars,
+            final int iterations) throws Exception {
+        long totalTime = 0;
+        long totalClasses = 0;
+        long totalMetaspace = 0;
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            System.gc();
+            long classesStart = ManagementFactory.getClassLoadingMXBean().getTotalLoadedClassCount();
+            long metaspaceStart = metaspaceUsed();
+            ClassLoader contextLoader = Thread.currentThread().getContextClassLoader();
+            // parent is the extension (platform) loader, so jconfig classes are loaded again
+            URLClassLoader loader = new URLClassLoader(urls, ClassLoader.getSystemClassLoader().getParent());
+            Thread.currentThread().setContextClassLoader(loader);
+            long start = System.nanoTime();
+            int found;
+            try {
+                found = strategy.run(loader, jars);
+            } finally {
+                Thread.currentThread().setContextClassLoader(contextLoader);
+            }
+            long time = (System.nanoTime() - start) / 1000000;
+            long classes = ManagementFactory.getClassLoadingMXBean().getTotalLoadedClassCount() - classesStart;
+            long metaspace = (metaspaceUsed() - metaspaceStart) / 1024;
+            System.out.println("classes=" + classCount + " strategy=" + strategy + " iteration=" + iteration
+                    + " timeMs=" + time + " classesLoaded=" + classes + " metaspaceKb=" + metaspace
+                    + (found < 0 ? "" : " configClassesFound=" + found));
+            if (iteration > 0) {
+                totalTime += time;
+                totalClasses += classes;
+                totalMetaspace += metaspace;
+            }
+        }
+        int measured = Math.max(1, iterations - 1);
+        System.out.println("classes=" + classCount + " strategy=" + strategy + " avgTimeMs=" + totalTime / measured
+                + " avgClassesLoaded=" + totalClasses / measured + " avgMetaspaceKb=" + totalMetaspace / measured);
+    }
+
+    /**
+     * @return benchmark classpath followed by the synthetic jars
+     */
+    private static URL[] classPath(final File[] jars) throws IOException {
+        List<URL> urls = new ArrayList<URL>();
+        for (String path : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            urls.add(new File(path).toURI().toURL());
+        }
+        for (File jar : jars) {
+            urls.add(jar.toURI().toURL());
+        }
+        return urls.toArray(new URL[urls.size()]);
+    }
+
+    /**
+     * @return bytes used by class metadata, in metaspace or perm gen
+     */
+    private static long metaspaceUsed() {
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getName().contains("Metaspace") || pool.getName().contains("Perm Gen")) {
+                used += pool.getUsage().getUsed();
+            }
+        }
+        return used;
+    }
+}
@@ -0,0 +1,146 @@
+package org.commons.jconfig.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+/**
+ * Writes jars of generated classes, to simulate the fat classpath of a large
+ * application. Class files are written directly, without a compiler.
+ * 
+ * Half of the classes are in org.commons.jconfig.synthetic packages, matched
+ * by the ConfigManager scan allow filter, and half in com.example.synthetic
+ * packages. One class in annotatedEvery is annotated with Config.
+ */
+final class SyntheticJars {
+
+    /** classes per package */
+    private static final int PACKAGE_SIZE = 100;
+    /** class file version 50, java 6 */
+    private static final int MAJOR_VERSION = 50;
+
+    private SyntheticJars() {
+    }
+
+    /**
+     * @param dir
+     *            directory to write the jars to
+     * @param jarCount
+     *            number of jars
+     * @param classCount
+     *            total number of classes, spread evenly over the jars
+     * @param annotatedEvery
+     *            one class in annotatedEvery is annotated with Config
+     * @return the jars written
+     * @throws IOException
+     */
+    static File[] write(final File dir, final int jarCount, final int classCount, final int annotatedEvery)
+            throws IOException {
+        File[] jars = new File[jarCount];
+        int classIndex = 0;
+        for (int jar = 0; jar < jarCount; jar++) {
+            jars[jar] = new File(dir, "synthetic" + jar + ".jar");
+            JarOutputStream out = new JarOutputStream(new FileOutputStream(jars[jar]));
+            try {
+                int end = (int) ((long) classCount * (jar + 1) / jarCount);
+                for (; classIndex < end; classIndex++) {
+                    String root = classIndex % 2 == 0 ? "org/commons/jconfig/synthetic" : "com/example/synthetic";
+                    String className = root + "/p" + (classIndex / PACKAGE_SIZE) + "/Synthetic" + classIndex;
+                    out.putNextEntry(new JarEntry(className + ".class"));
+                    out.write(classFile(className, classIndex % annotatedEvery == 0));
+                    out.closeEntry();
+                }
+            } finally {
+                out.close();
+            }
+        }
+        return jars;
+    }
+
+    /**
+     * @param className
+     *            internal name, e.g. org/example/Name
+     * @param annotated
+     *            true to annotate the class with
+     *            Config(description="Synthetic config")
+     * @return class file of a public class with a default constructor
+     */
+    static byte[] classFile(final String className, final boolean annotated) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0xCAFEBABE);
+        out.writeShort(0);
+        out.writeShort(MAJOR_VERSION);
+
+        // constant pool
+        out.writeShort(14);
+        out.writeByte(7); // #1 this class
+        out.writeShort(2);
+        utf8(out, className); // #2
+        out.writeByte(7); // #3 super class
+        out.writeShort(4);
+        utf8(out, "java/lang/Object"); // #4
+        utf8(out, "<init>"); // #5
+        utf8(out, "()V"); // #6
+        out.writeByte(12); // #7 name and type of Object.<init>
+        out.writeShort(5);
+        out.writeShort(6);
+        out.writeByte(10); // #8 Object.<init>
+        out.writeShort(3);
+        out.writeShort(7);
+        utf8(out, "Code"); // #9
+        utf8(out, "RuntimeVisibleAnnotations"); // #10
+        utf8(out, "Lorg/commons/jconfig/annotations/Config;"); // #11
+        utf8(out, "description"); // #12
+        utf8(out, "Synthetic config"); // #13
+
+        out.writeShort(0x0021); // public super
+        out.writeShort(1);
+        out.writeShort(3);
+        out.writeShort(0); // interfaces
+        out.writeShort(0); // fields
+
+        // public constructor calling Object.<init>
+        out.writeShort(1);
+        out.writeShort(0x0001);
+        out.writeShort(5);
+        out.writeShort(6);
+        out.writeShort(1);
+        out.writeShort(9);
+        out.writeInt(17);
+        out.writeShort(1); // max stack
+        out.writeShort(1); // max locals
+        out.writeInt(5);
+        out.writeByte(0x2A); // aload_0
+        out.writeByte(0xB7); // invokespecial #8
+        out.writeShort(8);
+        out.writeByte(0xB1); // return
+        out.writeShort(0); // exception table
+        out.writeShort(0); // code attributes
+
+        if (annotated) {
+            out.writeShort(1);
+            out.writeShort(10);
+            out.writeInt(11);
+            out.writeShort(1); // one annotation
+            out.writeShort(11);
+            out.writeShort(1); // one element
+            out.writeShort(12);
+            out.writeByte('s');
+            out.writeShort(13);
+        } else {
+            out.writeShort(0);
+        }
+        out.close();
+        return bytes.toByteArray();
+    }
+
+    private static void utf8(final DataOutputStream out, final String value) throws IOException {
+        out.writeByte(1);
+        out.writeUTF(value);
+    }
+}
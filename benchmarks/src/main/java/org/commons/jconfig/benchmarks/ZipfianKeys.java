@@ -0,0 +1,73 @@
+package org.commons.jconfig.benchmarks;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Generates sequences of key indexes in [0, keyCount), either uniformly
+ * distributed or following a Zipfian distribution where a few keys get most of
+ * the accesses, like config contexts of the busiest farms or users. Sequences
+ * are generated up front so generating keys is not measured.
+ */
+final class ZipfianKeys {
+
+    /** Zipfian constant, the YCSB default */
+    static final double THETA = 0.99;
+
+    private ZipfianKeys() {
+    }
+
+    /**
+     * @param keyCount
+     *            number of distinct keys
+     * @param length
+     *            length of the sequence
+     * @param zipfian
+     *            true for a Zipfian distribution, false for uniform
+     * @param seed
+     *            random seed, use a different seed per thread
+     * @return sequence of key indexes
+     */
+    static int[] sequence(final int keyCount, final int length, final boolean zipfian, final long seed) {
+        Random random = new Random(seed);
+        int[] sequence = new int[length];
+        if (!zipfian) {
+            for (int i = 0; i < length; i++) {
+                sequence[i] = random.nextInt(keyCount);
+            }
+            return sequence;
+        }
+
+        // cumulative probability of ranks 0..keyCount-1
+        double[] cumulative = new double[keyCount];
+        double sum = 0;
+        for (int rank = 0; rank < keyCount; rank++) {
+            sum += 1.0 / Math.pow(rank + 1, THETA);
+            cumulative[rank] = sum;
+        }
+        // spread the hot keys over the key space, the same for every seed
+        int[] keyOfRank = permutation(keyCount, new Random(keyCount));
+        for (int i = 0; i < length; i++) {
+            int rank = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+            if (rank < 0) {
+                rank = -rank - 1;
+            }
+            sequence[i] = keyOfRank[Math.min(rank, keyCount - 1)];
+        }
+        return sequence;
+    }
+
+    private static int[] permutation(final int size, final Random random) {
+        int[] permutation = new int[size];
+        for (int i = 0; i < size; i++) {
+            permutation[i] = i;
+        }
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = permutation[i];
+            permutation[i] = permutation[j];
+            permutation[j] = tmp;
+        }
+        return permutation;
+    }
+}
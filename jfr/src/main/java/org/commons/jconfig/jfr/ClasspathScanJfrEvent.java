@@ -0,0 +1,33 @@
+package org.commons.jconfig.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event of {@link org.commons.jconfig.events.ClasspathScanEvent}
+ */
+@Name("org.commons.jconfig.ClasspathScan")
+@Label("Config Classpath Scan")
+@Category("Config")
+@Description("The class path was scanned for annotated classes")
+class ClasspathScanJfrEvent extends Event {
+
+    @Label("Annotation")
+    String annotationName;
+
+    @Label("Classes Checked")
+    @Description("Number of classes loaded to check for the annotation")
+    int classesChecked;
+
+    @Label("Classes Found")
+    @Description("Number of annotated classes")
+    int classesFound;
+
+    @Label("Scan Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    long scanDuration;
+}
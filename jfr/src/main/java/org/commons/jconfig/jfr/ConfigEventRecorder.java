@@ -0,0 +1,143 @@
+package org.commons.jconfig.jfr;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+import org.apache.log4j.Logger;
+import org.commons.jconfig.events.ClasspathScanEvent;
+import org.commons.jconfig.events.ConfigEvent;
+import org.commons.jconfig.events.ConfigEventListener;
+import org.commons.jconfig.events.ConfigEvents;
+import org.commons.jconfig.events.ConfigFlipEvent;
+import org.commons.jconfig.events.ConfigLoaderPushEvent;
+import org.commons.jconfig.events.ConfigObjectBuildEvent;
+
+/**
+ * Records the config events as Java Flight Recorder events, in the "Config"
+ * category. The recorder only listens to the config events while a flight
+ * recording is running, so the config events cost nothing otherwise.<BR>
+ * <BR>
+ *
+ * Requires the jdk.jfr API of java 8u262 or java 11 and later. Example code,
+ * on application start: <code>
+ * ConfigEventRecorder.install();
+ * </code>
+ */
+public final class ConfigEventRecorder implements ConfigEventListener {
+
+    private static final Logger logger = Logger.getLogger(ConfigEventRecorder.class);
+
+    private static final ConfigEventRecorder INSTANCE = new ConfigEventRecorder();
+
+    /** running recordings, guarded by ConfigEventRecorder.class */
+    private static final Set<Recording> running = new HashSet<Recording>();
+    private static FlightRecorderListener recorderListener = null;
+
+    private ConfigEventRecorder() {
+    }
+
+    /**
+     * Record the config events while flight recordings are running
+     */
+    public static synchronized void install() {
+        if (recorderListener != null) {
+            return;
+        }
+        FlightRecorder.register(FlipJfrEvent.class);
+        FlightRecorder.register(ObjectBuildJfrEvent.class);
+        FlightRecorder.register(LoaderPushJfrEvent.class);
+        FlightRecorder.register(ClasspathScanJfrEvent.class);
+        recorderListener = new FlightRecorderListener() {
+            @Override
+            public void recordingStateChanged(final Recording recording) {
+                update(recording);
+            }
+        };
+        FlightRecorder.addListener(recorderListener);
+        if (FlightRecorder.isInitialized()) {
+            for (Recording recording : FlightRecorder.getFlightRecorder().getRecordings()) {
+                update(recording);
+            }
+        }
+        logger.info("Recording config events to Java Flight Recorder");
+    }
+
+    /**
+     * Stop recording the config events
+     */
+    public static synchronized void uninstall() {
+        if (recorderListener == null) {
+            return;
+        }
+        FlightRecorder.removeListener(recorderListener);
+        recorderListener = null;
+        running.clear();
+        ConfigEvents.removeListener(INSTANCE);
+    }
+
+    private static synchronized void update(final Recording recording) {
+        if (recorderListener == null) {
+            return;
+        }
+        if (recording.getState() == RecordingState.RUNNING) {
+            running.add(recording);
+        } else {
+            running.remove(recording);
+        }
+        if (running.isEmpty()) {
+            ConfigEvents.removeListener(INSTANCE);
+        } else {
+            ConfigEvents.addListener(INSTANCE);
+        }
+    }
+
+    @Override
+    public void onEvent(final ConfigEvent event) {
+        if (event instanceof ConfigObjectBuildEvent) {
+            ConfigObjectBuildEvent build = (ConfigObjectBuildEvent) event;
+            ObjectBuildJfrEvent jfrEvent = new ObjectBuildJfrEvent();
+            if (jfrEvent.isEnabled()) {
+                jfrEvent.moduleName = build.getModuleName();
+                jfrEvent.context = build.getContext();
+                jfrEvent.keyCount = build.getKeyCount();
+                jfrEvent.buildDuration = build.getDurationNanos();
+                jfrEvent.commit();
+            }
+        } else if (event instanceof ConfigFlipEvent) {
+            ConfigFlipEvent flip = (ConfigFlipEvent) event;
+            FlipJfrEvent jfrEvent = new FlipJfrEvent();
+            if (jfrEvent.isEnabled()) {
+                jfrEvent.moduleNames = flip.getModuleNames().toString();
+                jfrEvent.payloadSize = flip.getPayloadSize();
+                jfrEvent.flipDuration = flip.getDurationNanos();
+                jfrEvent.commit();
+            }
+        } else if (event instanceof ConfigLoaderPushEvent) {
+            ConfigLoaderPushEvent push = (ConfigLoaderPushEvent) event;
+            LoaderPushJfrEvent jfrEvent = new LoaderPushJfrEvent();
+            if (jfrEvent.isEnabled()) {
+                jfrEvent.appName = push.getAppName();
+                jfrEvent.moduleName = push.getModuleName();
+                jfrEvent.payloadSize = push.getPayloadSize();
+                jfrEvent.succeeded = push.isSucceeded();
+                jfrEvent.pushDuration = push.getDurationNanos();
+                jfrEvent.commit();
+            }
+        } else if (event instanceof ClasspathScanEvent) {
+            ClasspathScanEvent scan = (ClasspathScanEvent) event;
+            ClasspathScanJfrEvent jfrEvent = new ClasspathScanJfrEvent();
+            if (jfrEvent.isEnabled()) {
+                jfrEvent.annotationName = scan.getAnnotationName();
+                jfrEvent.classesChecked = scan.getClassesChecked();
+                jfrEvent.classesFound = scan.getClassesFound();
+                jfrEvent.scanDuration = scan.getDurationNanos();
+                jfrEvent.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package org.commons.jconfig.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event of {@link org.commons.jconfig.events.ConfigFlipEvent}
+ */
+@Name("org.commons.jconfig.ConfigFlip")
+@Label("Config Flip")
+@Category("Config")
+@Description("Config values loaded since the last flip were published to readers")
+class FlipJfrEvent extends Event {
+
+    @Label("Modules")
+    @Description("Modules loaded since the last flip")
+    String moduleNames;
+
+    @Label("Payload Size")
+    @Description("Length of the json config values loaded, in characters")
+    long payloadSize;
+
+    @Label("Flip Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    long flipDuration;
+}
@@ -0,0 +1,36 @@
+package org.commons.jconfig.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event of {@link org.commons.jconfig.events.ConfigLoaderPushEvent}
+ */
+@Name("org.commons.jconfig.ConfigLoaderPush")
+@Label("Config Loader Push")
+@Category("Config")
+@Description("The config loader pushed the config values of a module to an application")
+class LoaderPushJfrEvent extends Event {
+
+    @Label("Application")
+    String appName;
+
+    @Label("Module")
+    String moduleName;
+
+    @Label("Payload Size")
+    @Description("Length of the json config values pushed, in characters")
+    long payloadSize;
+
+    @Label("Succeeded")
+    @Description("False if the application failed to load the values")
+    boolean succeeded;
+
+    @Label("Push Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    long pushDuration;
+}
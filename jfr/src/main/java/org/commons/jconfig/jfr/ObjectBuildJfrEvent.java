@@ -0,0 +1,32 @@
+package org.commons.jconfig.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event of {@link org.commons.jconfig.events.ConfigObjectBuildEvent}
+ */
+@Name("org.commons.jconfig.ConfigObjectBuild")
+@Label("Config Object Build")
+@Category("Config")
+@Description("A config object was loaded with the config values of a context")
+class ObjectBuildJfrEvent extends Event {
+
+    @Label("Module")
+    String moduleName;
+
+    @Label("Context")
+    String context;
+
+    @Label("Key Count")
+    @Description("Number of keys set")
+    int keyCount;
+
+    @Label("Build Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    long buildDuration;
+}
@@ -0,0 +1,51 @@
+package org.commons.jconfig.jfr;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.commons.jconfig.events.ConfigEvents;
+import org.commons.jconfig.events.ConfigFlipEvent;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ConfigEventRecorderTest {
+
+    @Test
+    public void testRecordFlip() throws IOException {
+        ConfigEventRecorder.install();
+        File file = File.createTempFile("config", ".jfr");
+        try {
+            Assert.assertFalse(ConfigEvents.isEnabled());
+            Recording recording = new Recording();
+            try {
+                recording.enable(FlipJfrEvent.class);
+                recording.start();
+                // config events are only listened to while recording
+                Assert.assertTrue(ConfigEvents.isEnabled());
+                ConfigEvents.emit(new ConfigFlipEvent(Collections.singleton("Module1"), 42, 1000));
+                recording.stop();
+                Assert.assertFalse(ConfigEvents.isEnabled());
+                recording.dump(file.toPath());
+            } finally {
+                recording.close();
+            }
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file.toPath());
+            Assert.assertEquals(events.size(), 1);
+            RecordedEvent event = events.get(0);
+            Assert.assertEquals(event.getEventType().getName(), "org.commons.jconfig.ConfigFlip");
+            Assert.assertEquals(event.getString("moduleNames"), "[Module1]");
+            Assert.assertEquals(event.getLong("payloadSize"), 42);
+            Assert.assertEquals(event.getDuration("flipDuration").toNanos(), 1000);
+        } finally {
+            ConfigEventRecorder.uninstall();
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package org.commons.jconfig.configloader;
+
+import java.beans.ConstructorProperties;
+
+import org.commons.jconfig.internal.jmx.LatencyStats;
+
+/**
+ * Sync statistics of an application, exposed by
+ * {@link ConfigLoaderStatsMXBean}.
+ */
+public class AppSyncStats {
+
+    private final String appName;
+    private final long lastSyncTime;
+    private final long failureCount;
+    private final long modulesPushed;
+    private final long modulesSkipped;
+    private final long bytesPushed;
+    private final LatencyStats syncDuration;
+
+    @ConstructorProperties({ "appName", "lastSyncTime", "failureCount", "modulesPushed", "modulesSkipped",
+            "bytesPushed", "syncDuration" })
+    public AppSyncStats(final String appName, final long lastSyncTime, final long failureCount,
+            final long modulesPushed, final long modulesSkipped, final long bytesPushed,
+            final LatencyStats syncDuration) {
+        this.appName = appName;
+        this.lastSyncTime = lastSyncTime;
+        this.failureCount = failureCount;
+        this.modulesPushed = modulesPushed;
+        this.modulesSkipped = modulesSkipped;
+        this.bytesPushed = bytesPushed;
+        this.syncDuration = syncDuration;
+    }
+
+    public String getAppName() {
+        return appName;
+    }
+
+    /**
+     * @return end time of the last sync in ms since the epoch, 0 if none
+     */
+    public long getLastSyncTime() {
+        return lastSyncTime;
+    }
+
+    /**
+     * @return syncs that failed
+     */
+    public long getFailureCount() {
+        return failureCount;
+    }
+
+    public long getModulesPushed() {
+        return modulesPushed;
+    }
+
+    public long getModulesSkipped() {
+        return modulesSkipped;
+    }
+
+    public long getBytesPushed() {
+        return bytesPushed;
+    }
+
+    /**
+     * @return duration of the syncs, attach included
+     */
+    public LatencyStats getSyncDuration() {
+        return syncDuration;
+    }
+}
@@ -4,6 +4,7 @@ import org.commons.jconfig.annotations.Config;
 import org.commons.jconfig.annotations.ConfigGet;
 import org.commons.jconfig.annotations.ConfigResource;
 import org.commons.jconfig.annotations.ConfigSet;
+import org.commons.jconfig.annotations.NumberRange;
 import org.commons.jconfig.annotations.StringNotEmpty;
 import org.commons.jconfig.annotations.TimeRange;
 import org.commons.jconfig.datatype.TimeValue;
@@ -147,6 +148,23 @@ public class ConfigLoaderConfig {
         maxWorkerThreads = value;
     }
 
+    /**
+     * ConfigLoader max threads loading the modules of an application in
+     * parallel, shared by all applications.
+     */
+    private Number maxModuleWorkerThreads;
+
+    @ConfigGet(description = "ConfigLoader max threads loading application modules in parallel.", type = ValueType.Number, defaultValue = "4")
+    public Number getMaxModuleWorkerThreads() {
+        return maxModuleWorkerThreads;
+    }
+
+    @ConfigSet
+    @NumberRange(min = 1, max = 256)
+    public void setMaxModuleWorkerThreads(final Number value) {
+        maxModuleWorkerThreads = value;
+    }
+
     private Boolean loadFromServer;
 
     @ConfigSet
@@ -177,4 +195,104 @@ public class ConfigLoaderConfig {
     public void setConfigPath(final String name) {
         configPath = name;
     }
+
+    private Boolean socketEnabled;
+
+    /**
+     * True if configs are also pushed over a loopback socket to applications
+     * with ConfigManager LoadFrom set to "SOCKET". Off by default: any local
+     * process can connect to a loopback port, subscriptions are only
+     * authenticated by the secret in SocketSecretFile, which is as safe as the
+     * permissions of its directory.
+     * 
+     * @return
+     */
+    @ConfigGet(description = "True if configs are also pushed to applications over a loopback socket.", type = ValueType.Boolean, defaultValue = "false")
+    public Boolean getSocketEnabled() {
+        return socketEnabled;
+    }
+
+    @ConfigSet
+    public void setSocketEnabled(final Boolean value) {
+        socketEnabled = value;
+    }
+
+    private Number socketPort;
+
+    /**
+     * Loopback port the config loader listens on for socket subscriptions.
+     * Should match ConfigManager ConfigLoaderSocketPort.
+     * 
+     * @return
+     */
+    @ConfigGet(description = "Loopback port for socket subscriptions.", type = ValueType.Number, defaultValue = "17680")
+    public Number getSocketPort() {
+        return socketPort;
+    }
+
+    @ConfigSet
+    @NumberRange(min = 1, max = 65535)
+    public void setSocketPort(final Number value) {
+        socketPort = value;
+    }
+
+    private String socketSecretFile;
+
+    /**
+     * File the config loader writes its socket secret to, readable by its
+     * owner only. Applications must run as the same user to subscribe. A
+     * relative name is resolved against the config loader config directory
+     * (JCONFIG_CDIR), which must not be writable by other users. Should match
+     * ConfigManager ConfigLoaderSocketSecretFile.
+     * 
+     * @return
+     */
+    @ConfigGet(description = "Secret file authenticating socket subscriptions.", type = ValueType.String, defaultValue = "config_loader.socket.secret")
+    public String getSocketSecretFile() {
+        return socketSecretFile;
+    }
+
+    @ConfigSet
+    @StringNotEmpty
+    public void setSocketSecretFile(final String name) {
+        socketSecretFile = name;
+    }
+
+    private Boolean mmapEnabled;
+
+    /**
+     * True if configs are also published to a memory mapped config segment,
+     * read by applications with ConfigManager LoadFrom set to "MMAP".
+     * 
+     * @return
+     */
+    @ConfigGet(description = "True if configs are also published to a memory mapped config segment.", type = ValueType.Boolean, defaultValue = "false")
+    public Boolean getMmapEnabled() {
+        return mmapEnabled;
+    }
+
+    @ConfigSet
+    public void setMmapEnabled(final Boolean value) {
+        mmapEnabled = value;
+    }
+
+    private String mmapFileName;
+
+    /**
+     * Memory mapped config segment file. A relative name is resolved against
+     * the config loader config directory (JCONFIG_CDIR), which must not be
+     * writable by other users. Should match ConfigManager ConfigLoaderMmapFile.
+     * 
+     * @return
+     */
+    @ConfigGet(description = "Memory mapped config segment file.", type = ValueType.String, defaultValue = "config_loader.mmap")
+    public String getMmapFileName() {
+        return mmapFileName;
+    }
+
+    @ConfigSet
+    @StringNotEmpty
+    public void setMmapFileName(final String name) {
+        mmapFileName = name;
+    }
 }
@@ -1,17 +1,27 @@
 package org.commons.jconfig.configloader;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.management.Attribute;
 import javax.management.AttributeNotFoundException;
 import javax.management.InstanceNotFoundException;
 import javax.management.IntrospectionException;
 import javax.management.InvalidAttributeValueException;
+import javax.management.JMException;
 import javax.management.MBeanAttributeInfo;
 import javax.management.MBeanException;
 import javax.management.MBeanNotificationInfo;
@@ -20,6 +30,7 @@ import javax.management.MalformedObjectNameException;
 import javax.management.NotificationBroadcasterSupport;
 import javax.management.ObjectName;
 import javax.management.ReflectionException;
+import javax.management.RuntimeMBeanException;
 
 import org.apache.log4j.Logger;
 import org.codehaus.jackson.JsonNode;
@@ -28,11 +39,19 @@ import org.codehaus.jackson.node.ArrayNode;
 import org.codehaus.jackson.node.ObjectNode;
 import org.commons.jconfig.config.ConfigException;
 import org.commons.jconfig.config.ConfigLoaderAdapterID;
+import org.commons.jconfig.events.ConfigEvents;
+import org.commons.jconfig.events.ConfigLoaderPushEvent;
+import org.commons.jconfig.internal.ConfigMBean;
+import org.commons.jconfig.internal.Worker;
+import org.commons.jconfig.internal.WorkerExecutorService;
+import org.commons.jconfig.internal.WorkerFuture;
 import org.commons.jconfig.internal.jmx.ConfigManagerJmx;
 import org.commons.jconfig.internal.jmx.ConfigManagerJvm;
 import org.commons.jconfig.internal.jmx.LoadAppConfigsNotification;
+import org.commons.jconfig.internal.jmx.LatencyStats;
 import org.commons.jconfig.internal.jmx.LoadModuleConfigsNotification;
 import org.commons.jconfig.internal.jmx.VirtualMachineException;
+import org.commons.jconfig.internal.mmap.MappedConfigReader;
 import org.commons.jconfig.loader.adapters.Adapter;
 import org.commons.jconfig.loader.adapters.AutoConf;
 import org.commons.jconfig.loader.adapters.AutoConfAdapter;
@@ -48,14 +67,17 @@ import org.commons.jconfig.loader.adapters.LsgAdapter;
  * currently supports @AutoConf
  */
 public class ConfigLoaderJmx
-extends NotificationBroadcasterSupport implements ConfigLoaderJmxMXBean {
+extends NotificationBroadcasterSupport implements ConfigLoaderStatsMXBean {
 
     private final Logger logger = Logger.getLogger(ConfigLoaderJmx.class);
     private ConfigLoaderConfig config;
+    private AutoConf autoconf;
     private static final String SETS_TYPE = "_Sets_Type_";
     private static final String SETS = "_Sets_";
     private static final String SETS_KEY_NODE = "key";
     private static final String SETS_KEYLIST_NODE = "keyList";
+    /** Shared mapper; thread safe once configured */
+    private static final ObjectMapper MAPPER = new ObjectMapper();
 
     /**
      * Empty constructor for registering MBean, since without registering Loader
@@ -82,7 +104,9 @@ extends NotificationBroadcasterSupport implements ConfigLoaderJmxMXBean {
      */
     protected void init(final ConfigLoaderConfig config) {
         this.config = config;
-        AutoConf autoconf = new AutoConf(config);
+        moduleExecutor = new WorkerExecutorService("ConfigLoaderModuleExecutor", config.getMaxModuleWorkerThreads()
+                .intValue());
+        autoconf = new AutoConf(config);
         AutoConfAdapter stdrdAdapter = new AutoConfAdapter(autoconf);
         LsgAdapter lsgAdapter = new LsgAdapter(autoconf);
 
@@ -109,6 +133,162 @@ extends NotificationBroadcasterSupport implements ConfigLoaderJmxMXBean {
 
     @Override
     public void subscribeConfigs(final String appName) throws ConfigException {
+        ObjectName managerObjectName = getManagerObjectName(appName);
+        // keep the vm id of an application already subscribed with one
+        String vmId = subscriptions.putIfAbsent(managerObjectName, "-1");
+        newSubscriptions.add(managerObjectName);
+        logger.info("Subscribed config manager " + managerObjectName + " in vm " + (vmId == null ? "-1" : vmId));
+    }
+
+    @Override
+    public void subscribeConfigs(final String appName, final String vmId) throws ConfigException {
+        subscribe(getManagerObjectName(appName), vmId);
+    }
+
+    private ObjectName getManagerObjectName(final String appName) throws ConfigException {
+        try {
+            return new ObjectName(ConfigManagerJvm.CONFIG_MGR_MBEAN_NAME + appName);
+        } catch (MalformedObjectNameException e) {
+            throw new ConfigException("Invalid application name: " + appName, e);
+        }
+    }
+
+    /**
+     * Record a ConfigManager to keep up to date with configurations. Newly
+     * subscribed ConfigManagers are queued for an immediate load.
+     * 
+     * @param managerObjectName
+     *            ConfigManager MBean name
+     * @param vmId
+     *            id of the VM the ConfigManager runs in, "-1" if unknown
+     */
+    public void subscribe(final ObjectName managerObjectName, final String vmId) {
+        String previousVmId = subscriptions.put(managerObjectName, vmId);
+        if (!vmId.equals(previousVmId)) {
+            if (previousVmId != null) {
+                removeCheckSums(managerObjectName, previousVmId);
+            }
+            newSubscriptions.add(managerObjectName);
+            logger.info("Subscribed config manager " + managerObjectName + " in vm " + vmId);
+        }
+    }
+
+    /**
+     * Stop keeping the given ConfigManager up to date, e.g. its VM is gone.
+     * Its application sync statistics are dropped.
+     * 
+     * @param managerObjectName
+     *            ConfigManager MBean name
+     */
+    public void unsubscribe(final ObjectName managerObjectName) {
+        String vmId = subscriptions.remove(managerObjectName);
+        if (vmId != null) {
+            removeCheckSums(managerObjectName, vmId);
+            stats.removeApp(managerObjectName.getKeyProperty(ConfigManagerJvm.APPNAME_KEY));
+            logger.info("Unsubscribed config manager " + managerObjectName);
+        }
+    }
+
+    /**
+     * Forget the module checksums of a ConfigManager vm, its next load pushes
+     * all modules
+     * 
+     * @param managerObjectName
+     * @param vmId
+     */
+    private void removeCheckSums(final ObjectName managerObjectName, final String vmId) {
+        String prefix = checkSumKey(managerObjectName.getKeyProperty(ConfigManagerJvm.APPNAME_KEY), vmId, "");
+        for (String key : moduleConfCheckSumMap.keySet()) {
+            if (key.startsWith(prefix)) {
+                moduleConfCheckSumMap.remove(key);
+            }
+        }
+    }
+
+    /**
+     * @param appName
+     * @param vmId
+     * @param module
+     * @return key of the module checksum, "Application@vmId.module". Each vm
+     *         of an application has its own checksums, as the vms are not
+     *         loaded at the same time
+     */
+    static String checkSumKey(final String appName, final String vmId, final String module) {
+        return appName + "@" + vmId + "." + module;
+    }
+
+    /**
+     * @return read only view of subscribed ConfigManager MBean names and the
+     *         id of the VM they run in
+     */
+    public Map<ObjectName, String> getSubscriptions() {
+        return Collections.unmodifiableMap(subscriptions);
+    }
+
+    /**
+     * @return next ConfigManager subscribed since the last call, null if none
+     */
+    public ObjectName pollNewSubscription() {
+        return newSubscriptions.poll();
+    }
+
+    /**
+     * Signals that the merged config file changed. The next read of the config
+     * source picks up the new file, and a ConfigLoaderWorker waiting in
+     * awaitConfigChange is woken up to push the new configs right away.
+     */
+    public void configChanged() {
+        if (autoconf != null) {
+            autoconf.reload();
+        }
+        synchronized (configChangeLock) {
+            pendingConfigChange = true;
+            configChangeLock.notifyAll();
+        }
+    }
+
+    /**
+     * Signal a config change if the merged config file was modified since the
+     * last check. Called both by the ConfigMerger after saving the merged file
+     * and periodically for changes by another process; recording the modified
+     * time signals each change once.
+     */
+    public void checkMergedFile() {
+        long modifiedTime = new File(getConfig().getConfigFileName()).lastModified();
+        synchronized (configChangeLock) {
+            if (modifiedTime == mergedFileModifiedTime) {
+                return;
+            }
+            boolean firstCheck = (mergedFileModifiedTime == -1);
+            mergedFileModifiedTime = modifiedTime;
+            if (firstCheck) {
+                return;
+            }
+        }
+        configChanged();
+    }
+
+    /**
+     * Wait for configChanged to be called. A change signaled before this call
+     * returns immediately. The change is consumed by the caller.
+     * 
+     * @param timeout
+     *            max ms to wait
+     * @return true if the config changed, false if timed out
+     * @throws InterruptedException
+     */
+    public boolean awaitConfigChange(final long timeout) throws InterruptedException {
+        long endTime = System.currentTimeMillis() + timeout;
+        synchronized (configChangeLock) {
+            long remaining = timeout;
+            while (!pendingConfigChange && (remaining > 0)) {
+                configChangeLock.wait(remaining);
+                remaining = endTime - System.currentTimeMillis();
+            }
+            boolean changed = pendingConfigChange;
+            pendingConfigChange = false;
+            return changed;
+        }
     }
 
     /**
@@ -118,28 +298,47 @@ extends NotificationBroadcasterSupport implements ConfigLoaderJmxMXBean {
      * configuration source is not an error case. Only a warning is logged. it
      * is the caller's responsibility to verify all modules are populated.<br>
      * 
+     * The module configs are staged in the application and committed with a
+     * single cache flip once every module is loaded, so the application never
+     * sees a mix of old and new module configs. If a module fails, the stage
+     * is aborted and the application keeps its current configs.<br>
+     * 
      * @param managerObjectName
      * @param force
-     *            if false, only set if the configurations changed from previous
-     *            load. else, load regardless.
+     *            if false, only set the modules whose configurations changed
+     *            since the last load of the application vm. else, load
+     *            regardless, e.g. on a new subscription.
+     * @return version of the config values committed in the application, 0 if
+     *         the application has no config MBeans or does not support stages
+     *         and has to flip its cache itself
      * @throws ConfigException
-     *             if appName not found in the configurations source.
+     *             if appName not found in the configurations source, or the
+     *             new configs could not be committed.
      */
-    public void loadAppConfigs(final ObjectName managerObjectName, final boolean force) throws VirtualMachineException,
+    public long loadAppConfigs(final ObjectName managerObjectName, final boolean force) throws VirtualMachineException,
     ConfigException {
         String applicationName = managerObjectName.getKeyProperty(ConfigManagerJvm.APPNAME_KEY);
         // Configuration Manager MBean of the application to load configs for
         ConfigManagerJvm vm = new ConfigManagerJvm(managerObjectName);
+        String vmId = subscriptions.get(managerObjectName);
+        if (vmId != null) {
+            vm.setVmId(vmId);
+        }
 
         //the result of the load operation
+        long start = System.nanoTime();
         boolean result = false;
+        long configVersion = 0;
         boolean sendNotification = true;
         String notificationMsg = "config loading for " + applicationName + " application is complete";
 
         try {
 
             vm.attach();
+            stats.attached(System.nanoTime() - start);
             MBeanServerConnection mbsc = vm.getJMXConnector().getMBeanServerConnection();
+            // found by probing, remember the vm for the next load
+            subscriptions.replace(managerObjectName, "-1", vm.getVmId());
 
             // Query MBean in the Config MBeans domain
             //
@@ -147,44 +346,203 @@ extends NotificationBroadcasterSupport implements ConfigLoaderJmxMXBean {
                     ConfigManagerJmx.CONFIG_MBEANS_SEARCH_PATTERN + applicationName + ",*"), null));
             if ( configNames.size() == 0 ) {
                 logger.error("No configuration MBeans registered in " + applicationName);
-                return;
-            }
-
-            JsonNode appNode = getApplicationConfig(mbsc, applicationName, configNames);
-            logger.debug("loading " + applicationName + " with configs:  " + appNode.toString());
-
-            // For each registered configuration MBean set the MBean properties
-            for (ObjectName bname : configNames) {
-
-                try {
-                    loadModuleConfigs(mbsc, applicationName, appNode, bname, force);
-                } catch (ConfigException e) {
-                    //Swallow the exception.  No need to fail the entire app just cause one module is bad.
-                    logger.error("no configuration found for the " + moduleName(bname) + " module for the "
-                            + applicationName + " applicaton");
-                }
+                return 0;
             }
 
+            configVersion = pushAppConfigs(mbsc, managerObjectName, applicationName, vm.getVmId(), configNames,
+                    force);
             result = true;
 
         } catch (VirtualMachineException e) {
             throw e;
-        } catch (Exception e) {
+        } catch (ConfigException e) {
+            notificationMsg = e.getMessage();
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConfigException(e);
+        } catch (Throwable e) {
             throw new ConfigException(e);
         } finally {
             if (sendNotification) {
                 // Send the notification for this appName
-                LoadAppConfigsNotification n = new LoadAppConfigsNotification(this, sequenceNumber++,
-                        System.currentTimeMillis(), notificationMsg, applicationName, result);
+                LoadAppConfigsNotification n = new LoadAppConfigsNotification(this, sequenceNumber.getAndIncrement(),
+                        System.currentTimeMillis(), notificationMsg, applicationName, result, configVersion);
                 sendNotification(n);
                 logger.info("Notified application " + applicationName + " about new configs.");
             }
+            stats.synced(applicationName, System.nanoTime() - start, result);
             try {
                 vm.close();
             } catch (VirtualMachineException e) {
                 logger.error(e.getMessage());
             }
         }
+        return configVersion;
+    }
+
+    /**
+     * Push the module configs to the config MBeans of an attached application
+     * vm, in a config stage if the application supports them. Unchanged
+     * modules are not pushed again unless forced, but are listed in the commit
+     * so the application keeps them. Without stages all modules are pushed,
+     * as the application flip only keeps the pushed modules.
+     * 
+     * @param mbsc
+     *            connection to the application vm
+     * @param managerObjectName
+     * @param applicationName
+     * @param vmId
+     *            id of the application vm
+     * @param configNames
+     *            config MBeans of the application
+     * @param force
+     *            push all modules
+     * @return version of the committed config values, 0 if the application
+     *         does not support stages and has to flip its cache itself
+     * @throws ConfigException
+     *             if a module could not be pushed or the stage not committed;
+     *             the stage is aborted
+     */
+    long pushAppConfigs(final MBeanServerConnection mbsc, final ObjectName managerObjectName,
+            final String applicationName, final String vmId, final Set<ObjectName> configNames, final boolean force)
+            throws ConfigException, InterruptedException, JMException, IOException {
+        JsonNode appNode = getApplicationConfig(mbsc, applicationName, configNames);
+        logger.debug("loading " + applicationName + " with configs:  " + appNode.toString());
+
+        long stageId = beginStage(mbsc, managerObjectName);
+        boolean committed = false;
+        try {
+            // without stages the application flip replaces all its modules, they must all be pushed
+            boolean pushAll = force || stageId == 0;
+            if (stageId > 0 && ((String[]) mbsc.getAttribute(managerObjectName, "StagedModules")).length > 0) {
+                // stage left open by another load: the module checksums only cover committed values, a staged
+                // value of a skipped module would be committed in its place
+                logger.info("Resuming config stage " + stageId + " of " + applicationName + ", pushing all modules");
+                pushAll = true;
+            }
+
+            // For each registered configuration MBean set the MBean properties, in parallel
+            Map<String, Integer> pushedCheckSums = new ConcurrentHashMap<String, Integer>();
+            Map<ObjectName, WorkerFuture<Boolean>> futures = new LinkedHashMap<ObjectName, WorkerFuture<Boolean>>();
+            for (ObjectName bname : configNames) {
+                futures.put(bname, moduleExecutor.submit(new LoadModuleWorker(mbsc, applicationName, vmId, appNode,
+                        bname, pushAll, pushedCheckSums)));
+            }
+            // pushed and unchanged modules, all of them are kept by the commit
+            List<String> modules = new ArrayList<String>();
+            boolean loaded = true;
+            for (Map.Entry<ObjectName, WorkerFuture<Boolean>> entry : futures.entrySet()) {
+                try {
+                    if (entry.getValue().get()) {
+                        modules.add(moduleName(entry.getKey()));
+                    } else {
+                        loaded = false;
+                    }
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof ConfigException) {
+                        //Swallow the exception.  No need to fail the entire app just cause one module is bad.
+                        logger.error("no configuration found for the " + moduleName(entry.getKey())
+                                + " module for the " + applicationName + " applicaton");
+                    } else {
+                        throw new ConfigException(e.getCause());
+                    }
+                }
+            }
+
+            String failedMsg = "config loading for " + applicationName + " application failed, stage " + stageId
+                    + " aborted";
+            if (stageId == 0) {
+                moduleConfCheckSumMap.putAll(pushedCheckSums);
+                committed = true;
+                return 0;
+            } else if (!loaded) {
+                throw new ConfigException(failedMsg);
+            }
+            long configVersion;
+            try {
+                configVersion = commitStage(mbsc, managerObjectName, applicationName, vmId, stageId, modules);
+            } catch (ConfigException e) {
+                throw new ConfigException(failedMsg, e.getCause());
+            }
+            // the pushed values are only in the application once committed
+            moduleConfCheckSumMap.putAll(pushedCheckSums);
+            committed = true;
+            return configVersion;
+        } finally {
+            if (stageId > 0 && !committed) {
+                // leave no stage open, it would block the other config sources of the application
+                abortStage(mbsc, managerObjectName, stageId);
+            }
+        }
+    }
+
+    /**
+     * Open, or resume, a config stage in the application
+     * 
+     * @param mbsc
+     * @param managerObjectName
+     * @return stage id, 0 if the application does not support stages
+     */
+    private long beginStage(final MBeanServerConnection mbsc, final ObjectName managerObjectName)
+            throws InstanceNotFoundException, MBeanException, IOException {
+        try {
+            return (Long) mbsc.invoke(managerObjectName, "beginStage", null, null);
+        } catch (ReflectionException e) {
+            logger.info(managerObjectName + " does not support config stages, flipping the cache after loading");
+            return 0;
+        }
+    }
+
+    /**
+     * Commit a config stage in the application. If the commit fails, e.g. a
+     * module skipped as unchanged is not loaded in the application, the
+     * checksums of the modules are cleared so the next load pushes them all.
+     * 
+     * @param mbsc
+     * @param managerObjectName
+     * @param appName
+     * @param vmId
+     *            id of the application vm
+     * @param stageId
+     * @param modules
+     *            all modules of the new version
+     * @return version of the committed config values
+     * @throws ConfigException
+     *             if the application failed to commit the stage
+     */
+    long commitStage(final MBeanServerConnection mbsc, final ObjectName managerObjectName, final String appName,
+            final String vmId, final long stageId, final List<String> modules) throws ConfigException, InstanceNotFoundException,
+            MBeanException, ReflectionException, IOException {
+        try {
+            long configVersion = (Long) mbsc.invoke(managerObjectName, "commitStage", new Object[] { stageId,
+                    modules.toArray(new String[modules.size()]) }, new String[] { long.class.getName(),
+                    String[].class.getName() });
+            logger.info("Committed config stage " + stageId + " of " + appName + " as version " + configVersion);
+            return configVersion;
+        } catch (RuntimeMBeanException e) {
+            for (String module : modules) {
+                moduleConfCheckSumMap.remove(checkSumKey(appName, vmId, module));
+            }
+            throw new ConfigException("Failed to commit config stage " + stageId + " of " + appName, e
+                    .getTargetException());
+        }
+    }
+
+    /**
+     * Abort a config stage in the application, errors are only logged
+     * 
+     * @param mbsc
+     * @param managerObjectName
+     * @param stageId
+     */
+    private void abortStage(final MBeanServerConnection mbsc, final ObjectName managerObjectName, final long stageId) {
+        try {
+            mbsc.invoke(managerObjectName, "abortStage", new Object[] { stageId }, new String[] { long.class
+                    .getName() });
+        } catch (Exception e) {
+            logger.error("Failed to abort config stage " + stageId + " of " + managerObjectName, e);
+        }
     }
 
     /**
@@ -210,8 +568,7 @@ extends NotificationBroadcasterSupport implements ConfigLoaderJmxMXBean {
 
             JsonNode appNode = getApplicationConfig(mbsc, appName, configNames);
             if (appNode != null) {
-                ObjectMapper mapper = new ObjectMapper();
-                return mapper.writeValueAsString(appNode).hashCode();
+                return MAPPER.writeValueAsString(appNode).hashCode();
             } else {
                 return 0;
             }
@@ -238,12 +595,17 @@ extends NotificationBroadcasterSupport implements ConfigLoaderJmxMXBean {
      * 
      * @param mbsc
      * @param appName
+     * @param vmId
+     *            id of the application vm
      * @param appNode
      * @param bname
      * @param force
      *            if false, only set if the configurations changed from previous
-     *            load. else, load regardless.
-     * @throws ConfigException
+     *            load of the vm. else, load regardless.
+     * @param pushedCheckSums
+     *            checksum of the module config, added once set; recorded by
+     *            the caller once the application published it
+     * @return true if the module configs were set, or were already in synch
      * @throws ConfigException
      *             if configuration module is missing in the JsonNode
      * @throws IOException
@@ -254,73 +616,123 @@ extends NotificationBroadcasterSupport implements ConfigLoaderJmxMXBean {
      * @throws InstanceNotFoundException
      * @throws IntrospectionException
      */
-    private void loadModuleConfigs(final MBeanServerConnection mbsc, final String appName, final JsonNode appNode,
-            final ObjectName bname, final boolean force)
+    private boolean loadModuleConfigs(final MBeanServerConnection mbsc, final String appName, final String vmId,
+            final JsonNode appNode, final ObjectName bname, final boolean force, final Map<String, Integer> pushedCheckSums)
             throws ConfigException, InstanceNotFoundException, AttributeNotFoundException, InvalidAttributeValueException, MBeanException, ReflectionException, IOException, IntrospectionException {
 
+        boolean recording = ConfigEvents.isEnabled();
+        long start = recording ? System.nanoTime() : 0;
+        long payloadSize = 0;
         boolean result = false;
+        boolean pushing = false;
         boolean sendNotification = true;
         String module = moduleName(bname);
+        String checkSumKey = checkSumKey(appName, vmId, module);
         String notificationMsg = "config loading for module " + module + " of " + appName + " application is complete";
         try {
             if ( ! hasModule(appNode, module) ) {
                 notificationMsg = "no configuration found for the " + module + " module for the " + appName + " applicaton";
                 throw new ConfigException(notificationMsg);
             }
-            JsonNode moduleNode = getModule(appNode, module);
+            ModulePayloads payloads = getModulePayloads(appName + "." + module, getModule(appNode, module));
 
             // If we are reSynching, check if the config source configuration changed from our last load
-            Integer checkSum = moduleNode.hashCode();
-            if ( ! force && checkSum.equals(moduleConfCheckSumMap.get(appName + "." + module)) ) {
+            Integer checkSum = payloads.getCheckSum();
+            if ( ! force && checkSum.equals(moduleConfCheckSumMap.get(checkSumKey)) ) {
                 logger.debug("configuration for the " + module + " module for the " + appName + " applicaton still in synch");
+                stats.moduleSkipped(appName);
                 sendNotification = false;
-                return;
+                return true;
             }
             logger.info("configuration for the " + module + " module for the " + appName + " applicaton: "
-                    + moduleNode.toString());
-
-            // update our chucksum for this module
-            moduleConfCheckSumMap.put(appName + "." + module, checkSum);
+                    + payloads.getJson());
 
-            // Set the configuration MBeans attributes in the jmx get the attributes for this MBean
-            MBeanAttributeInfo[] attribs = mbsc.getMBeanInfo(bname).getAttributes();
+            payloadSize = payloads.getJson().length();
+            pushing = true;
 
-            // Populate the MBean attributes using the config node
-            for (MBeanAttributeInfo attrib : attribs) {
-
-                if (!attrib.isWritable()) {
-                    logger.info(module + " " + attrib.getName() + " MBean attribute is read only");
-                    continue;
-                }
-
-                if (!hasAttribute(moduleNode, attrib.getName())) {
-                    logger.info(module + " " + attrib.getName() + " MBean attribute is missing configuration entry");
-                    continue;
-                }
-
-                try {
-                    mbsc.setAttribute(bname, createConfigAttribute(attrib, moduleNode));
-                } catch (ConfigException e) {
-                    // Swallow the exception. No need to fail the entire MBean
-                    // just cause one attribute is bad.
-                    logger.info(module + " " + attrib.getName() + " MBean attribute load error");
-                }
+            // Set all the module configs with a single call, fall back to one call per
+            // attribute for config MBeans without the bulk operation
+            try {
+                mbsc.invoke(bname, ConfigMBean.LOAD_MODULE_OPERATION, new Object[] { payloads.getJson() },
+                        new String[] { String.class.getName() });
+            } catch (ReflectionException e) {
+                logger.info(module + " MBean does not support " + ConfigMBean.LOAD_MODULE_OPERATION
+                        + ", setting attributes one by one");
+                loadModuleAttributes(mbsc, module, payloads, bname);
+            } catch (MBeanException e) {
+                notificationMsg = "config loading for module " + module + " of " + appName + " application failed";
+                logger.error(module + " MBean module load error", e);
+                return false;
             }
+            pushedCheckSums.put(checkSumKey, checkSum);
+            stats.modulePushed(appName, payloadSize);
 
             result = true;
+            return true;
         } finally {
+            if (pushing && !result) {
+                // the module may be partially set, push it again on the next load
+                moduleConfCheckSumMap.remove(checkSumKey);
+            }
 
             if ( sendNotification ) {
                 //
                 // Send the notification for this module
                 LoadModuleConfigsNotification n =
                         new LoadModuleConfigsNotification(
-                                this, sequenceNumber++, System.currentTimeMillis(),
+                                this, sequenceNumber.getAndIncrement(), System.currentTimeMillis(),
                                 notificationMsg, appName, module,  result);
 
                 sendNotification(n);
                 logger.info("Notified module " + module + " of application " + appName + " about new configs.");
             }
+            if (recording && payloadSize > 0) {
+                ConfigEvents.emit(new ConfigLoaderPushEvent(appName, module, payloadSize, result, System.nanoTime()
+                        - start));
+            }
+        }
+    }
+
+    /**
+     * Set the config MBean attributes one by one from the module config node.
+     * 
+     * @param mbsc
+     * @param module
+     * @param payloads
+     *            module config node split per attribute
+     * @param bname
+     * @throws InstanceNotFoundException
+     * @throws IntrospectionException
+     * @throws ReflectionException
+     * @throws IOException
+     * @throws AttributeNotFoundException
+     * @throws InvalidAttributeValueException
+     * @throws MBeanException
+     */
+    private void loadModuleAttributes(final MBeanServerConnection mbsc, final String module,
+            final ModulePayloads payloads, final ObjectName bname) throws InstanceNotFoundException,
+            IntrospectionException, ReflectionException, IOException, AttributeNotFoundException,
+            InvalidAttributeValueException, MBeanException {
+
+        // Set the configuration MBeans attributes in the jmx get the attributes for this MBean
+        MBeanAttributeInfo[] attribs = mbsc.getMBeanInfo(bname).getAttributes();
+
+        // Populate the MBean attributes using the config node
+        Map<String, String> attributePayloads = payloads.getAttributes();
+        for (MBeanAttributeInfo attrib : attribs) {
+
+            if (!attrib.isWritable()) {
+                logger.info(module + " " + attrib.getName() + " MBean attribute is read only");
+                continue;
+            }
+
+            String payload = attributePayloads.get(attrib.getName());
+            if (payload == null) {
+                logger.info(module + " " + attrib.getName() + " MBean attribute is missing configuration entry");
+                continue;
+            }
+
+            mbsc.setAttribute(bname, new Attribute(attrib.getName(), payload));
         }
     }
 
@@ -344,8 +756,7 @@ extends NotificationBroadcasterSupport implements ConfigLoaderJmxMXBean {
             final Set<ObjectName> configNames) throws ConfigException {
 
         String moduleName = null;
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode appNode = mapper.createObjectNode();
+        ObjectNode appNode = MAPPER.createObjectNode();
 
         for (ObjectName bname : configNames) {
 
@@ -368,24 +779,92 @@ extends NotificationBroadcasterSupport implements ConfigLoaderJmxMXBean {
                 logger.error("LoaderAdapter attribute missing for " + moduleName + " Config MBean", e);
             }
 
-            // No adapter specified, log it
-            // and assume we are using standard autoConf config module
-            if ( strAdapter == null ) {
-                strAdapter = ConfigLoaderAdapterID.JSON_AUTOCONF.getUri();
-            }
-            if (strAdapter.equals(ConfigLoaderAdapterID.LSG_AUTOCONF.getUri())) {
-                System.out.println("");
+            appNode.put(moduleName, getModuleNode(appName, moduleName, strAdapter));
+        }
+        return appNode;
+    }
+
+    /**
+     * Get the application config Json node for the given app and modules.<br>
+     * <br>
+     * 
+     * builds a Json structure of all the module configs for the given<br>
+     * application.
+     * 
+     * @param appName
+     * @param moduleAdapters
+     *            module names and the uri of their config module adapter
+     * @return application config node
+     * @throws ConfigException
+     *             if a module has an unknown adapter
+     */
+    public JsonNode getApplicationConfig(final String appName, final Map<String, String> moduleAdapters)
+            throws ConfigException {
+        ObjectNode appNode = MAPPER.createObjectNode();
+        for (Map.Entry<String, String> entry : moduleAdapters.entrySet()) {
+            appNode.put(entry.getKey(), getModuleNode(appName, entry.getKey(), entry.getValue()));
+        }
+        return appNode;
+    }
+
+    /**
+     * Get the config document published to the memory mapped config segment:
+     * the merged AutoConf document, plus the node of every other config module
+     * adapter keyed by adapter uri under the "_Adapters_" node. Only adapters
+     * not depending on the application or module name can be published this way.
+     * 
+     * @return compiled config document
+     * @throws ConfigException
+     *             if the merged AutoConf file cannot be read
+     */
+    public JsonNode getCompiledConfig() throws ConfigException {
+        ObjectNode root = MAPPER.createObjectNode();
+        JsonNode conf = autoconf.getConf();
+        Iterator<String> names = conf.getFieldNames();
+        while (names.hasNext()) {
+            String name = names.next();
+            root.put(name, conf.get(name));
+        }
+
+        ObjectNode adapters = MAPPER.createObjectNode();
+        for (Map.Entry<String, Adapter> entry : adapterMap.entrySet()) {
+            if (entry.getKey().equals(ConfigLoaderAdapterID.JSON_AUTOCONF.getUri())) {
+                continue;
             }
-            // Check to see if we have an adapter for this config module
-            Adapter adapter = adapterMap.get(strAdapter);
-            if (adapter != null) {
-                JsonNode moduleNode = adapter.getModuleNode(appName, moduleName);
-                appNode.put(moduleName, moduleNode);
-            } else {
-                throw new ConfigException("Failed to create adapter.");
+            JsonNode node = entry.getValue().getModuleNode(null, null);
+            if (node != null) {
+                adapters.put(entry.getKey(), node);
             }
         }
-        return appNode;
+        root.put(MappedConfigReader.ADAPTERS_NODE, adapters);
+        return root;
+    }
+
+    /**
+     * Get the module config Json node from the config module adapter.
+     * 
+     * @param appName
+     * @param moduleName
+     * @param strAdapter
+     *            adapter uri, null for the standard autoConf adapter
+     * @return module config node, null if missing
+     * @throws ConfigException
+     *             if there is no adapter for the uri
+     */
+    private JsonNode getModuleNode(final String appName, final String moduleName, Object strAdapter)
+            throws ConfigException {
+        // No adapter specified, log it
+        // and assume we are using standard autoConf config module
+        if ( strAdapter == null ) {
+            strAdapter = ConfigLoaderAdapterID.JSON_AUTOCONF.getUri();
+        }
+        // Check to see if we have an adapter for this config module
+        Adapter adapter = adapterMap.get(strAdapter);
+        if (adapter != null) {
+            return adapter.getModuleNode(appName, moduleName);
+        } else {
+            throw new ConfigException("Failed to create adapter.");
+        }
     }
 
     /**
@@ -396,7 +875,9 @@ extends NotificationBroadcasterSupport implements ConfigLoaderJmxMXBean {
      * @return
      */
     private static boolean hasModule(final JsonNode appNode, final String module) {
-        return appNode.has(module);
+        // getApplicationConfig puts a null node for modules the adapters have no config for
+        JsonNode moduleNode = appNode.get(module);
+        return moduleNode != null && moduleNode.isObject();
     }
 
     /**
@@ -412,97 +893,134 @@ extends NotificationBroadcasterSupport implements ConfigLoaderJmxMXBean {
     }
 
     /**
-     * Existence of attribute node node for the given attribute in the given module.
-     * includes checks for attributes inside "Sets"
+     * Get the serialized forms of the module config node, computing them only
+     * if the node changed since the last push of this module. Module nodes are
+     * shared by all JVMs of the application until the config source changes.
      * 
+     * @param key
+     *            "Application.module"
      * @param moduleNode
-     * @param attribName
-     * @return
+     * @return module payloads
      */
-    private static boolean hasAttribute(final JsonNode moduleNode, final String attribName) {
-        /* check in default values */
-        if (moduleNode.has(attribName)) {
-            return true;
+    private ModulePayloads getModulePayloads(final String key, final JsonNode moduleNode) {
+        ModulePayloads payloads = modulePayloadsMap.get(key);
+        if (payloads == null || payloads.moduleNode != moduleNode) {
+            payloads = new ModulePayloads(moduleNode);
+            modulePayloadsMap.put(key, payloads);
         }
-        if (moduleNode.has(SETS)) {
-            JsonNode sets = moduleNode.get(SETS);
-            if (sets.isArray()) {
-                for (JsonNode node : sets) {
-                    if (!node.path(SETS_KEYLIST_NODE).path(attribName).isMissingNode()) {
-                        return true;
-                    }
-                }
-            }
-        }
-        return false;
+        return payloads;
     }
 
     /**
-     * Given and attributeInfo and a configuration node, create and return a set
-     * attribute object
+     * Split a module config node into one attribute payload per config
+     * attribute, in a single walk of the "Sets". Each payload holds the
+     * attribute default value and the set overrides of the attribute:<br>
+     * <br>
      * 
-     * @param attrib
-     *            MBean attribute
-     * @param node
-     *            configuration node
+     * { "attrib": default, "_Sets_Type_": type, "_Sets_": [ { "key": key,
+     * "keyList": { "attrib": value } }, ... ] }
      * 
-     * @return a populated attribute
-     * @throws ConfigException
-     *             if configuration entry is missing in the JsonNode<br>
-     *             Or type mismatch between entry in JsonNode and attribute
-     *             type.
-     */
-    private static Attribute createConfigAttribute(final MBeanAttributeInfo attrib, final JsonNode node) throws ConfigException {
-        String attribName = attrib.getName();
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode rootNode = mapper.createObjectNode();
-        ArrayNode newSets = mapper.createArrayNode();
-
-        if (null != node.get(attribName)) {
-            rootNode.put(attribName, node.get(attribName));
-        }
-
-        if (null != node.get(SETS_TYPE)) {
-            rootNode.put(SETS_TYPE, node.get(SETS_TYPE));
-            JsonNode origSets = node.get(SETS);
-            if ((origSets != null) && origSets.isArray()) {
-                Iterator<JsonNode> itr = origSets.iterator();
-                while (itr.hasNext()) {
-                    JsonNode setElement = itr.next();
-                    JsonNode key = setElement.get(SETS_KEY_NODE);
-                    JsonNode keyList = setElement.get(SETS_KEYLIST_NODE);
-
-                    // bad element; skip it
-                    if ((key == null) || (keyList == null)) {
-                        continue;
-                    }
+     * @param node
+     *            module config node
+     * @return attribute name to attribute payload. attributes missing from
+     *         the node, defaults and "Sets" included, have no entry
+     */
+    private static Map<String, String> splitModuleAttributes(final JsonNode node) {
+        // attributes with a default value or listed by any set
+        Map<String, ObjectNode> rootNodes = new LinkedHashMap<String, ObjectNode>();
+        Iterator<String> fields = node.getFieldNames();
+        while (fields.hasNext()) {
+            rootNodes.put(fields.next(), null);
+        }
+        JsonNode origSets = node.get(SETS);
+        if ((origSets != null) && origSets.isArray()) {
+            for (JsonNode setElement : origSets) {
+                Iterator<String> keyListItr = setElement.path(SETS_KEYLIST_NODE).getFieldNames();
+                while (keyListItr.hasNext()) {
+                    rootNodes.put(keyListItr.next(), null);
+                }
+            }
+        }
 
-                    Iterator<String> keyListItr = keyList.getFieldNames();
-                    while (keyListItr.hasNext()) {
-                        String keyListAttribName = keyListItr.next();
+        Map<String, ArrayNode> newSets = new HashMap<String, ArrayNode>();
+        for (Map.Entry<String, ObjectNode> entry : rootNodes.entrySet()) {
+            ObjectNode rootNode = MAPPER.createObjectNode();
+            if (null != node.get(entry.getKey())) {
+                rootNode.put(entry.getKey(), node.get(entry.getKey()));
+            }
+            if (null != node.get(SETS_TYPE)) {
+                rootNode.put(SETS_TYPE, node.get(SETS_TYPE));
+                newSets.put(entry.getKey(), rootNode.putArray(SETS));
+            }
+            entry.setValue(rootNode);
+        }
 
-                        // Is this the attribute name we are interested in
-                        if (keyListAttribName.equals(attribName)) {
+        if (null != node.get(SETS_TYPE) && (origSets != null) && origSets.isArray()) {
+            for (JsonNode setElement : origSets) {
+                JsonNode key = setElement.get(SETS_KEY_NODE);
+                JsonNode keyList = setElement.get(SETS_KEYLIST_NODE);
 
-                            // Build a new node with just the keyList attribute
-                            // we
-                            // are interested in
-                            ObjectNode newNode = mapper.createObjectNode();
-                            ObjectNode attributeNode = mapper.createObjectNode();
-                            attributeNode.put(attribName, keyList.path(attribName));
-                            newNode.put(SETS_KEY_NODE, key);
-                            newNode.put(SETS_KEYLIST_NODE, attributeNode);
+                // bad element; skip it
+                if ((key == null) || (keyList == null)) {
+                    continue;
+                }
 
-                            newSets.add(newNode);
-                        }
-                    }
+                Iterator<String> keyListItr = keyList.getFieldNames();
+                while (keyListItr.hasNext()) {
+                    String attribName = keyListItr.next();
 
+                    // Build a new node with just the keyList attribute
+                    ObjectNode newNode = MAPPER.createObjectNode();
+                    ObjectNode attributeNode = MAPPER.createObjectNode();
+                    attributeNode.put(attribName, keyList.path(attribName));
+                    newNode.put(SETS_KEY_NODE, key);
+                    newNode.put(SETS_KEYLIST_NODE, attributeNode);
+
+                    newSets.get(attribName).add(newNode);
                 }
             }
-            rootNode.put(SETS, newSets);
         }
 
-        return new Attribute(attrib.getName(), rootNode.toString());
+        Map<String, String> payloads = new HashMap<String, String>();
+        for (Map.Entry<String, ObjectNode> entry : rootNodes.entrySet()) {
+            payloads.put(entry.getKey(), entry.getValue().toString());
+        }
+        return payloads;
+    }
+
+    /**
+     * Serialized forms of a module config node, shared by every push of the
+     * node
+     */
+    private static class ModulePayloads {
+        private final JsonNode moduleNode;
+        private final String json;
+        private final Integer checkSum;
+        /** per attribute payloads, only needed by config MBeans without loadModule */
+        private volatile Map<String, String> attributes = null;
+
+        ModulePayloads(final JsonNode moduleNode) {
+            this.moduleNode = moduleNode;
+            json = moduleNode.toString();
+            checkSum = moduleNode.hashCode();
+        }
+
+        String getJson() {
+            return json;
+        }
+
+        Integer getCheckSum() {
+            return checkSum;
+        }
+
+        Map<String, String> getAttributes() {
+            Map<String, String> result = attributes;
+            if (result == null) {
+                result = Collections.unmodifiableMap(splitModuleAttributes(moduleNode));
+                attributes = result;
+            }
+            return result;
+        }
     }
 
     /**
@@ -518,13 +1036,61 @@ extends NotificationBroadcasterSupport implements ConfigLoaderJmxMXBean {
     /**
      * Notification sequence counter
      */
-    private long sequenceNumber = 1;
+    private final AtomicLong sequenceNumber = new AtomicLong(1);
+
+    /**
+     * Map of "Application@vmId.module" to the checksum of the module config
+     * last committed in the vm. This cache used to test for configuration
+     * changes on reSycn operations
+     */
+    private final Map<String, Integer> moduleConfCheckSumMap = new ConcurrentHashMap<String, Integer>();
+
+    /**
+     * Map of "Application.module" to the serialized forms of the module
+     * config node last pushed
+     */
+    private final Map<String, ModulePayloads> modulePayloadsMap = new ConcurrentHashMap<String, ModulePayloads>();
+
+    /**
+     * Executor loading the modules of an application in parallel
+     */
+    private WorkerExecutorService moduleExecutor;
+
+    /**
+     * Executor running the Update Workers, set by ConfigLoaderRunner
+     */
+    private volatile WorkerExecutorService updateExecutor;
+
+    /**
+     * ConfigLoader statistics
+     */
+    private final ConfigLoaderStats stats = new ConfigLoaderStats();
+
+    /**
+     * Guards pendingConfigChange
+     */
+    private final Object configChangeLock = new Object();
+
+    /**
+     * true if configChanged was called and not yet consumed by awaitConfigChange
+     */
+    private boolean pendingConfigChange = false;
 
     /**
-     * Map of "Application.module" JsonNode references.  This cache used to test for
-     * configuration changes on reSycn operations
+     * last modified time stamp of the merged config file, -1 before the first
+     * checkMergedFile
      */
-    private final Map<String, Integer> moduleConfCheckSumMap = new HashMap<String, Integer>();
+    private long mergedFileModifiedTime = -1;
+
+    /**
+     * Map of subscribed ConfigManager MBean names to the id of the VM they run in
+     */
+    private final ConcurrentHashMap<ObjectName, String> subscriptions = new ConcurrentHashMap<ObjectName, String>();
+
+    /**
+     * ConfigManagers subscribed but not yet loaded
+     */
+    private final ConcurrentLinkedQueue<ObjectName> newSubscriptions = new ConcurrentLinkedQueue<ObjectName>();
 
     /**
      * Map of known config module adapters
@@ -535,4 +1101,119 @@ extends NotificationBroadcasterSupport implements ConfigLoaderJmxMXBean {
         return config;
     }
 
+    ConfigLoaderStats getStats() {
+        return stats;
+    }
+
+    Map<String, Integer> getModuleCheckSums() {
+        return moduleConfCheckSumMap;
+    }
+
+    void setUpdateExecutor(final WorkerExecutorService updateExecutor) {
+        this.updateExecutor = updateExecutor;
+    }
+
+    @Override
+    public List<AppSyncStats> getAppSyncStats() {
+        return stats.getAppSyncStats();
+    }
+
+    @Override
+    public long getModulesPushed() {
+        return stats.getModulesPushed();
+    }
+
+    @Override
+    public long getModulesSkipped() {
+        return stats.getModulesSkipped();
+    }
+
+    @Override
+    public long getBytesPushed() {
+        return stats.getBytesPushed();
+    }
+
+    @Override
+    public LatencyStats getDiscoveryLatency() {
+        return stats.getDiscoveryLatency();
+    }
+
+    @Override
+    public LatencyStats getAttachLatency() {
+        return stats.getAttachLatency();
+    }
+
+    @Override
+    public LatencyStats getMergeLatency() {
+        return stats.getMergeLatency();
+    }
+
+    @Override
+    public int getUpdateQueueDepth() {
+        WorkerExecutorService executor = updateExecutor;
+        return executor == null ? 0 : executor.getQueueSize();
+    }
+
+    @Override
+    public int getModuleQueueDepth() {
+        return moduleExecutor == null ? 0 : moduleExecutor.getQueueSize();
+    }
+
+    @Override
+    public void resetStats() {
+        stats.reset();
+    }
+
+    /**
+     * Loads the configs of a single module; see loadModuleConfigs
+     */
+    private class LoadModuleWorker implements Worker<Boolean> {
+        private final MBeanServerConnection mbsc;
+        private final String appName;
+        private final String vmId;
+        private final JsonNode appNode;
+        private final ObjectName bname;
+        private final boolean force;
+        private final Map<String, Integer> pushedCheckSums;
+        private Exception cause = null;
+        private boolean loaded = false;
+
+        LoadModuleWorker(final MBeanServerConnection mbsc, final String appName, final String vmId,
+                final JsonNode appNode, final ObjectName bname, final boolean force,
+                final Map<String, Integer> pushedCheckSums) {
+            this.mbsc = mbsc;
+            this.appName = appName;
+            this.vmId = vmId;
+            this.appNode = appNode;
+            this.bname = bname;
+            this.force = force;
+            this.pushedCheckSums = pushedCheckSums;
+        }
+
+        @Override
+        public boolean execute() {
+            try {
+                loaded = loadModuleConfigs(mbsc, appName, vmId, appNode, bname, force, pushedCheckSums);
+            } catch (Exception e) {
+                cause = e;
+            }
+            return true;
+        }
+
+        @Override
+        public Exception getCause() {
+            return cause;
+        }
+
+        @Override
+        public boolean hasErrors() {
+            return cause != null;
+        }
+
+        @Override
+        public Boolean getData() {
+            return loaded;
+        }
+    }
+
 }
@@ -39,10 +39,20 @@ import org.commons.jconfig.config.ConfigException;
 public interface ConfigLoaderJmxMXBean {
 
     /**
-     * Load (and keep up to date) configuration MXBeans registered by a @ConfigManagerMXBean managed application with appName
+     * Load (and keep up to date) configuration MXBeans registered by a @ConfigManagerMXBean managed application with appName.
+     * An application already subscribed keeps the id of its VM.
      * @param appName
      * @throws ConfigLoaderException
      */
     public void subscribeConfigs(String appName) throws ConfigException;
 
+    /**
+     * Same as subscribeConfigs(appName), with the id of the VM the application runs in
+     * so the ConfigLoader can attach to it without probing every VM on the host.
+     * @param appName
+     * @param vmId
+     * @throws ConfigException
+     */
+    public void subscribeConfigs(String appName, String vmId) throws ConfigException;
+
 }
@@ -0,0 +1,52 @@
+package org.commons.jconfig.configloader;
+
+import java.io.IOException;
+
+import org.apache.log4j.Logger;
+import org.commons.jconfig.config.ConfigException;
+import org.commons.jconfig.internal.mmap.MappedConfigSegment;
+
+/**
+ * Publishes the compiled config document to the memory mapped config segment
+ * read by applications with ConfigManager LoadFrom set to "MMAP". One write per
+ * host replaces the per application push.
+ */
+public class ConfigLoaderMmapPublisher implements ConfigPublisher {
+
+    private final static Logger logger = Logger.getLogger(ConfigLoaderMmapPublisher.class);
+
+    private final ConfigLoaderJmx loaderJmx;
+    private final MappedConfigSegment segment;
+    /** last published document, null if none */
+    private String published = null;
+
+    /**
+     * @param loaderJmx
+     *            ConfigLoaderJmx building the compiled config document
+     * @param fileName
+     *            config segment file
+     * @throws IOException
+     *             if the segment file cannot be mapped
+     */
+    public ConfigLoaderMmapPublisher(final ConfigLoaderJmx loaderJmx, final String fileName) throws IOException {
+        this.loaderJmx = loaderJmx;
+        this.segment = MappedConfigSegment.openForWrite(fileName);
+    }
+
+    @Override
+    public synchronized void publish() {
+        try {
+            String document = loaderJmx.getCompiledConfig().toString();
+            if (document.equals(published)) {
+                return;
+            }
+            segment.write(document);
+            published = document;
+            logger.info("Published configs to config segment, sequence " + segment.getSequence());
+        } catch (ConfigException e) {
+            logger.error("Failed to build configs for config segment", e);
+        } catch (IOException e) {
+            logger.error("Failed to publish configs to config segment", e);
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package org.commons.jconfig.configloader;
 
+import java.io.IOException;
 import java.lang.management.ManagementFactory;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -22,6 +25,7 @@ import org.commons.jconfig.config.ConfigManager;
 import org.commons.jconfig.config.ConfigManagerConfig;
 import org.commons.jconfig.internal.ConfigAdapterJson;
 import org.commons.jconfig.internal.ConfigManagerCache;
+import org.commons.jconfig.internal.PrivateFiles;
 import org.commons.jconfig.internal.WorkerExecutorService;
 import org.commons.jconfig.internal.jmx.ConfigLoaderJvm;
 import org.commons.jconfig.internal.jmx.VirtualMachineException;
@@ -129,15 +133,16 @@ public class ConfigLoaderRunner {
 
         mbean.init(config);
 
-        startConfServerReader();
+        startConfServerReader(mbean);
 
         startJMXReader();
 
         executor = new WorkerExecutorService("ConfigLoaderExecutor", config
                 .getMaxWorkerThreads().intValue());
+        mbean.setUpdateExecutor(executor);
         try {
             logger.info("Start worker job for pushing configs to applications. ");
-            executor.submit(new ConfigLoaderWorker(executor, mbean)).get();
+            executor.submit(new ConfigLoaderWorker(executor, mbean, startPublishers(mbean))).get();
         } catch (InterruptedException e) {
             logger.error("Error running ConfigLoaderWorker ", e);
         } catch (ExecutionException e) {
@@ -147,18 +152,30 @@ public class ConfigLoaderRunner {
 
     /**
      * Start task to read config files from config server, merge the files and
-     * save the merged file
+     * save the merged file. A changed merged file is pushed to applications
+     * right away.
+     * 
+     * @param mbean
+     *            ConfigLoaderJmx to notify of merged file changes
      */
-    private void startConfServerReader() {
+    private void startConfServerReader(final ConfigLoaderJmx mbean) {
         logger.info("start reading config files from server "
                 + config.getConfigServerURL());
 
         final ConfigMerger merger = new ConfigMerger(config);
+        merger.setListener(new ConfigMerger.Listener() {
+            @Override
+            public void mergedConfigChanged() {
+                mbean.checkMergedFile();
+            }
+        });
         Runnable r1 = new Runnable() {
             @Override
             public void run() {
                 try {
+                    long start = System.nanoTime();
                     merger.mergeConfig();
+                    mbean.getStats().merged(System.nanoTime() - start);
                 } catch (Exception e) {
                     // any exception thrown will suppress future calls to this
                     // scheduler and hence catch all exceptions.
@@ -200,6 +217,40 @@ public class ConfigLoaderRunner {
                 localCache);
     }
 
+    /**
+     * Start the enabled transports publishing configs next to JMX: the
+     * loopback socket and the memory mapped config segment.
+     * 
+     * @param mbean
+     *            ConfigLoaderJmx building the application configs
+     * @return the started publishers
+     */
+    private List<ConfigPublisher> startPublishers(final ConfigLoaderJmx mbean) {
+        List<ConfigPublisher> publishers = new ArrayList<ConfigPublisher>();
+        if (Boolean.TRUE.equals(config.getSocketEnabled())) {
+            ConfigLoaderSocketServer server = new ConfigLoaderSocketServer(mbean, config.getSocketPort().intValue(),
+                    PrivateFiles.resolve(config.getSocketSecretFile(), loaderConfigDirPath).getPath());
+            try {
+                server.start();
+                publishers.add(server);
+            } catch (IOException e) {
+                logger.error("Failed to start socket transport on port " + config.getSocketPort()
+                        + ", configs are not pushed over socket", e);
+            }
+        }
+        if (Boolean.TRUE.equals(config.getMmapEnabled())) {
+            String mmapFileName = PrivateFiles.resolve(config.getMmapFileName(), loaderConfigDirPath).getPath();
+            try {
+                publishers.add(new ConfigLoaderMmapPublisher(mbean, mmapFileName));
+                logger.info("Publishing configs to config segment " + mmapFileName);
+            } catch (IOException e) {
+                logger.error("Failed to map config segment " + mmapFileName
+                        + ", configs are not published to config segment", e);
+            }
+        }
+        return publishers;
+    }
+
     /**
      * Start task to read application MBeans
      */
@@ -0,0 +1,335 @@
+package org.commons.jconfig.configloader;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+import org.codehaus.jackson.JsonNode;
+import org.commons.jconfig.config.ConfigException;
+import org.commons.jconfig.internal.ExecutorThreadFactory;
+import org.commons.jconfig.internal.socket.SocketAuth;
+import org.commons.jconfig.internal.socket.SocketFrame;
+
+/**
+ * Loopback socket transport for pushing configs to applications with
+ * ConfigManager LoadFrom set to "SOCKET". Alternative to the JMX transport,
+ * avoiding the Attach API and RMI connection per push.<BR>
+ * <BR>
+ *
+ * Applications connect, authenticate with the secret the loader writes to the
+ * socket secret file (see {@link SocketAuth}) and send a SUBSCRIBE frame with their appName and
+ * config modules. The loader pushes one MODULE frame per module followed by a
+ * FLIP frame; on later pushes only if the application configs changed. See
+ * {@link SocketFrame} for the protocol.<BR>
+ * <BR>
+ *
+ * Each subscriber is pushed to by its own writer thread, so an application
+ * that stops reading only blocks its own pushes. A subscriber whose push is
+ * blocked for more than WRITE_TIMEOUT is dropped; the application
+ * subscribes again and gets all its configs.
+ */
+public class ConfigLoaderSocketServer implements Runnable, ConfigPublisher {
+
+    private final static Logger logger = Logger.getLogger(ConfigLoaderSocketServer.class);
+
+    /** Time an application gets to authenticate, in milliseconds */
+    private static final int AUTH_TIMEOUT = 5000;
+    /** Time a push may block on a subscriber not reading, in milliseconds */
+    private static final int WRITE_TIMEOUT = 10000;
+
+    private final ConfigLoaderJmx loaderJmx;
+    private final int port;
+    private final String secretFileName;
+    private String secret;
+    private ServerSocket serverSocket;
+    private final Set<Subscriber> subscribers = new CopyOnWriteArraySet<Subscriber>();
+
+    /** Accepts connections, reads from and writes to subscribers */
+    private final ExecutorService connections = Executors.newCachedThreadPool(new ExecutorThreadFactory(
+            "ConfigLoaderSocket"));
+    /** Drops subscribers blocking a push for more than WRITE_TIMEOUT */
+    private final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(
+            new ExecutorThreadFactory("ConfigLoaderSocketWatchdog"));
+
+    /**
+     * @param loaderJmx
+     *            ConfigLoaderJmx building the application configs
+     * @param port
+     *            loopback port to listen on
+     * @param secretFileName
+     *            file to write the subscription secret to
+     */
+    public ConfigLoaderSocketServer(final ConfigLoaderJmx loaderJmx, final int port, final String secretFileName) {
+        this.loaderJmx = loaderJmx;
+        this.port = port;
+        this.secretFileName = secretFileName;
+    }
+
+    /**
+     * Write a new subscription secret and start listening for subscriptions
+     *
+     * @throws IOException
+     *             if the secret cannot be written or port cannot be bound
+     */
+    public void start() throws IOException {
+        secret = SocketAuth.writeSecret(secretFileName);
+        serverSocket = new ServerSocket(port, 50, InetAddress.getByName("127.0.0.1"));
+        connections.execute(this);
+        watchdog.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                for (Subscriber subscriber : subscribers) {
+                    if (subscriber.isWriteTimedOut()) {
+                        logger.error("Application " + subscriber.appName + " stopped reading configs for "
+                                + WRITE_TIMEOUT + " ms, dropping its socket subscription");
+                        subscriber.close();
+                    }
+                }
+            }
+        }, WRITE_TIMEOUT / 2, WRITE_TIMEOUT / 2, TimeUnit.MILLISECONDS);
+        logger.info("Listening for config subscriptions on port " + port);
+    }
+
+    /**
+     * Stop listening and disconnect all subscribers
+     */
+    public void close() {
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            // ignore exception to allow gc to collect resources
+        }
+        for (Subscriber subscriber : subscribers) {
+            subscriber.close();
+        }
+        connections.shutdownNow();
+        watchdog.shutdownNow();
+    }
+
+    /**
+     * Push changed configs to all subscribers in the background
+     */
+    @Override
+    public void publish() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.requestPush();
+        }
+    }
+
+    @Override
+    public void run() {
+        while (!serverSocket.isClosed()) {
+            try {
+                connections.execute(new Subscriber(serverSocket.accept()));
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    logger.error("Failed to accept config subscription ", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Connected application
+     */
+    private class Subscriber implements Runnable {
+        private final Socket socket;
+        private DataOutputStream out;
+        private String appName;
+        private final Map<String, String> moduleAdapters = new LinkedHashMap<String, String>();
+        /** hash of the application configs last pushed, 0 if none */
+        private int configHashCode = 0;
+        /** true if configs changed since the writer last pushed, guarded by pushLock */
+        private boolean pushRequested = false;
+        private final Object pushLock = new Object();
+        /** time the running push started writing, in milliseconds; 0 if not writing */
+        private volatile long writeStart = 0;
+
+        Subscriber(final Socket socket) {
+            this.socket = socket;
+        }
+
+        @Override
+        public void run() {
+            try {
+                DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                socket.setSoTimeout(AUTH_TIMEOUT);
+                if (!authenticate(in)) {
+                    logger.error("Rejected socket subscription failing to authenticate");
+                    return;
+                }
+                SocketFrame frame = SocketFrame.read(in);
+                socket.setSoTimeout(0);
+                if (frame.getType() != SocketFrame.SUBSCRIBE) {
+                    logger.error("Expected subscribe frame, got " + frame);
+                    return;
+                }
+                parseSubscription(frame.getPayload());
+                subscribers.add(this);
+                logger.info("Subscribed application " + appName + " over socket");
+                connections.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        writeLoop();
+                    }
+                });
+                requestPush();
+
+                // block until the application disconnects
+                while (true) {
+                    frame = SocketFrame.read(in);
+                    logger.debug("Ignoring frame from " + appName + " " + frame);
+                }
+            } catch (IOException e) {
+                logger.info("Application " + appName + " disconnected");
+            } finally {
+                subscribers.remove(this);
+                close();
+            }
+        }
+
+        /**
+         * Shared secret handshake, see {@link SocketAuth}
+         * 
+         * @return true if the application knows the secret
+         */
+        private boolean authenticate(final DataInputStream in) throws IOException {
+            String nonce = SocketAuth.newNonce();
+            new SocketFrame(SocketFrame.AUTH, nonce).write(out);
+            out.flush();
+            SocketFrame frame = SocketFrame.read(in);
+            String payload = frame.getPayload();
+            int index = payload.indexOf(SocketFrame.LINE_SEPARATOR);
+            if (frame.getType() != SocketFrame.AUTH || index <= 0
+                    || !SocketAuth.verify(secret, nonce, payload.substring(index + 1))) {
+                return false;
+            }
+            new SocketFrame(SocketFrame.AUTH, SocketAuth.sign(secret, payload.substring(0, index))).write(out);
+            out.flush();
+            return true;
+        }
+
+        private void parseSubscription(final String payload) {
+            String[] lines = payload.split(String.valueOf(SocketFrame.LINE_SEPARATOR));
+            appName = lines[0];
+            for (int i = 1; i < lines.length; i++) {
+                int index = lines[i].indexOf(SocketFrame.MODULE_SEPARATOR);
+                if (index > 0) {
+                    moduleAdapters.put(lines[i].substring(0, index), lines[i].substring(index + 1));
+                }
+            }
+        }
+
+        /**
+         * Wake the writer to push the application configs if they changed.
+         * Pushes requested while the writer is busy are coalesced.
+         */
+        void requestPush() {
+            synchronized (pushLock) {
+                pushRequested = true;
+                pushLock.notifyAll();
+            }
+        }
+
+        /**
+         * @return true if the running push is blocked for more than
+         *         WRITE_TIMEOUT
+         */
+        boolean isWriteTimedOut() {
+            long start = writeStart;
+            return start != 0 && System.currentTimeMillis() - start > WRITE_TIMEOUT;
+        }
+
+        /**
+         * Push requested configs until the subscriber is closed
+         */
+        private void writeLoop() {
+            try {
+                while (true) {
+                    synchronized (pushLock) {
+                        while (!pushRequested && !socket.isClosed()) {
+                            pushLock.wait();
+                        }
+                        pushRequested = false;
+                    }
+                    if (socket.isClosed()) {
+                        return;
+                    }
+                    push();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Push all module configs followed by a flip, if the application
+         * configs changed since the last push.
+         */
+        private void push() {
+            try {
+                JsonNode appNode = loaderJmx.getApplicationConfig(appName, moduleAdapters);
+                int hashCode = appNode.toString().hashCode();
+                if (hashCode == configHashCode) {
+                    logger.debug("configuration for the " + appName + " applicaton still in synch");
+                    return;
+                }
+
+                writeStart = System.currentTimeMillis();
+                Iterator<String> modules = appNode.getFieldNames();
+                while (modules.hasNext()) {
+                    String module = modules.next();
+                    JsonNode moduleNode = appNode.get(module);
+                    if (moduleNode == null || !moduleNode.isObject()) {
+                        logger.info("no configuration found for the " + module + " module for the " + appName
+                                + " applicaton");
+                        continue;
+                    }
+                    new SocketFrame(SocketFrame.MODULE, module + SocketFrame.LINE_SEPARATOR + moduleNode.toString())
+                    .write(out);
+                }
+                new SocketFrame(SocketFrame.FLIP, "").write(out);
+                out.flush();
+                configHashCode = hashCode;
+                logger.info("Pushed new configs to application " + appName + " over socket");
+            } catch (ConfigException e) {
+                logger.error("Failed to build configs for application " + appName, e);
+            } catch (IOException e) {
+                logger.error("Failed to push configs to application " + appName, e);
+                close();
+            } finally {
+                writeStart = 0;
+            }
+        }
+
+        /**
+         * Close the socket, unblocking a blocked push, and stop the writer
+         */
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // ignore exception to allow gc to collect resources
+            }
+            synchronized (pushLock) {
+                pushLock.notifyAll();
+            }
+        }
+    }
+}
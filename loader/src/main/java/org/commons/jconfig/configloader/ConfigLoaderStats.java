@@ -0,0 +1,148 @@
+package org.commons.jconfig.configloader;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.commons.jconfig.internal.LatencyHistogram;
+import org.commons.jconfig.internal.jmx.LatencyStats;
+
+/**
+ * ConfigLoader statistics, updated by the ConfigLoaderJmx sync methods and
+ * the ConfigLoaderRunner tasks.
+ */
+final class ConfigLoaderStats {
+
+    private final ConcurrentHashMap<String, AppStats> apps = new ConcurrentHashMap<String, AppStats>();
+    private final AtomicLong modulesPushed = new AtomicLong(0);
+    private final AtomicLong modulesSkipped = new AtomicLong(0);
+    private final AtomicLong bytesPushed = new AtomicLong(0);
+    private final LatencyHistogram discoveryLatency = new LatencyHistogram(1);
+    private final LatencyHistogram attachLatency = new LatencyHistogram(1);
+    private final LatencyHistogram mergeLatency = new LatencyHistogram(1);
+
+    /**
+     * Statistics of a single application
+     */
+    private static final class AppStats {
+        private volatile long lastSyncTime = 0;
+        private final AtomicLong failureCount = new AtomicLong(0);
+        private final AtomicLong modulesPushed = new AtomicLong(0);
+        private final AtomicLong modulesSkipped = new AtomicLong(0);
+        private final AtomicLong bytesPushed = new AtomicLong(0);
+        private final LatencyHistogram syncDuration = new LatencyHistogram(1);
+    }
+
+    private AppStats getApp(final String appName) {
+        AppStats app = apps.get(appName);
+        if (app == null) {
+            app = new AppStats();
+            AppStats previous = apps.putIfAbsent(appName, app);
+            if (previous != null) {
+                app = previous;
+            }
+        }
+        return app;
+    }
+
+    /**
+     * @param appName
+     * @param nanos
+     *            sync duration
+     * @param succeeded
+     */
+    void synced(final String appName, final long nanos, final boolean succeeded) {
+        AppStats app = getApp(appName);
+        app.syncDuration.record(nanos);
+        if (!succeeded) {
+            app.failureCount.incrementAndGet();
+        }
+        app.lastSyncTime = System.currentTimeMillis();
+    }
+
+    /**
+     * @param appName
+     * @param payloadSize
+     *            length of the json config values pushed
+     */
+    void modulePushed(final String appName, final long payloadSize) {
+        AppStats app = getApp(appName);
+        app.modulesPushed.incrementAndGet();
+        app.bytesPushed.addAndGet(payloadSize);
+        modulesPushed.incrementAndGet();
+        bytesPushed.addAndGet(payloadSize);
+    }
+
+    /**
+     * Drop the statistics of an application no longer kept up to date
+     * 
+     * @param appName
+     */
+    void removeApp(final String appName) {
+        apps.remove(appName);
+    }
+
+    void moduleSkipped(final String appName) {
+        getApp(appName).modulesSkipped.incrementAndGet();
+        modulesSkipped.incrementAndGet();
+    }
+
+    void discovered(final long nanos) {
+        discoveryLatency.record(nanos);
+    }
+
+    void attached(final long nanos) {
+        attachLatency.record(nanos);
+    }
+
+    void merged(final long nanos) {
+        mergeLatency.record(nanos);
+    }
+
+    List<AppSyncStats> getAppSyncStats() {
+        List<AppSyncStats> stats = new ArrayList<AppSyncStats>();
+        for (Map.Entry<String, AppStats> entry : apps.entrySet()) {
+            AppStats app = entry.getValue();
+            stats.add(new AppSyncStats(entry.getKey(), app.lastSyncTime, app.failureCount.get(),
+                    app.modulesPushed.get(), app.modulesSkipped.get(), app.bytesPushed.get(), app.syncDuration
+                    .getStats()));
+        }
+        return stats;
+    }
+
+    long getModulesPushed() {
+        return modulesPushed.get();
+    }
+
+    long getModulesSkipped() {
+        return modulesSkipped.get();
+    }
+
+    long getBytesPushed() {
+        return bytesPushed.get();
+    }
+
+    LatencyStats getDiscoveryLatency() {
+        return discoveryLatency.getStats();
+    }
+
+    LatencyStats getAttachLatency() {
+        return attachLatency.getStats();
+    }
+
+    LatencyStats getMergeLatency() {
+        return mergeLatency.getStats();
+    }
+
+    void reset() {
+        apps.clear();
+        modulesPushed.set(0);
+        modulesSkipped.set(0);
+        bytesPushed.set(0);
+        discoveryLatency.reset();
+        attachLatency.reset();
+        mergeLatency.reset();
+    }
+}
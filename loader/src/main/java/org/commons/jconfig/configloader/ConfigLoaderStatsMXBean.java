@@ -0,0 +1,67 @@
+package org.commons.jconfig.configloader;
+
+import java.util.List;
+
+import org.commons.jconfig.internal.jmx.LatencyStats;
+
+/**
+ * @ConfigLoaderJmxMXBean with ConfigLoader statistics: per application sync
+ * times, modules pushed or skipped by checksum, VM discovery and attach cost,
+ * config merge duration and worker queue depths. Use them to size
+ * maxWorkerThreads, maxModuleWorkerThreads and the sync intervals.<br>
+ * <br>
+ * 
+ * Latencies are in nanoseconds.
+ */
+public interface ConfigLoaderStatsMXBean extends ConfigLoaderJmxMXBean {
+
+    /**
+     * @return sync statistics of every application loaded since start
+     */
+    public List<AppSyncStats> getAppSyncStats();
+
+    /**
+     * @return modules whose config values were pushed to an application
+     */
+    public long getModulesPushed();
+
+    /**
+     * @return modules not pushed because their checksum did not change
+     */
+    public long getModulesSkipped();
+
+    /**
+     * @return total length of the json config values pushed, in characters
+     */
+    public long getBytesPushed();
+
+    /**
+     * @return time to probe the running VMs for ConfigManagers
+     */
+    public LatencyStats getDiscoveryLatency();
+
+    /**
+     * @return time to attach to a ConfigManager VM
+     */
+    public LatencyStats getAttachLatency();
+
+    /**
+     * @return time to fetch and merge the config files
+     */
+    public LatencyStats getMergeLatency();
+
+    /**
+     * @return applications waiting for an update worker thread
+     */
+    public int getUpdateQueueDepth();
+
+    /**
+     * @return modules waiting for a module worker thread
+     */
+    public int getModuleQueueDepth();
+
+    /**
+     * Clear all statistics
+     */
+    public void resetStats();
+}
@@ -1,7 +1,15 @@
 package org.commons.jconfig.configloader;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
+import javax.management.ObjectName;
+
 import org.apache.log4j.Logger;
 import org.commons.jconfig.internal.Worker;
 import org.commons.jconfig.internal.WorkerException;
@@ -18,27 +26,115 @@ public class ConfigLoaderWorker implements Worker<Object> {
     private long lastUpdateTimeStamp = 0;
     private final static Logger logger = Logger.getLogger(ConfigLoaderWorker.class);
 
+    private final List<ConfigPublisher> publishers;
+
     public ConfigLoaderWorker(final WorkerExecutorService executor, final ConfigLoaderJmx mbean) {
+        this(executor, mbean, new ArrayList<ConfigPublisher>());
+    }
+
+    /**
+     * @param executor
+     * @param mbean
+     * @param publishers
+     *            transports to publish configs over as well as JMX
+     */
+    public ConfigLoaderWorker(final WorkerExecutorService executor, final ConfigLoaderJmx mbean,
+            final List<ConfigPublisher> publishers) {
         this.mbean = mbean;
         this.executor = executor;
+        this.publishers = publishers;
     }
 
     private final ConcurrentHashMap<String, WorkerFuture<Object>> vms = new ConcurrentHashMap<String, WorkerFuture<Object>>();
 
+    /** true once the running ConfigManager vms were discovered by probing all vms */
+    private boolean initialScanDone = false;
+
+    /** ConfigManager vms to be updated; retried while an Update Worker is still running for the vm */
+    private final Set<ObjectName> pendingUpdates = new LinkedHashSet<ObjectName>();
+
+    /** pending ConfigManager vms (re)subscribed since their last load, all their modules are pushed */
+    private final Set<ObjectName> forcedUpdates = new HashSet<ObjectName>();
+
+    /** max ms to wait for a config change before checking the merged config file again */
+    private static final long CHANGE_CHECK_INTERVAL = 500;
+
     @Override
     public boolean execute() {
-        /* if config sync interval is greater than lastUpdate interval than return false */
-        if (mbean.getConfig().getConfigSyncInterval().toMillis() > (System.currentTimeMillis() - lastUpdateTimeStamp)) {
+        if (!initialScanDone) {
+            scanConfigManagers();
+            initialScanDone = true;
+        }
+        removeCompletedWorkers();
+
+        // newly subscribed vms are loaded right away
+        ObjectName subscribed = mbean.pollNewSubscription();
+        while (subscribed != null) {
+            pendingUpdates.add(subscribed);
+            forcedUpdates.add(subscribed);
+            subscribed = mbean.pollNewSubscription();
+        }
+
+        // merged file changes by another process
+        mbean.checkMergedFile();
+        boolean configChanged = false;
+        try {
+            configChanged = mbean.awaitConfigChange(CHANGE_CHECK_INTERVAL);
+        } catch (InterruptedException e) {
+            // Ignore exception
+        }
+
+        /*
+         * push on config change; the periodic sync after config sync interval
+         * is kept as a safety net for missed changes
+         */
+        if (configChanged) {
+            logger.info("merged config changed, updating all subscribed vms");
+        }
+        if (configChanged
+                || (mbean.getConfig().getConfigSyncInterval().toMillis() <= (System.currentTimeMillis() - lastUpdateTimeStamp))) {
+            lastUpdateTimeStamp = System.currentTimeMillis();
+            pendingUpdates.addAll(mbean.getSubscriptions().keySet());
+            for (ConfigPublisher publisher : publishers) {
+                publisher.publish();
+            }
+        }
+
+        // create Update Workers for the pending ConfigManager vms
+        Iterator<ObjectName> itr = pendingUpdates.iterator();
+        while (itr.hasNext()) {
+            ObjectName managerObjectName = itr.next();
+            if (updateVm(managerObjectName)) {
+                itr.remove();
+                forcedUpdates.remove(managerObjectName);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Discover ConfigManager vms started before the ConfigLoader by probing all
+     * running vms. This happens only once; ConfigManagers started later
+     * subscribe with the ConfigLoader themselves.
+     */
+    private void scanConfigManagers() {
+        long start = System.nanoTime();
+        Set<ConfigManagerJvm> found = ConfigManagerJvm.find();
+        mbean.getStats().discovered(System.nanoTime() - start);
+        for (ConfigManagerJvm vm : found) {
+            mbean.subscribe(vm.getObjectName(), vm.getVmId());
             try {
-                // sleep for 2s before checking again.
-                Thread.sleep(2000);
-            } catch (InterruptedException e) {
-                // Ignore exception
+                vm.close();
+            } catch (VirtualMachineException e) {
+                // ignore exception to allow GC to collect vm object
             }
-            return false;
         }
-        lastUpdateTimeStamp = System.currentTimeMillis();
-        // clean up the UpdateWorkers for workers that are done
+    }
+
+    /**
+     * clean up the UpdateWorkers for workers that are done
+     */
+    private void removeCompletedWorkers() {
         for (String key : vms.keySet()) {
             WorkerFuture<Object> future = vms.get(key);
             if (future.isDone() || future.isCancelled()) {
@@ -46,32 +142,53 @@ public class ConfigLoaderWorker implements Worker<Object> {
                 logger.info("completed updating vm with new configs: " + key);
             }
         }
+    }
+
+    /**
+     * Attach to a subscribed ConfigManager vm and start an Update Worker for
+     * it, unless one is already running. ConfigManagers whose vm can no longer
+     * be attached to are unsubscribed.
+     * 
+     * @param managerObjectName
+     *            ConfigManager MBean name
+     * @return false if an Update Worker is still running for the vm
+     */
+    private boolean updateVm(final ObjectName managerObjectName) {
+        String key = managerObjectName.getCanonicalName();
+        String vmId = mbean.getSubscriptions().get(managerObjectName);
+        if (vmId == null) {
+            return true;
+        }
+        if (vms.containsKey(key)) {
+            return false;
+        }
+
+        ConfigManagerJvm vm = new ConfigManagerJvm(managerObjectName);
+        vm.setVmId(vmId);
+        try {
+            long start = System.nanoTime();
+            vm.attach();
+            mbean.getStats().attached(System.nanoTime() - start);
+        } catch (VirtualMachineException e) {
+            logger.info("Config Manager vm " + vm.toString() + " is not running anymore", e);
+            mbean.unsubscribe(managerObjectName);
+            return true;
+        }
 
-        // get all ConfigManager vms and create Update Workers for the new ones
-        for (ConfigManagerJvm vm : ConfigManagerJvm.find()) {
+        try {
+            UpdateVmWorker worker = new UpdateVmWorker(mbean, vm, forcedUpdates.contains(managerObjectName));
+            WorkerFuture<Object> future = executor.submit(worker);
+            vms.put(key, future);
+            logger.info("start updating vm with new configs: " + key);
+        } catch (WorkerException e) {
             try {
-                if (!vms.containsKey(vm.getObjectName().getCanonicalName())) {
-                    UpdateVmWorker worker = new UpdateVmWorker(mbean, vm);
-                    WorkerFuture<Object> future = executor.submit(worker);
-                    vms.put(vm.getObjectName().getCanonicalName(), future);
-                    logger.info("start updating vm with new configs: " + vm.getObjectName().getCanonicalName());
-                } else {
-                    try {
-                        vm.close();
-                    } catch (VirtualMachineException e) {
-                        // ignore exception to allow GC to collect vm object, config to the next jvm
-                    }
-                }
-            } catch (WorkerException e) {
-                try {
-                    vm.close();
-                } catch (VirtualMachineException e1) {
-                    logger.error("Failed to Attach to Config Manager vm " + vm.toString(), e);
-                }
+                vm.close();
+            } catch (VirtualMachineException e1) {
                 logger.error("Failed to Attach to Config Manager vm " + vm.toString(), e);
             }
+            logger.error("Failed to Attach to Config Manager vm " + vm.toString(), e);
         }
-        return false;
+        return true;
     }
 
     @Override
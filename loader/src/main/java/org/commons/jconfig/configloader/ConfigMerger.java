@@ -53,6 +53,14 @@ public class ConfigMerger {
     private final JsonParser parser = new JsonParser();
     // private int configHashCode = 0;
     private final Map<String, Integer> configHashCode = new HashMap<String, Integer>();
+    private volatile Listener listener = null;
+
+    /**
+     * Notified after a changed merged config file is saved.
+     */
+    public interface Listener {
+        void mergedConfigChanged();
+    }
 
     public ConfigMerger(ConfigLoaderConfig config) {
         if (config == null) {
@@ -65,6 +73,14 @@ public class ConfigMerger {
                 new Integer(5000));
     }
 
+    /**
+     * @param listener
+     *            notified every time a changed merged config file is saved
+     */
+    public void setListener(final Listener listener) {
+        this.listener = listener;
+    }
+
     private JsonArray getListOfConfigResources()
             throws ClientProtocolException, IOException {
         JsonArray listOfConfigResources = new JsonArray();
@@ -292,8 +308,12 @@ public class ConfigMerger {
     }
 
     /**
+     * Save the merged config and notify the listener, once the merged config
+     * file was replaced.
+     * 
      * @param coater
      * @throws IOException
+     *             if the merged config file cannot be replaced
      */
     private void saveConfigToFile(JsonObject coater) throws IOException {
         Gson gson = new GsonBuilder().setPrettyPrinting().create();
@@ -306,15 +326,17 @@ public class ConfigMerger {
         writer.write(data);
         writer.close();
 
-        if (currFile.exists()) {
-            if (currFile.delete()) {
-                tmpFile.renameTo(currFile);
-            } else {
-                logger.error("Error deleting file " + currFile.getName()
-                        + ". Cannot rename temp file " + tmpFile.getName());
-            }
-        } else {
-            tmpFile.renameTo(currFile);
+        if ((currFile.exists() && !currFile.delete()) || !tmpFile.renameTo(currFile)) {
+            tmpFile.delete();
+            // save again on the next merge
+            configHashCode.clear();
+            throw new IOException("Error replacing file " + currFile.getName() + " with temp file "
+                    + tmpFile.getName());
+        }
+
+        Listener l = listener;
+        if (l != null) {
+            l.mergedConfigChanged();
         }
     }
 }
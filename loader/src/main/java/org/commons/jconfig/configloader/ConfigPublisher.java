@@ -0,0 +1,14 @@
+package org.commons.jconfig.configloader;
+
+/**
+ * Transport publishing configs to applications, next to the JMX push done by
+ * {@link UpdateVmWorker}. Called by {@link ConfigLoaderWorker} on every config
+ * change and periodic sync.
+ */
+public interface ConfigPublisher {
+
+    /**
+     * Publish current configs; implementations skip unchanged configs.
+     */
+    public void publish();
+}
@@ -26,6 +26,7 @@ public class UpdateVmWorker implements Worker<Object> {
     private final ConfigManagerJvm managerVm;
     private final ConfigLoaderJmx loaderJmx;
     private final ConfigManagerJmxMXBean managerMbean;
+    private final boolean force;
     private Exception cause = null;
 
     /**
@@ -35,11 +36,16 @@ public class UpdateVmWorker implements Worker<Object> {
      *            {@link ConfigLoaderJmx}
      * @param vm
      *            {@link ConfigManagerJvm} Assumes vm is already attached.
+     * @param force
+     *            push all modules, e.g. on a new subscription. Otherwise only
+     *            the modules changed since the last load of the vm are pushed
      * @throws WorkerException
      */
-    public UpdateVmWorker(final ConfigLoaderJmx mbean, final ConfigManagerJvm vm) throws WorkerException {
+    public UpdateVmWorker(final ConfigLoaderJmx mbean, final ConfigManagerJvm vm, final boolean force)
+            throws WorkerException {
         this.managerVm = vm;
         this.loaderJmx = mbean;
+        this.force = force;
 
         try {
             this.managerMbean = JMX.newMBeanProxy(managerVm.getJMXConnector().getMBeanServerConnection(),
@@ -60,8 +66,11 @@ public class UpdateVmWorker implements Worker<Object> {
             if (loaderConfigHashCode != managerConfigHashCode) {
                 try {
                     logger.info("Loading application " + applicationName + " with new configs");
-                    loaderJmx.loadAppConfigs(managerVm.getObjectName(), true);
-                    managerMbean.flipCache();
+                    // a failed load throws, the hash code is left stale so the next run retries
+                    if (loaderJmx.loadAppConfigs(managerVm.getObjectName(), force) == 0) {
+                        // application without config stages
+                        managerMbean.flipCache();
+                    }
                     managerMbean.updateConfigHashCode(loaderConfigHashCode);
                 } catch (VirtualMachineException e) {
                     throw new WorkerException(e);
@@ -123,6 +123,14 @@ public class AutoConf  {
         return modNode;
     }
 
+    /**
+     * Makes the next access check the conf file for changes, instead of
+     * waiting for the config sync interval to pass.
+     */
+    public void reload() {
+        nextCheckTimeRef.set(0);
+    }
+
     /**
      * @return  The current conf dictionary.  Never null.
      * @throws Exception
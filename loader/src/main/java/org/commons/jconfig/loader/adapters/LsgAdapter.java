@@ -19,6 +19,8 @@ import org.commons.jconfig.internal.ConfigAdapterJson;
  */
 public class LsgAdapter implements Adapter {
 
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
     @Nonnull
     private final AutoConf autoconf;
 
@@ -26,6 +28,9 @@ public class LsgAdapter implements Adapter {
         this.autoconf = autoconf;
     }
 
+    /** Last lsg module node built, reused until the AutoConf document changes */
+    private volatile Projection projection = null;
+
     /**
      * @return the uri of the lsg adapter
      */
@@ -39,7 +44,8 @@ public class LsgAdapter implements Adapter {
      * autoConf Json syntax
      * 
      * @return autoConf JsonNode. null if "lsgclient" section missing in
-     *         autoConf.
+     *         autoConf. Shared by all callers until the AutoConf document
+     *         changes, do not modify.
      * @throws ConfigSourceException
      */
     @Override
@@ -48,15 +54,32 @@ public class LsgAdapter implements Adapter {
         // appName and moduleName unused for lsg module
         // lsg configs found in our standard AutoConf file
 
+        // lsg node only changes with the AutoConf document, build it once per document
+        JsonNode conf = autoconf.getConf();
+        Projection cached = projection;
+        if (cached != null && cached.conf == conf) {
+            return cached.node;
+        }
+        JsonNode lsgRoot = buildModuleNode(conf.get("lsgclient"));
+        projection = new Projection(conf, lsgRoot);
+        return lsgRoot;
+    }
+
+    /**
+     * Build the lsg module node from the "lsgclient" section
+     * 
+     * @param lsgNode
+     *            "lsgclient" section, null if missing
+     * @return autoConf JsonNode. null if lsgNode is null.
+     */
+    private static JsonNode buildModuleNode(final JsonNode lsgNode) {
         // make sure we have an autoConf file with an "lsgclient" section
-        if (!autoconf.hasApplication("lsgclient")) {
+        if (lsgNode == null) {
             return null;
         }
 
-        ObjectMapper mapper = new ObjectMapper();
-        ArrayNode lsgSets = mapper.createArrayNode();
+        ArrayNode lsgSets = MAPPER.createArrayNode();
 
-        JsonNode lsgNode = autoconf.getApplication("lsgclient");
         Iterator<String> farms = lsgNode.getFieldNames();
 
         while ( farms.hasNext() ) {
@@ -64,9 +87,9 @@ public class LsgAdapter implements Adapter {
             String farmName = farms.next();
             JsonNode oldFarmNode = lsgNode.get(farmName);
 
-            ArrayNode newKeyNode = mapper.createArrayNode();
-            ObjectNode newKeyListNode = mapper.createObjectNode();
-            ObjectNode newFarmNode = mapper.createObjectNode();
+            ArrayNode newKeyNode = MAPPER.createArrayNode();
+            ObjectNode newKeyListNode = MAPPER.createObjectNode();
+            ObjectNode newFarmNode = MAPPER.createObjectNode();
 
             //{ "key": [ "323" ],
             newKeyNode.add(farmName);
@@ -87,10 +110,23 @@ public class LsgAdapter implements Adapter {
         }
 
         // {"Sets": [
-        ObjectNode lsgRoot = mapper.createObjectNode();
+        ObjectNode lsgRoot = MAPPER.createObjectNode();
         lsgRoot.put(ConfigAdapterJson.CONST.SETS.toString(), lsgSets);
         lsgRoot.put(ConfigAdapterJson.CONST.SETS_TYPE.toString(), "FARM");
 
         return lsgRoot;
     }
+
+    /**
+     * lsg module node and the AutoConf document it was built from
+     */
+    private static class Projection {
+        private final JsonNode conf;
+        private final JsonNode node;
+
+        Projection(final JsonNode conf, final JsonNode node) {
+            this.conf = conf;
+            this.node = node;
+        }
+    }
 }
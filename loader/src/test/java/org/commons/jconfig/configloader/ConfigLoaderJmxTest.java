@@ -0,0 +1,245 @@
+package org.commons.jconfig.configloader;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+
+import org.commons.jconfig.config.ConfigException;
+import org.commons.jconfig.config.ConfigLoaderAdapterID;
+import org.commons.jconfig.datatype.TimeValue;
+import org.commons.jconfig.internal.jmx.ConfigManagerJvm;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ConfigLoaderJmxTest {
+
+    public interface StageManagerMXBean {
+        long beginStage();
+
+        String[] getStagedModules();
+
+        long commitStage(long stageId, String[] modules);
+
+        void abortStage(long stageId);
+    }
+
+    public static class StageManager implements StageManagerMXBean {
+        private final boolean fail;
+        private volatile List<String> committed = null;
+
+        StageManager(final boolean fail) {
+            this.fail = fail;
+        }
+
+        @Override
+        public long beginStage() {
+            return 3;
+        }
+
+        @Override
+        public String[] getStagedModules() {
+            return new String[0];
+        }
+
+        @Override
+        public long commitStage(final long stageId, final String[] modules) {
+            if (fail) {
+                throw new IllegalStateException("Config stage " + stageId + " is missing modules "
+                        + Arrays.asList(modules));
+            }
+            committed = Arrays.asList(modules);
+            return 7;
+        }
+
+        @Override
+        public void abortStage(final long stageId) {
+        }
+    }
+
+    public interface ModuleConfigMBean {
+        String getConfigLoaderAdapter();
+
+        void loadModule(String json);
+    }
+
+    public static class ModuleConfig implements ModuleConfigMBean {
+        private final AtomicInteger loads = new AtomicInteger(0);
+
+        @Override
+        public String getConfigLoaderAdapter() {
+            return ConfigLoaderAdapterID.JSON_AUTOCONF.getUri();
+        }
+
+        @Override
+        public void loadModule(final String json) {
+            loads.incrementAndGet();
+        }
+    }
+
+    @Test
+    public void testCommitStage() throws Exception {
+        ConfigLoaderJmx loader = new ConfigLoaderJmx();
+        MBeanServer mbs = MBeanServerFactory.newMBeanServer();
+        ObjectName name = new ObjectName("com.yahoo.configmgr:appName=app1");
+        mbs.registerMBean(new StageManager(false), name);
+        String module1 = ConfigLoaderJmx.checkSumKey("app1", "42", "Module1");
+        loader.getModuleCheckSums().put(module1, 1);
+
+        Assert.assertEquals(loader.commitStage(mbs, name, "app1", "42", 3, Arrays.asList("Module1")), 7);
+        Assert.assertEquals(loader.getModuleCheckSums().get(module1), Integer.valueOf(1));
+    }
+
+    @Test
+    public void testCommitStageFailureClearsCheckSums() throws Exception {
+        ConfigLoaderJmx loader = new ConfigLoaderJmx();
+        MBeanServer mbs = MBeanServerFactory.newMBeanServer();
+        ObjectName name = new ObjectName("com.yahoo.configmgr:appName=app1");
+        mbs.registerMBean(new StageManager(true), name);
+        String module1 = ConfigLoaderJmx.checkSumKey("app1", "42", "Module1");
+        String module2 = ConfigLoaderJmx.checkSumKey("app1", "42", "Module2");
+        String otherVmModule1 = ConfigLoaderJmx.checkSumKey("app1", "43", "Module1");
+        loader.getModuleCheckSums().put(module1, 1);
+        loader.getModuleCheckSums().put(module2, 2);
+        loader.getModuleCheckSums().put(otherVmModule1, 3);
+
+        try {
+            loader.commitStage(mbs, name, "app1", "42", 3, Arrays.asList("Module1", "Module2"));
+            Assert.fail("commit of a stage missing modules succeeded");
+        } catch (ConfigException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        Assert.assertNull(loader.getModuleCheckSums().get(module1));
+        Assert.assertNull(loader.getModuleCheckSums().get(module2));
+        // other vms of the application keep theirs
+        Assert.assertEquals(loader.getModuleCheckSums().get(otherVmModule1), Integer.valueOf(3));
+    }
+
+    @Test
+    public void testResubscribeClearsVmCheckSums() throws Exception {
+        ConfigLoaderJmx loader = new ConfigLoaderJmx();
+        ObjectName app1 = new ObjectName(ConfigManagerJvm.CONFIG_MGR_MBEAN_NAME + "app1");
+        loader.subscribe(app1, "42");
+        String module1 = ConfigLoaderJmx.checkSumKey("app1", "42", "Module1");
+        String otherVmModule1 = ConfigLoaderJmx.checkSumKey("app1", "43", "Module1");
+        loader.getModuleCheckSums().put(module1, 1);
+        loader.getModuleCheckSums().put(otherVmModule1, 3);
+
+        // application restarted in a new vm
+        loader.subscribe(app1, "44");
+        Assert.assertNull(loader.getModuleCheckSums().get(module1));
+        Assert.assertEquals(loader.getModuleCheckSums().get(otherVmModule1), Integer.valueOf(3));
+    }
+
+    @Test
+    public void testCheckMergedFileSignalsOnce() throws Exception {
+        File file = File.createTempFile("mergedConf", ".conf");
+        try {
+            ConfigLoaderConfig config = new ConfigLoaderConfig();
+            config.setConfigFileName(file.getPath());
+            config.setMaxModuleWorkerThreads(1);
+            ConfigLoaderJmx loader = new ConfigLoaderJmx(config);
+
+            // first check only records the merged file
+            loader.checkMergedFile();
+            Assert.assertFalse(loader.awaitConfigChange(0));
+
+            // merger listener and periodic check both see the same write
+            file.setLastModified(file.lastModified() - 10000);
+            loader.checkMergedFile();
+            loader.checkMergedFile();
+            Assert.assertTrue(loader.awaitConfigChange(0));
+            Assert.assertFalse(loader.awaitConfigChange(0));
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testSubscribeConfigsKeepsVmId() throws Exception {
+        ConfigLoaderJmx loader = new ConfigLoaderJmx();
+        ObjectName app1 = new ObjectName(ConfigManagerJvm.CONFIG_MGR_MBEAN_NAME + "app1");
+        ObjectName app2 = new ObjectName(ConfigManagerJvm.CONFIG_MGR_MBEAN_NAME + "app2");
+        loader.subscribeConfigs("app1", "1234");
+        Assert.assertEquals(loader.pollNewSubscription(), app1);
+
+        loader.subscribeConfigs("app1");
+        loader.subscribeConfigs("app2");
+        Assert.assertEquals(loader.getSubscriptions().get(app1), "1234");
+        Assert.assertEquals(loader.getSubscriptions().get(app2), "-1");
+        // both are loaded again right away
+        Assert.assertEquals(loader.pollNewSubscription(), app1);
+        Assert.assertEquals(loader.pollNewSubscription(), app2);
+    }
+
+    @Test
+    public void testUnchangedModuleNotPushed() throws Exception {
+        File file = File.createTempFile("mergedConf", ".conf");
+        try {
+            ConfigLoaderConfig config = new ConfigLoaderConfig();
+            config.setConfigFileName(file.getPath());
+            config.setConfigSyncInterval(new TimeValue(0, TimeUnit.MILLISECONDS));
+            config.setMaxModuleWorkerThreads(2);
+            ConfigLoaderJmx loader = new ConfigLoaderJmx(config);
+
+            MBeanServer mbs = MBeanServerFactory.newMBeanServer();
+            ObjectName name = new ObjectName(ConfigManagerJvm.CONFIG_MGR_MBEAN_NAME + "app1");
+            StageManager manager = new StageManager(false);
+            mbs.registerMBean(manager, name);
+            ModuleConfig module1 = new ModuleConfig();
+            ModuleConfig module2 = new ModuleConfig();
+            mbs.registerMBean(module1, new ObjectName("com.yahoo.configs:appName=app1,type=Module1"));
+            mbs.registerMBean(module2, new ObjectName("com.yahoo.configs:appName=app1,type=Module2"));
+            Set<ObjectName> configNames = new TreeSet<ObjectName>(mbs.queryNames(new ObjectName(
+                    "com.yahoo.configs:appName=app1,*"), null));
+
+            writeConf(file, "{\"app1\":{\"Module1\":{\"A\":\"1\"},\"Module2\":{\"B\":\"1\"}}}");
+            Assert.assertEquals(loader.pushAppConfigs(mbs, name, "app1", "42", configNames, false), 7);
+            Assert.assertEquals(module1.loads.get(), 1);
+            Assert.assertEquals(module2.loads.get(), 1);
+
+            // only the changed module is pushed, the unchanged one is kept by the commit
+            writeConf(file, "{\"app1\":{\"Module1\":{\"A\":\"1\"},\"Module2\":{\"B\":\"2\"}}}");
+            loader.pushAppConfigs(mbs, name, "app1", "42", configNames, false);
+            Assert.assertEquals(module1.loads.get(), 1);
+            Assert.assertEquals(module2.loads.get(), 2);
+            Assert.assertEquals(manager.committed, Arrays.asList("Module1", "Module2"));
+            Assert.assertEquals(loader.getModulesSkipped(), 1);
+
+            // another vm of the application gets all modules
+            loader.pushAppConfigs(mbs, name, "app1", "43", configNames, false);
+            Assert.assertEquals(module1.loads.get(), 2);
+            Assert.assertEquals(module2.loads.get(), 3);
+
+            // forced loads push all modules
+            loader.pushAppConfigs(mbs, name, "app1", "42", configNames, true);
+            Assert.assertEquals(module1.loads.get(), 3);
+            Assert.assertEquals(module2.loads.get(), 4);
+        } finally {
+            file.delete();
+        }
+    }
+
+    private static void writeConf(final File file, final String json) throws IOException {
+        long modifiedTime = file.lastModified();
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        try {
+            writer.write(json);
+        } finally {
+            writer.close();
+        }
+        // make sure AutoConf sees the change
+        file.setLastModified(modifiedTime + 1000);
+    }
+}
@@ -0,0 +1,85 @@
+package org.commons.jconfig.configloader;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import javax.management.JMX;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.commons.jconfig.internal.jmx.ConfigManagerJvm;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ConfigLoaderStatsTest {
+
+    @Test
+    public void testAppSyncStats() {
+        ConfigLoaderStats stats = new ConfigLoaderStats();
+        stats.modulePushed("app1", 100);
+        stats.modulePushed("app1", 50);
+        stats.moduleSkipped("app1");
+        stats.synced("app1", 2000000, true);
+        stats.synced("app1", 3000000, false);
+        stats.moduleSkipped("app2");
+
+        Assert.assertEquals(stats.getModulesPushed(), 2);
+        Assert.assertEquals(stats.getModulesSkipped(), 2);
+        Assert.assertEquals(stats.getBytesPushed(), 150);
+
+        List<AppSyncStats> apps = stats.getAppSyncStats();
+        Assert.assertEquals(apps.size(), 2);
+        AppSyncStats app1 = apps.get(0).getAppName().equals("app1") ? apps.get(0) : apps.get(1);
+        Assert.assertEquals(app1.getModulesPushed(), 2);
+        Assert.assertEquals(app1.getModulesSkipped(), 1);
+        Assert.assertEquals(app1.getBytesPushed(), 150);
+        Assert.assertEquals(app1.getFailureCount(), 1);
+        Assert.assertEquals(app1.getSyncDuration().getCount(), 2);
+        Assert.assertTrue(app1.getLastSyncTime() > 0);
+
+        stats.removeApp("app2");
+        Assert.assertEquals(stats.getAppSyncStats().size(), 1);
+        Assert.assertEquals(stats.getModulesSkipped(), 2);
+
+        stats.reset();
+        Assert.assertTrue(stats.getAppSyncStats().isEmpty());
+        Assert.assertEquals(stats.getModulesPushed(), 0);
+    }
+
+    @Test
+    public void testUnsubscribeRemovesAppStats() throws Exception {
+        ConfigLoaderJmx loader = new ConfigLoaderJmx();
+        ObjectName app1 = new ObjectName(ConfigManagerJvm.CONFIG_MGR_MBEAN_NAME + "app1");
+        ObjectName app2 = new ObjectName(ConfigManagerJvm.CONFIG_MGR_MBEAN_NAME + "app2");
+        loader.subscribe(app1, "1");
+        loader.subscribe(app2, "2");
+        loader.getStats().synced("app1", 1000000, true);
+        loader.getStats().synced("app2", 1000000, true);
+
+        loader.unsubscribe(app1);
+        List<AppSyncStats> apps = loader.getStats().getAppSyncStats();
+        Assert.assertEquals(apps.size(), 1);
+        Assert.assertEquals(apps.get(0).getAppName(), "app2");
+    }
+
+    @Test
+    public void testStatsMXBean() throws Exception {
+        ConfigLoaderJmx loader = new ConfigLoaderJmx();
+        loader.getStats().merged(1000000);
+        loader.getStats().modulePushed("app1", 10);
+
+        MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("com.yahoo.configldr:type=ConfigLoaderStatsTest");
+        mbs.registerMBean(loader, name);
+        try {
+            ConfigLoaderStatsMXBean proxy = JMX.newMXBeanProxy(mbs, name, ConfigLoaderStatsMXBean.class);
+            Assert.assertEquals(proxy.getMergeLatency().getCount(), 1);
+            Assert.assertEquals(proxy.getBytesPushed(), 10);
+            Assert.assertEquals(proxy.getAppSyncStats().size(), 1);
+            Assert.assertEquals(proxy.getAppSyncStats().get(0).getAppName(), "app1");
+            Assert.assertEquals(proxy.getModuleQueueDepth(), 0);
+        } finally {
+            mbs.unregisterMBean(name);
+        }
+    }
+}
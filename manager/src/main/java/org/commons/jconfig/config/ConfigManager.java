@@ -22,21 +22,38 @@ import java.lang.reflect.Method;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.SortedSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.annotation.Nonnull;
 import javax.management.InstanceAlreadyExistsException;
 import javax.management.InstanceNotFoundException;
 import javax.management.JMException;
 import javax.management.MBeanRegistrationException;
+import javax.management.MBeanServer;
 import javax.management.MalformedObjectNameException;
 import javax.management.NotCompliantMBeanException;
 import javax.management.Notification;
 import javax.management.NotificationListener;
 import javax.management.ObjectName;
+import javax.management.StandardMBean;
 import javax.management.modelmbean.InvalidTargetObjectTypeException;
 
 import org.apache.log4j.Logger;
@@ -49,16 +66,28 @@ import org.commons.jconfig.datatype.ByteValue;
 import org.commons.jconfig.datatype.TimeValue;
 import org.commons.jconfig.datatype.TypeFormatException;
 import org.commons.jconfig.datatype.ValueType;
-import org.commons.jconfig.internal.ConcurrentLRUCache;
+import org.commons.jconfig.events.ConfigEvents;
+import org.commons.jconfig.events.ConfigObjectBuildEvent;
 import org.commons.jconfig.internal.ConfigAdapter;
 import org.commons.jconfig.internal.ConfigAdapterJson;
 import org.commons.jconfig.internal.ConfigAdapterProperties;
+import org.commons.jconfig.internal.ConfigDiff;
+import org.commons.jconfig.internal.ConfigKeyIndex;
 import org.commons.jconfig.internal.ConfigManagerCache;
+import org.commons.jconfig.internal.ExecutorThreadFactory;
+import org.commons.jconfig.internal.LoaderAdapter;
+import org.commons.jconfig.internal.PrivateFiles;
 import org.commons.jconfig.internal.ScanClassPath;
+import org.commons.jconfig.internal.jmx.ConfigLoaderJvm;
 import org.commons.jconfig.internal.jmx.ConfigManagerJmx;
 import org.commons.jconfig.internal.jmx.ConfigManagerJvm;
+import org.commons.jconfig.internal.jmx.ConfigManagerStatsMXBean;
 import org.commons.jconfig.internal.jmx.JmxUtil;
 import org.commons.jconfig.internal.jmx.LoadAppConfigsNotification;
+import org.commons.jconfig.internal.jmx.VirtualMachine;
+import org.commons.jconfig.internal.jmx.VirtualMachineException;
+import org.commons.jconfig.internal.mmap.MappedConfigReader;
+import org.commons.jconfig.internal.socket.ConfigLoaderSocketClient;
 
 import com.google.gson.JsonParser;
 
@@ -103,21 +132,32 @@ public enum ConfigManager {
     private final HashSet<String> registerConfigCache = new HashSet<String>();
 
     /**
-     * cache of fetched config objects. Protect with Atomic Reference. Multiple
-     * readers (getConfig) Multiple writers (LoadAppConfigsNotification and
-     * getConfig). 80000 threads, 200 config instances per thread = 16000000
-     * million.
+     * Config values of the last cache flip and the config objects fetched from
+     * them. Replaced as a whole on every flip, so readers never mix config
+     * values of different flips. null until the first flip. 80000 threads,
+     * 200 config instances per thread = 16000000 million.
      */
-    private final ConcurrentLRUCache<String, Object> configObjectsCache = new ConcurrentLRUCache<String, Object>(10000);
+    private volatile ConfigSnapshot snapshot = null;
+
+    /** Number of flips, version of the last snapshot. Guarded by flipLock */
+    private long flipCount = 0;
+
+    /** Max number of config objects cached per snapshot */
+    private volatile int maxCacheSize = 10000;
+
+    /** Serializes flips so snapshots are published in flip order */
+    private final Object flipLock = new Object();
 
     private final Object waitLoaderLock = new Object();
     private volatile boolean isLoaderDone = false;
     private volatile boolean configManagerInitialized = false;
 
-    private final Object initLock = new Object();
-    private volatile int initCount = 0;
+    /** Latch of the running initialization attempt, null if none */
+    private final AtomicReference<CountDownLatch> initLatchRef = new AtomicReference<CountDownLatch>(null);
 
     private Set<Class<?>> annotatedClazzez = null;
+    /** scanned config classes by name, empty until scanned */
+    private volatile Map<String, Class<?>> configClassesByName = Collections.emptyMap();
 
 
     /**
@@ -127,6 +167,11 @@ public enum ConfigManager {
         long start = System.nanoTime();
         ScanClassPath<Config> scanClasses = new ScanClassPath<Config>(Config.class, Arrays.asList("org.commons.jconfig."));
         annotatedClazzez  = scanClasses.scanAnnotatedClasses();
+        Map<String, Class<?>> classesByName = new HashMap<String, Class<?>>();
+        for (Class<?> configClass : annotatedClazzez) {
+            classesByName.put(configClass.getName(), configClass);
+        }
+        configClassesByName = classesByName;
 
         for (Class<?> configClass : annotatedClazzez) {
             try {
@@ -152,24 +197,40 @@ public enum ConfigManager {
      * @param appName
      */
     private void initialize() {
-        if (configManagerInitialized) {
-            return;
-        }
-
-        synchronized (initLock) {
-            while (initCount != 0) {
-                if (configManagerInitialized) {
-                    return;
-                }
+        /*
+         * not initialized -> initializing (latch published) -> initialized.
+         * Threads arriving while initializing wait on the latch; if that
+         * attempt fails they start over and one of them retries.
+         */
+        while (!configManagerInitialized) {
+            CountDownLatch latch = new CountDownLatch(1);
+            if (initLatchRef.compareAndSet(null, latch)) {
                 try {
-                    initLock.wait(500);
-                } catch (InterruptedException e) {
-                    throw new ConfigRuntimeException("ConfigManager JMX fatal exception:", e);
+                    if (!configManagerInitialized) {
+                        initializeOnce();
+                    }
+                } finally {
+                    initLatchRef.set(null);
+                    latch.countDown();
+                }
+            } else {
+                CountDownLatch running = initLatchRef.get();
+                if (running != null) {
+                    try {
+                        running.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new ConfigRuntimeException("ConfigManager JMX fatal exception:", e);
+                    }
                 }
             }
-            initCount++;
         }
+    }
 
+    /**
+     * Initialization steps, run by a single thread at a time
+     */
+    private void initializeOnce() {
         /* Register config manager bean if not registered yet. */
         try {
             ObjectName beanName = new ObjectName(ConfigManagerJvm.CONFIG_MGR_MBEAN_NAME + getAppName());
@@ -194,84 +255,495 @@ public enum ConfigManager {
         } catch (MalformedObjectNameException e) {
             throw new ConfigRuntimeException("ConfigManager JMX fatal exception:", e);
         }
+        registerStatsMBean();
 
-        try {
-            getInternalConfig();
+        getInternalConfig();
 
-            logger.info("Resize config cache to " + internalConfig.getMaxCacheSize().intValue() + ".");
-            // resize cache to config value
-            configObjectsCache.setMaxSize(internalConfig.getMaxCacheSize().intValue());
+        logger.info("Resize config cache to " + internalConfig.getMaxCacheSize().intValue() + ".");
+        // resize cache to config value
+        maxCacheSize = internalConfig.getMaxCacheSize().intValue();
+        ConfigSnapshot current = snapshot;
+        if (current != null) {
+            current.getConfigObjectsCache().setMaxSize(maxCacheSize);
+        }
+        prewarmMaxObjects = internalConfig.getPrewarmMaxObjects().intValue();
+        if (prewarmExecutor == null && internalConfig.getPrewarmThreads().intValue() > 0) {
+            prewarmExecutor = Executors.newFixedThreadPool(internalConfig.getPrewarmThreads().intValue(),
+                    new ExecutorThreadFactory("ConfigManagerPrewarm"));
+        }
 
-            if (annotatedClazzez == null) {
-                scanAnnotatedClasses();
-            }
+        if (annotatedClazzez == null) {
+            scanAnnotatedClasses();
+        }
 
+        if (internalConfig.getLoadFrom().equals("JMX") || internalConfig.getLoadFrom().equals("SOCKET")
+                || internalConfig.getLoadFrom().equals("MMAP")) {
+            isLoaderDone = false;
             if (internalConfig.getLoadFrom().equals("JMX")) {
-                isLoaderDone = false;
-                long endTime = System.currentTimeMillis() + internalConfig.getConfigLoaderSyncInterval().toMillis();
-                synchronized (waitLoaderLock) {
-                    try {
-                        logger.error("Waiting for ConfigLoader to set the values for "
-                                + internalConfig.getConfigLoaderSyncInterval().toSeconds() + "s");
-                        while (!isLoaderDone && (endTime > System.currentTimeMillis())) {
-                            waitLoaderLock.wait(500);
-                        }
-                    } catch (InterruptedException e) {
-                        Thread.interrupted();
-                        throw new ConfigRuntimeException("Failed to attach to ConfigLoader jvm: ", e);
+                subscribeConfigs();
+            } else if (internalConfig.getLoadFrom().equals("SOCKET")) {
+                startSocketClient();
+            } else {
+                startMappedConfigReader();
+            }
+            long endTime = System.currentTimeMillis() + internalConfig.getConfigLoaderSyncInterval().toMillis();
+            synchronized (waitLoaderLock) {
+                try {
+                    logger.error("Waiting for ConfigLoader to set the values for "
+                            + internalConfig.getConfigLoaderSyncInterval().toSeconds() + "s");
+                    long now = System.currentTimeMillis();
+                    while (!isLoaderDone && (endTime > now)) {
+                        waitLoaderLock.wait(endTime - now);
+                        now = System.currentTimeMillis();
                     }
-
-                }
-                if (!isLoaderDone) {
-                    throw new ConfigRuntimeException("Failed to load config from ConfigLoader after "
-                            + internalConfig.getConfigLoaderSyncInterval());
+                } catch (InterruptedException e) {
+                    Thread.interrupted();
+                    throw new ConfigRuntimeException("Failed to attach to ConfigLoader jvm: ", e);
                 }
 
-            } else {
-                for (Class<?> configClass : annotatedClazzez) {
-                    ConfigResource anno = configClass.getAnnotation(ConfigResource.class);
-                    ConfigAdapter<String> configAdapter = null;
-                    if (anno != null) {
-                        String uri = anno.name();
-                        if (uri != null) {
-                            try {
-                                if (uri.toLowerCase().endsWith(".json")) {
-                                    configAdapter = new ConfigAdapterJson(uri, UTF8, internalConfig);
-                                    configAdapter.loadValue(configManagerCache);
-                                } else if (uri.toLowerCase().endsWith(".properties")) {
-                                    configAdapter = new ConfigAdapterProperties(uri, UTF8, internalConfig);
-                                    configAdapter.loadValue(configManagerCache);
-                                }
-                            } catch (ConfigException e) {
-                                /* Catch here because we do not want to fail initialize if one config is bad */
-                                logger.error("Error loading config " + uri + " ", e);
+            }
+            if (!isLoaderDone) {
+                throw new ConfigRuntimeException("Failed to load config from ConfigLoader after "
+                        + internalConfig.getConfigLoaderSyncInterval());
+            }
+
+        } else {
+            for (Class<?> configClass : annotatedClazzez) {
+                ConfigResource anno = configClass.getAnnotation(ConfigResource.class);
+                ConfigAdapter<String> configAdapter = null;
+                if (anno != null) {
+                    String uri = anno.name();
+                    if (uri != null) {
+                        try {
+                            if (uri.toLowerCase().endsWith(".json")) {
+                                configAdapter = new ConfigAdapterJson(uri, UTF8, internalConfig);
+                                configAdapter.loadValue(configManagerCache);
+                            } else if (uri.toLowerCase().endsWith(".properties")) {
+                                configAdapter = new ConfigAdapterProperties(uri, UTF8, internalConfig);
+                                configAdapter.loadValue(configManagerCache);
                             }
+                        } catch (ConfigException e) {
+                            /* Catch here because we do not want to fail initialize if one config is bad */
+                            logger.error("Error loading config " + uri + " ", e);
                         }
                     }
                 }
-                //trigger flipping of cache
-                resetAndFlipCache();
             }
-            configManagerInitialized = true;
-        } finally {
-            initCount--;
+            //trigger flipping of cache
+            resetAndFlipCache();
         }
+        configManagerInitialized = true;
     }
 
     private String appName = "ConfigManager_" + System.nanoTime();
 
+    /**
+     * Registers this application with the ConfigLoader, so the loader attaches
+     * only to subscribed VMs instead of probing every VM on the host. A failure
+     * is not fatal; a ConfigLoader started later discovers this VM on its
+     * startup scan.
+     */
+    private void subscribeConfigs() {
+        ConfigLoaderJvm loaderVm = new ConfigLoaderJvm();
+        try {
+            loaderVm.attach();
+            loaderVm.subscribeConfigs(getAppName(), VirtualMachine.currentVmId());
+            logger.info("Subscribed " + getAppName() + " with ConfigLoader");
+        } catch (VirtualMachineException e) {
+            logger.warn("Failed to subscribe " + getAppName() + " with ConfigLoader", e);
+        } finally {
+            try {
+                loaderVm.close();
+            } catch (VirtualMachineException e) {
+                // ignore exception to allow gc to collect resources
+            }
+        }
+    }
+
     private String getAppName() {
         return appName;
     }
 
+    /** hit, miss, build and flip statistics */
+    private final ConfigManagerStats stats = new ConfigManagerStats();
+    /** name the stats MBean is registered under, null if not registered */
+    private ObjectName statsMBeanName = null;
+
+    /**
+     * Register the ConfigManagerStats MBean under the current appName,
+     * replacing the one registered under a previous appName. Statistics are
+     * optional; a failure is only logged.
+     */
+    private synchronized void registerStatsMBean() {
+        try {
+            ObjectName name = new ObjectName(ConfigManagerJvm.CONFIG_MGR_STATS_MBEAN_NAME + getAppName());
+            MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+            if (statsMBeanName != null && !statsMBeanName.equals(name) && mbs.isRegistered(statsMBeanName)) {
+                mbs.unregisterMBean(statsMBeanName);
+            }
+            if (!mbs.isRegistered(name)) {
+                mbs.registerMBean(new StandardMBean(stats, ConfigManagerStatsMXBean.class, true), name);
+            }
+            statsMBeanName = name;
+        } catch (JMException e) {
+            logger.warn("Failed to register JMX bean: " + ConfigManagerJvm.CONFIG_MGR_STATS_MBEAN_NAME
+                    + getAppName(), e);
+        }
+    }
+
+    /**
+     * @return hit, miss, build and flip statistics
+     */
+    ConfigManagerStats getStats() {
+        return stats;
+    }
+
+    /** Receives configs from the ConfigLoader when LoadFrom is "SOCKET" */
+    private ConfigLoaderSocketClient socketClient = null;
+
+    /**
+     * Subscribes the application config modules with the ConfigLoader over the
+     * loopback socket, replacing the subscription of a previous appName.
+     */
+    private synchronized void startSocketClient() {
+        if (socketClient != null) {
+            socketClient.close();
+        }
+        socketClient = new ConfigLoaderSocketClient(this, getAppName(), getModuleAdapters(), internalConfig
+                .getConfigLoaderSocketPort().intValue(), PrivateFiles.resolve(
+                internalConfig.getConfigLoaderSocketSecretFile(), System.getProperty("JCONFIG_CDIR")).getPath());
+        socketClient.start();
+    }
+
+    /** Loads configs from the ConfigLoader segment when LoadFrom is "MMAP" */
+    private MappedConfigReader mappedConfigReader = null;
+
+    /**
+     * Watches the config segment published by the ConfigLoader, replacing the
+     * reader of a previous appName.
+     */
+    private synchronized void startMappedConfigReader() {
+        if (mappedConfigReader != null) {
+            mappedConfigReader.close();
+        }
+        mappedConfigReader = new MappedConfigReader(this, getAppName(), getModuleAdapters(),
+                PrivateFiles.resolve(internalConfig.getConfigLoaderMmapFile(), System.getProperty("JCONFIG_CDIR"))
+                        .getPath(), internalConfig.getConfigLoaderMmapCheckInterval().toMillis());
+        mappedConfigReader.start();
+    }
+
+    /**
+     * @return config module names and their ConfigLoader adapter uri
+     */
+    private Map<String, String> getModuleAdapters() {
+        Map<String, String> moduleAdapters = new HashMap<String, String>();
+        for (Class<?> configClass : annotatedClazzez) {
+            moduleAdapters.put(configClass.getName(), new LoaderAdapter(configClass).getConfigLoaderAdapter());
+        }
+        return moduleAdapters;
+    }
+
+    /**
+     * @param moduleName
+     *            config class name
+     * @return the config class of the module found by the class path scan,
+     *         else loaded by the ConfigManager class loader; null if there is
+     *         no such class
+     */
+    public Class<?> getConfigClass(final String moduleName) {
+        Class<?> configClass = configClassesByName.get(moduleName);
+        if (configClass != null) {
+            return configClass;
+        }
+        try {
+            return Class.forName(moduleName, false, ConfigManager.class.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            return null;
+        } catch (LinkageError e) {
+            return null;
+        }
+    }
+
     /**
      * LoadAppConfigsNotification succeeded
      * 
      */
     public void resetAndFlipCache() {
-        configManagerCache.flipCache();
-        configObjectsCache.clear();
+        publish(0, null);
+    }
+
+    /**
+     * Open a stage for a new version of the config values, see
+     * {@link ConfigManagerCache#beginStage()}
+     * 
+     * @return stage id
+     */
+    public long beginStage() {
+        return configManagerCache.beginStage();
+    }
+
+    /**
+     * Publish the staged config values with a single cache flip, see
+     * {@link ConfigManagerCache#commitStage(long, Collection)}
+     * 
+     * @param stageId
+     * @param modules
+     *            modules of the new version, all must be staged
+     * @return version of the snapshot with the committed values
+     */
+    public long commitStage(final long stageId, final Collection<String> modules) {
+        return publish(stageId, modules);
+    }
+
+    /**
+     * Discard the staged config values, see
+     * {@link ConfigManagerCache#abortStage(long)}
+     * 
+     * @param stageId
+     */
+    public void abortStage(final long stageId) {
+        configManagerCache.abortStage(stageId);
+    }
+
+    /**
+     * Flip the cache, or commit a stage, and publish a new snapshot
+     * 
+     * @param stageId
+     *            stage to commit, 0 to flip outside of a stage
+     * @param modules
+     *            modules of the stage
+     * @return version of the new snapshot, or of the current one if a flip was
+     *         skipped as a stage is open
+     */
+    private long publish(final long stageId, final Collection<String> modules) {
+        long version;
+        ConfigSnapshot next;
+        List<ConfigSnapshot.CachedConfig> changedConfigs = null;
+        synchronized (flipLock) {
+            long start = System.nanoTime();
+            if (stageId == 0) {
+                if (!configManagerCache.flipCacheUnlessStaged()) {
+                    // staged values are published by commitStage only
+                    logger.warn("Config cache flip skipped, a config stage is open");
+                    return flipCount;
+                }
+            } else {
+                configManagerCache.commitStage(stageId, modules);
+            }
+            next = new ConfigSnapshot(++flipCount, configManagerCache.getReadOnlyCopy(), maxCacheSize,
+                    prewarmMaxObjects);
+            ConfigSnapshot current = snapshot;
+            if (current != null && prewarmExecutor != null) {
+                changedConfigs = keepUnchangedConfigs(current, next);
+            }
+            snapshot = next;
+            version = next.getVersion();
+            stats.flipped(current, next, System.nanoTime() - start);
+        }
         setLoadingDone();
+        if (!subscriptions.isEmpty()) {
+            listenerExecutor.execute(notifyListeners);
+        }
+        if (changedConfigs != null && !changedConfigs.isEmpty()) {
+            prewarm(next, changedConfigs);
+        }
+        return version;
+    }
+
+    /**
+     * Move the config objects used from the current snapshot to the next
+     * snapshot if their config values did not change, before the next
+     * snapshot is published.
+     * 
+     * @param current
+     * @param next
+     * @return the used config objects whose config values changed
+     */
+    private List<ConfigSnapshot.CachedConfig> keepUnchangedConfigs(final ConfigSnapshot current,
+            final ConfigSnapshot next) {
+        List<ConfigSnapshot.CachedConfig> changedConfigs = new ArrayList<ConfigSnapshot.CachedConfig>();
+        for (ConfigSnapshot.CachedConfig cached : current.getUsedConfigs()) {
+            Class<?> classDefinition = cached.getClassDefinition();
+            if (!next.getCache().hasSameValues(current.getCache(), classDefinition)) {
+                changedConfigs.add(cached);
+                continue;
+            }
+            ConfigSnapshot.ClassEntry classEntry = next.getClassEntry(classDefinition);
+            String contextId = cached.getContext().getUniqueId(classEntry.getContextTypes());
+            if (getCachedConfig(next, classEntry, classDefinition, contextId) != null) {
+                continue;
+            }
+            ConfigSnapshot.CachedConfig kept = new ConfigSnapshot.CachedConfig(classDefinition, cached.getContext(),
+                    cached.peekConfig(), false);
+            if (contextId.length() == 0) {
+                classEntry.setDefaultConfig(kept);
+            } else {
+                next.getConfigObjectsCache().put(classDefinition.getName() + contextId, kept);
+            }
+            classEntry.incrementContextCount();
+            next.addRecentConfig(kept);
+        }
+        return changedConfigs;
+    }
+
+    /**
+     * Rebuild config objects against the config values of a snapshot just
+     * published, outside of the flip lock. Builds race with the readers of
+     * the snapshot through its pending builds, so each object is still built
+     * once.
+     * 
+     * @param next
+     *            published snapshot
+     * @param changedConfigs
+     *            used config objects of the previous snapshot whose config
+     *            values changed
+     */
+    private void prewarm(final ConfigSnapshot next, final List<ConfigSnapshot.CachedConfig> changedConfigs) {
+        long start = System.nanoTime();
+        List<Callable<Object>> builds = new ArrayList<Callable<Object>>();
+        for (final ConfigSnapshot.CachedConfig cached : changedConfigs) {
+            builds.add(new Callable<Object>() {
+                @Override
+                public Object call() {
+                    if (snapshot != next) {
+                        // newer config values were published meanwhile
+                        return null;
+                    }
+                    try {
+                        return getConfig(next, cached.getClassDefinition(), cached.getContext(), false);
+                    } catch (RuntimeException e) {
+                        logger.warn("Failed to pre-warm " + cached.getClassDefinition().getName() + " for context "
+                                + cached.getContext(), e);
+                        return null;
+                    }
+                }
+            });
+        }
+        try {
+            prewarmExecutor.invokeAll(builds);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.info("Pre-warmed " + builds.size() + " config objects in " + ((System.nanoTime() - start) / 1000000)
+                + " ms");
+    }
+
+    /** Executor pre-warming config objects on flips, null if disabled */
+    private volatile ExecutorService prewarmExecutor = null;
+
+    /** Max number of config objects pre-warmed per flip */
+    private volatile int prewarmMaxObjects = 1000;
+
+    /**
+     * Listener for config changes, see
+     * {@link ConfigManager#subscribe(Class, ConfigContext, Listener)}
+     * 
+     * @param <T>
+     *            Config Type
+     */
+    public interface Listener<T> {
+        /**
+         * New config values were loaded and changed some keys of the
+         * subscribed config.
+         * 
+         * @param oldConfig
+         *            config object before the change
+         * @param newConfig
+         *            config object after the change
+         * @param changedKeys
+         *            names of the changed keys, as used by getValueAs*
+         */
+        void configChanged(T oldConfig, T newConfig, SortedSet<String> changedKeys);
+    }
+
+    /**
+     * Calls listener when new config values loaded from the ConfigLoader or
+     * config files change any key of the config object for the given context.
+     * Listeners are called one at a time on a ConfigManager thread, after the
+     * cache flip; flips happening while listeners run are reported together.
+     * 
+     * @param <T>
+     *            Config Type
+     * @param classDefinition
+     *            config class
+     * @param context
+     *            context of the config object
+     * @param listener
+     */
+    public <T> void subscribe(final Class<T> classDefinition, final ConfigContext context, final Listener<T> listener) {
+        subscriptions.add(new Subscription<T>(classDefinition, context, listener, getConfig(classDefinition,
+                context)));
+    }
+
+    /**
+     * Stop calling listener on config changes
+     * 
+     * @param listener
+     */
+    public void unsubscribe(final Listener<?> listener) {
+        for (Subscription<?> subscription : subscriptions) {
+            if (subscription.listener == listener) {
+                subscriptions.remove(subscription);
+            }
+        }
+    }
+
+    /** Listeners subscribed to config changes */
+    private final List<Subscription<?>> subscriptions = new CopyOnWriteArrayList<Subscription<?>>();
+
+    /**
+     * Single listener thread with room for one pending notification; a
+     * notification queued behind a running one already sees the latest flip.
+     */
+    private final ThreadPoolExecutor listenerExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<Runnable>(1), new ExecutorThreadFactory("ConfigManagerListener"),
+            new ThreadPoolExecutor.DiscardPolicy());
+
+    private final Runnable notifyListeners = new Runnable() {
+        @Override
+        public void run() {
+            for (Subscription<?> subscription : subscriptions) {
+                try {
+                    subscription.update();
+                } catch (RuntimeException e) {
+                    logger.error("Config listener failed for " + subscription.classDefinition.getName(), e);
+                }
+            }
+        }
+    };
+
+    /**
+     * Subscribed listener with the config object last reported to it
+     */
+    private static class Subscription<T> {
+        private final Class<T> classDefinition;
+        private final ConfigContext context;
+        private final Listener<T> listener;
+        private T config;
+
+        Subscription(final Class<T> classDefinition, final ConfigContext context, final Listener<T> listener,
+                final T config) {
+            this.classDefinition = classDefinition;
+            this.context = context;
+            this.listener = listener;
+            this.config = config;
+        }
+
+        /**
+         * Call listener if the config object changed since last call
+         */
+        void update() {
+            T newConfig = ConfigManager.INSTANCE.getConfig(classDefinition, context);
+            if (newConfig == config) {
+                return;
+            }
+            T oldConfig = config;
+            config = newConfig;
+            SortedSet<String> changedKeys = ConfigDiff.changedKeys(oldConfig, newConfig);
+            if (!changedKeys.isEmpty()) {
+                listener.configChanged(oldConfig, newConfig, changedKeys);
+            }
+        }
     }
 
     /**
@@ -291,7 +763,11 @@ public enum ConfigManager {
             if (notification instanceof LoadAppConfigsNotification) {
                 LoadAppConfigsNotification acn = (LoadAppConfigsNotification) notification;
                 if (acn.getAppName().equals(manager.getAppName())) {
-                    if (acn.getResult() == true) {
+                    if (acn.getResult() == true && acn.getConfigVersion() > 0) {
+                        // the ConfigLoader committed the new values itself
+                        logger.info("ConfigLoader LoadAppConfigsNotification for " + manager.getAppName()
+                                + " committed config version " + acn.getConfigVersion());
+                    } else if (acn.getResult() == true) {
 
                         logger.info("ConfigLoader LoadAppConfigsNotification for " + manager.getAppName()
                                 + " returned true");
@@ -342,28 +818,144 @@ public enum ConfigManager {
      */
     @Nonnull
     public <T> T getConfig(final Class<T> classDefinition, final ConfigContext context) throws KeyNotFound {
-        // initialize on happens ounce
-        initialize();
+        return getConfig(snapshot(), classDefinition, context);
+    }
 
-        SortedSet<String> contextSet = configManagerCache.getContextTypes(classDefinition);
+    /**
+     * Returns the config values of the last cache flip. Config objects fetched
+     * from the snapshot are consistent with each other; use it to read several
+     * config classes without seeing a flip in between.
+     * 
+     * @return current ConfigSnapshot
+     */
+    @Nonnull
+    public ConfigSnapshot snapshot() {
+        ConfigSnapshot current = snapshot;
+        if (current == null) {
+            // initialize on happens ounce
+            initialize();
+            current = snapshot;
+        }
+        return current;
+    }
+
+    /**
+     * Returns the config object for the given snapshot, building it from the
+     * snapshot config values on a cache miss.
+     */
+    <T> T getConfig(final ConfigSnapshot configSnapshot, final Class<T> classDefinition,
+            final ConfigContext context)
+            throws KeyNotFound {
+        return getConfig(configSnapshot, classDefinition, context, true);
+    }
+
+    /**
+     * @param used
+     *            false when pre-warming, the object is not used yet
+     */
+    private <T> T getConfig(final ConfigSnapshot configSnapshot, final Class<T> classDefinition,
+            final ConfigContext context, final boolean used) throws KeyNotFound {
+        long start = used ? stats.startCall() : 0;
+        final ConfigSnapshot.ClassEntry classEntry = configSnapshot.getClassEntry(classDefinition);
+        final String contextId = context.getUniqueId(classEntry.getContextTypes());
 
         // return cached entry
-        @SuppressWarnings("unchecked")
-        T config = (T) configObjectsCache.get(getConfigListEntryName(classDefinition, context, contextSet));
-        if (config != null) {
+        ConfigSnapshot.CachedConfig cached = getCachedConfig(configSnapshot, classEntry, classDefinition, contextId);
+        if (cached != null) {
+            @SuppressWarnings("unchecked")
+            T config = (T) (used ? cached.getConfig() : cached.peekConfig());
+            if (used) {
+                stats.hit(start);
+            }
             return config;
         }
+        if (used && start == 0) {
+            start = System.nanoTime();
+        }
 
+        // build each object once, concurrent misses on the same key wait for the first build
+        String key = classDefinition.getName() + contextId;
+        FutureTask<T> build = new FutureTask<T>(new Callable<T>() {
+            @Override
+            public T call() {
+                // a build finished between the cache miss and winning the pending build
+                ConfigSnapshot.CachedConfig built = getCachedConfig(configSnapshot, classEntry, classDefinition,
+                        contextId);
+                if (built != null) {
+                    // pre-warming must not mark the object as used
+                    @SuppressWarnings("unchecked")
+                    T config = (T) (used ? built.getConfig() : built.peekConfig());
+                    return config;
+                }
+                return buildConfig(configSnapshot, classEntry, classDefinition, context, contextId, used);
+            }
+        });
+        @SuppressWarnings("unchecked")
+        FutureTask<T> running = (FutureTask<T>) configSnapshot.getPendingBuilds().putIfAbsent(key, build);
+        if (running == null) {
+            try {
+                build.run();
+            } finally {
+                configSnapshot.getPendingBuilds().remove(key, build);
+            }
+            running = build;
+        }
+
+        try {
+            return running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConfigRuntimeException("ConfigManager fatal exception:", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new ConfigRuntimeException("ConfigManager fatal exception:", e.getCause());
+        } finally {
+            if (used) {
+                stats.miss(start);
+            }
+        }
+    }
+
+    /**
+     * @return the cached config object, null if not built yet. Contexts without
+     *         any of the class context types share the default object
+     */
+    private ConfigSnapshot.CachedConfig getCachedConfig(final ConfigSnapshot configSnapshot,
+            final ConfigSnapshot.ClassEntry classEntry, final Class<?> classDefinition, final String contextId) {
+        return contextId.length() == 0 ? classEntry.getDefaultConfig() : configSnapshot.getConfigObjectsCache().get(
+                classDefinition.getName() + contextId);
+    }
+
+    /**
+     * Build a config object from the snapshot config values and cache it in
+     * the snapshot.
+     */
+    private <T> T buildConfig(final ConfigSnapshot configSnapshot, final ConfigSnapshot.ClassEntry classEntry,
+            final Class<T> classDefinition, final ConfigContext context, final String contextId, final boolean used)
+                    throws KeyNotFound {
         try {
             // Validates if class has @Config annotation
             Config configAnno = getAnnoConfig(classDefinition);
             configAnno.description();
-            config = classDefinition.newInstance();
+            long start = System.nanoTime();
+            T config = classDefinition.newInstance();
 
             // Initialize Config Object
-            buildConfigObject(config, context, UTF8, configManagerCache);
+            buildConfigObject(config, context, UTF8, configSnapshot.getCache());
+            stats.built(classDefinition, System.nanoTime() - start);
+            classEntry.incrementContextCount();
 
-            configObjectsCache.put(getConfigListEntryName(classDefinition, context, contextSet), config);
+            ConfigSnapshot.CachedConfig cached = new ConfigSnapshot.CachedConfig(classDefinition, context, config, used);
+            if (contextId.length() == 0) {
+                classEntry.setDefaultConfig(cached);
+            } else {
+                configSnapshot.getConfigObjectsCache().put(classDefinition.getName() + contextId, cached);
+            }
+            configSnapshot.addRecentConfig(cached);
             return config;
         } catch (InstantiationException e) {
             throw new ConfigRuntimeException("ConfigManager fatal exception:", e);
@@ -411,9 +1003,17 @@ public enum ConfigManager {
             throw new ConfigRuntimeException("Failed to register JMX bean: " + ConfigManagerJvm.CONFIG_MGR_MBEAN_NAME,
                     e);
         }
+        registerStatsMBean();
         if (annotatedClazzez == null) {
             scanAnnotatedClasses();
         }
+        if (configManagerInitialized && getInternalConfig().getLoadFrom().equals("JMX")) {
+            subscribeConfigs();
+        } else if (configManagerInitialized && getInternalConfig().getLoadFrom().equals("SOCKET")) {
+            startSocketClient();
+        } else if (configManagerInitialized && getInternalConfig().getLoadFrom().equals("MMAP")) {
+            startMappedConfigReader();
+        }
         initialize();
     }
 
@@ -457,6 +1057,9 @@ public enum ConfigManager {
     public <T> T buildConfigObject(final T config, final ConfigContext context, final Charset charset,
             final ConfigManagerCache localCache)
                     throws KeyNotFound {
+        boolean recording = ConfigEvents.isEnabled();
+        long start = recording ? System.nanoTime() : 0;
+        int keyCount = 0;
         /*
          * Iterate through all the methods and set values
          */
@@ -512,8 +1115,13 @@ public enum ConfigManager {
                     }
                 }
                 loadfromValue(config, configGet, configSet, methodName, valueType, value);
+                keyCount++;
             }
         }
+        if (recording) {
+            ConfigEvents.emit(new ConfigObjectBuildEvent(config.getClass().getName(), String.valueOf(context), keyCount,
+                    System.nanoTime() - start));
+        }
         return config;
     }
 
@@ -605,6 +1213,28 @@ public enum ConfigManager {
         } else if (ValueType.Json == valueType) {
             JsonParser parser = new JsonParser();
             return parser.parse(value);
+        } else if (ValueType.Int == valueType) {
+            return Integer.parseInt(value.trim());
+        } else if (ValueType.Long == valueType) {
+            return Long.parseLong(value.trim());
+        } else if (ValueType.Double == valueType) {
+            return Double.parseDouble(value);
+        } else if (ValueType.Bool == valueType) {
+            return Boolean.parseBoolean(value);
+        } else if (ValueType.IntArray == valueType) {
+            String[] valueArr = value.length() == 0 ? new String[0] : value.split(":");
+            int[] intArray = new int[valueArr.length];
+            for (int i = 0; i < valueArr.length; i++) {
+                intArray[i] = Integer.parseInt(valueArr[i].trim());
+            }
+            return intArray;
+        } else if (ValueType.LongArray == valueType) {
+            String[] valueArr = value.length() == 0 ? new String[0] : value.split(":");
+            long[] longArray = new long[valueArr.length];
+            for (int i = 0; i < valueArr.length; i++) {
+                longArray[i] = Long.parseLong(valueArr[i].trim());
+            }
+            return longArray;
         } else {
             throw new ConfigRuntimeException("ConfigManager type " + valueType + " is not supported.");
         }
@@ -645,64 +1275,32 @@ public enum ConfigManager {
     }
 
     public <T> boolean containsKey(final Class<T> classDefinition, final String keyName) {
-        return containsMethodGet(getConfig(classDefinition, ConfigContext.EMPTY), keyName);
+        getConfig(classDefinition, ConfigContext.EMPTY);
+        return ConfigKeyIndex.forClass(classDefinition).containsKey(keyName);
     }
 
     public <T> Boolean getValueAsBoolean(final Class<T> classDefinition, final String keyName) {
-        return (Boolean) getValueAsObject(getConfig(classDefinition, ConfigContext.EMPTY), keyName);
+        return (Boolean) getValueAsObject(classDefinition, keyName);
     }
 
     public <T> Number getValueAsNumber(final Class<T> classDefinition, final String keyName) {
-        return (Number) getValueAsObject(getConfig(classDefinition, ConfigContext.EMPTY), keyName);
+        return (Number) getValueAsObject(classDefinition, keyName);
     }
 
     public <T> String getValueAsString(final Class<T> classDefinition, final String keyName) {
-        return (String) getValueAsObject(getConfig(classDefinition, ConfigContext.EMPTY), keyName);
+        return (String) getValueAsObject(classDefinition, keyName);
     }
 
     /**
      * 
      * @param <T>
-     * @param config
-     * @param keyName
-     * @return
-     */
-    private <T> boolean containsMethodGet(final T config, final String keyName) {
-        Method[] methods = config.getClass().getMethods();
-        for (Method method : methods) {
-            if (method.getName().equals("get" + keyName)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    /**
-     * 
-     * @param <T>
-     * @param config
+     * @param classDefinition
      * @param keyName
      * @return
      */
-    private <T> Object getValueAsObject(final T config, final String keyName) {
-        try {
-            @SuppressWarnings("unchecked")
-            Class<T> clazz = (Class<T>) config.getClass();
-            Class<?>[] par = null;
-            Method method = clazz.getMethod("get" + keyName, par);
-            return method.invoke(config, new Object[0]);
-        } catch (IllegalArgumentException e) {
-            throw new ConfigRuntimeException("ConfigManager fatal exception:", e);
-        } catch (IllegalAccessException e) {
-            throw new ConfigRuntimeException("ConfigManager fatal exception:", e);
-        } catch (InvocationTargetException e) {
-            throw new ConfigRuntimeException("ConfigManager fatal exception:", e);
-        } catch (SecurityException e) {
-            throw new ConfigRuntimeException("ConfigManager fatal exception:", e);
-        } catch (NoSuchMethodException e) {
-            throw new KeyNotFound("ConfigManager: method get" + keyName
-                    + " is required and is currently missing for class " + config.getClass());
-        }
+    private <T> Object getValueAsObject(final Class<T> classDefinition, final String keyName) {
+        return ConfigKeyIndex.forClass(classDefinition).getValue(getConfig(classDefinition, ConfigContext.EMPTY),
+                keyName);
     }
 
     /**
@@ -850,19 +1448,6 @@ public enum ConfigManager {
         }
     }
 
-    /**
-     * 
-     * 
-     * @param <T>
-     * @param classDefinition
-     * @param SetsKey
-     * @return
-     */
-    private <T> String getConfigListEntryName(final Class<T> classDefinition, final ConfigContext context,
-            final SortedSet<String> contextSet) {
-        return classDefinition.getName() + context.getUniqueId(contextSet);
-    }
-
     public ConfigManagerCache getCache() {
         return configManagerCache;
     }
@@ -871,7 +1456,10 @@ public enum ConfigManager {
      * Set to true when config values are loaded to Config Manager cache
      */
     public void setLoadingDone() {
-        isLoaderDone = true;
+        synchronized (waitLoaderLock) {
+            isLoaderDone = true;
+            waitLoaderLock.notifyAll();
+        }
     }
 
 }
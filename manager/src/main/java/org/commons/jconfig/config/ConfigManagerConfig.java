@@ -34,7 +34,7 @@ public class ConfigManagerConfig {
 
     private String loadFrom = "FILESYSTEM";
 
-    @ConfigGet(description = "Config's can be loaded, updated via multiple options. Options enabled so far are 'FILESYSTEM' and 'JMX'", type = ValueType.String, defaultValue = "FILESYSTEM")
+    @ConfigGet(description = "Config's can be loaded, updated via multiple options. Options enabled so far are 'FILESYSTEM', 'JMX', 'SOCKET' and 'MMAP'", type = ValueType.String, defaultValue = "FILESYSTEM")
     public String getLoadFrom() {
         return loadFrom;
     }
@@ -76,4 +76,120 @@ public class ConfigManagerConfig {
     public void setConfigLoaderSyncInterval(final TimeValue timeValue) {
         configLoaderSyncInterval = timeValue;
     }
+
+    private Number prewarmThreads = 2;
+
+    /**
+     * Threads rebuilding recently used config objects against new config
+     * values before they are published. 0 disables pre-warming.
+     * 
+     * @return Number
+     */
+    @ConfigGet(description = "Threads pre-warming config objects on new config values, 0 to disable", type = ValueType.Number, defaultValue = "2")
+    public Number getPrewarmThreads() {
+        return prewarmThreads;
+    }
+
+    @ConfigSet
+    @NumberRange(min = 0, max = 64)
+    public void setPrewarmThreads(final Number threads) {
+        prewarmThreads = threads;
+    }
+
+    private Number prewarmMaxObjects = 1000;
+
+    /**
+     * Max number of recently used config objects rebuilt on new config values
+     * 
+     * @return Number
+     */
+    @ConfigGet(description = "Max number of config objects pre-warmed on new config values", type = ValueType.Number, defaultValue = "1000")
+    public Number getPrewarmMaxObjects() {
+        return prewarmMaxObjects;
+    }
+
+    @ConfigSet
+    @NumberRange(min = 1, max = Integer.MAX_VALUE)
+    public void setPrewarmMaxObjects(final Number max) {
+        prewarmMaxObjects = max;
+    }
+
+    private Number configLoaderSocketPort = 17680;
+
+    /**
+     * Loopback port of the Config Loader, used when LoadFrom is "SOCKET"
+     * 
+     * @return Number
+     */
+    @ConfigGet(description = "ConfigLoader loopback socket port", type = ValueType.Number, defaultValue = "17680")
+    public Number getConfigLoaderSocketPort() {
+        return configLoaderSocketPort;
+    }
+
+    @ConfigSet
+    @NumberRange(min = 1, max = 65535)
+    public void setConfigLoaderSocketPort(final Number port) {
+        configLoaderSocketPort = port;
+    }
+
+    private String configLoaderSocketSecretFile = "config_loader.socket.secret";
+
+    /**
+     * Secret file written by the Config Loader, used when LoadFrom is "SOCKET"
+     * to authenticate with the Config Loader. The application must run as the
+     * same user as the Config Loader to read it. A relative name is resolved
+     * against the Config Loader config directory, set by the JCONFIG_CDIR
+     * system property.
+     * 
+     * @return String
+     */
+    @ConfigGet(description = "ConfigLoader loopback socket secret file", type = ValueType.String, defaultValue = "config_loader.socket.secret")
+    public String getConfigLoaderSocketSecretFile() {
+        return configLoaderSocketSecretFile;
+    }
+
+    @ConfigSet
+    @StringNotEmpty
+    public void setConfigLoaderSocketSecretFile(final String fileName) {
+        configLoaderSocketSecretFile = fileName;
+    }
+
+    private String configLoaderMmapFile = "config_loader.mmap";
+
+    /**
+     * Config segment file published by the Config Loader, used when LoadFrom is "MMAP".
+     * A relative name is resolved against the Config Loader config directory,
+     * set by the JCONFIG_CDIR system property. The application must run as the
+     * same user as the Config Loader.
+     * 
+     * @return String
+     */
+    @ConfigGet(description = "ConfigLoader memory mapped config segment file", type = ValueType.String, defaultValue = "config_loader.mmap")
+    public String getConfigLoaderMmapFile() {
+        return configLoaderMmapFile;
+    }
+
+    @ConfigSet
+    @StringNotEmpty
+    public void setConfigLoaderMmapFile(final String fileName) {
+        configLoaderMmapFile = fileName;
+    }
+
+    private TimeValue configLoaderMmapCheckInterval = new TimeValue(500, TimeUnit.MILLISECONDS);
+
+    /**
+     * How often to check the config segment for a new version, used when LoadFrom is "MMAP"
+     * 
+     * @return TimeValue
+     */
+    @ConfigGet(description = "ConfigLoader config segment check interval", type = ValueType.Time, defaultValue = "500 ms")
+    public TimeValue getConfigLoaderMmapCheckInterval() {
+        return configLoaderMmapCheckInterval;
+    }
+
+    @ConfigSet
+    @TimeRange(min = "10 ms", max = "60 m")
+    public void setConfigLoaderMmapCheckInterval(final TimeValue timeValue) {
+        configLoaderMmapCheckInterval = timeValue;
+    }
 }
@@ -0,0 +1,167 @@
+package org.commons.jconfig.config;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.commons.jconfig.internal.LatencyHistogram;
+import org.commons.jconfig.internal.StripedCounter;
+import org.commons.jconfig.internal.jmx.ConfigManagerStatsMXBean;
+import org.commons.jconfig.internal.jmx.LatencyStats;
+
+/**
+ * ConfigManager statistics, updated on the getConfig path and on cache flips.
+ * Counters and histograms are striped by thread so updating them does not add
+ * contention to the getConfig path.
+ */
+final class ConfigManagerStats implements ConfigManagerStatsMXBean {
+
+    /** one in HIT_SAMPLE_RATE cache hits of a thread is timed */
+    static final int HIT_SAMPLE_RATE = 64;
+
+    private final StripedCounter hits = new StripedCounter();
+    private final StripedCounter misses = new StripedCounter();
+    private final LatencyHistogram hitLatency = new LatencyHistogram();
+    private final LatencyHistogram missLatency = new LatencyHistogram();
+    private final ConcurrentHashMap<String, LatencyHistogram> buildTimes = new ConcurrentHashMap<String, LatencyHistogram>();
+    private final LatencyHistogram flipDuration = new LatencyHistogram(1);
+    private final StripedCounter pastEvictions = new StripedCounter();
+    private volatile ConfigSnapshot snapshot = null;
+
+    /**
+     * Called on getConfig entry. Sampling reads the hit counter of the thread
+     * instead of counting calls, so a hit only updates one counter.
+     * 
+     * @return start time in ns if this call is timed, 0 otherwise
+     */
+    long startCall() {
+        return (hits.current() + 1) % HIT_SAMPLE_RATE == 0 ? System.nanoTime() : 0;
+    }
+
+    /**
+     * @param start
+     *            start time returned by startCall
+     */
+    void hit(final long start) {
+        hits.increment();
+        if (start != 0) {
+            hitLatency.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * @param start
+     *            start time in ns of the getConfig call
+     */
+    void miss(final long start) {
+        misses.increment();
+        missLatency.record(System.nanoTime() - start);
+    }
+
+    /**
+     * @param classDefinition
+     *            config class
+     * @param nanos
+     *            time to build the config object
+     */
+    void built(final Class<?> classDefinition, final long nanos) {
+        LatencyHistogram buildTime = buildTimes.get(classDefinition.getName());
+        if (buildTime == null) {
+            buildTime = new LatencyHistogram(1);
+            LatencyHistogram previous = buildTimes.putIfAbsent(classDefinition.getName(), buildTime);
+            if (previous != null) {
+                buildTime = previous;
+            }
+        }
+        buildTime.record(nanos);
+    }
+
+    /**
+     * @param replaced
+     *            snapshot replaced by the flip, null on the first flip
+     * @param next
+     *            snapshot published by the flip
+     * @param nanos
+     *            flip duration
+     */
+    void flipped(final ConfigSnapshot replaced, final ConfigSnapshot next, final long nanos) {
+        flipDuration.record(nanos);
+        if (replaced != null) {
+            pastEvictions.add(replaced.getConfigObjectsCache().getEvictionCount());
+        }
+        snapshot = next;
+    }
+
+    @Override
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    @Override
+    public LatencyStats getHitLatency() {
+        return hitLatency.getStats();
+    }
+
+    @Override
+    public LatencyStats getMissLatency() {
+        return missLatency.getStats();
+    }
+
+    @Override
+    public Map<String, LatencyStats> getBuildTime() {
+        Map<String, LatencyStats> buildTime = new HashMap<String, LatencyStats>();
+        for (Map.Entry<String, LatencyHistogram> entry : buildTimes.entrySet()) {
+            buildTime.put(entry.getKey(), entry.getValue().getStats());
+        }
+        return buildTime;
+    }
+
+    @Override
+    public long getFlipCount() {
+        return flipDuration.getStats().getCount();
+    }
+
+    @Override
+    public LatencyStats getFlipDuration() {
+        return flipDuration.getStats();
+    }
+
+    @Override
+    public Map<String, Integer> getContextCardinality() {
+        Map<String, Integer> cardinality = new HashMap<String, Integer>();
+        ConfigSnapshot current = snapshot;
+        if (current != null) {
+            for (Map.Entry<Class<?>, ConfigSnapshot.ClassEntry> entry : current.getClassEntries().entrySet()) {
+                cardinality.put(entry.getKey().getName(), entry.getValue().getContextCount());
+            }
+        }
+        return cardinality;
+    }
+
+    @Override
+    public long getCacheEvictionCount() {
+        ConfigSnapshot current = snapshot;
+        return pastEvictions.sum() + (current == null ? 0 : current.getConfigObjectsCache().getEvictionCount());
+    }
+
+    @Override
+    public void resetStats() {
+        hits.reset();
+        misses.reset();
+        hitLatency.reset();
+        missLatency.reset();
+        buildTimes.clear();
+        flipDuration.reset();
+        pastEvictions.reset();
+        ConfigSnapshot current = snapshot;
+        if (current != null) {
+            // evictions of the current snapshot are counted from now on
+            pastEvictions.add(-current.getConfigObjectsCache().getEvictionCount());
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package org.commons.jconfig.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nonnull;
+
+import org.commons.jconfig.internal.ConcurrentLRUCache;
+import org.commons.jconfig.internal.ConfigManagerCache;
+
+/**
+ * Config values of a single ConfigManager cache flip, with the config objects
+ * built from them. Config objects fetched from the same snapshot are always
+ * consistent with each other, even if new config values are loaded while
+ * they are being fetched.
+ *
+ * Example code: <code>
+ * ConfigSnapshot snapshot = ConfigManager.INSTANCE.snapshot();
+ * App1Config app1Config = snapshot.getConfig(App1Config.class, context);
+ * App2Config app2Config = snapshot.getConfig(App2Config.class, context);
+ * </code>
+ */
+public final class ConfigSnapshot {
+
+    private final long version;
+    private final ConfigManagerCache cache;
+    private final ConcurrentLRUCache<String, CachedConfig> configObjectsCache;
+    private final ConcurrentHashMap<Class<?>, ClassEntry> classEntries = new ConcurrentHashMap<Class<?>, ClassEntry>();
+    /** config objects most recently built from this snapshot, oldest first */
+    private final ConcurrentLinkedQueue<CachedConfig> recentConfigs = new ConcurrentLinkedQueue<CachedConfig>();
+    private final AtomicInteger recentConfigsSize = new AtomicInteger(0);
+    private final int maxRecentConfigs;
+    /** config objects being built, by config object cache key */
+    private final ConcurrentHashMap<String, FutureTask<?>> pendingBuilds = new ConcurrentHashMap<String, FutureTask<?>>();
+
+    /**
+     * @param version
+     *            number of cache flips up to this snapshot
+     * @param cache
+     *            read only config values
+     * @param maxCacheSize
+     *            max number of config objects cached
+     * @param maxRecentConfigs
+     *            max number of recently built config objects remembered for
+     *            pre-warming the next snapshot
+     */
+    ConfigSnapshot(final long version, final ConfigManagerCache cache, final int maxCacheSize,
+            final int maxRecentConfigs) {
+        this.version = version;
+        this.cache = cache;
+        this.maxRecentConfigs = maxRecentConfigs;
+        configObjectsCache = new ConcurrentLRUCache<String, CachedConfig>(maxCacheSize);
+    }
+
+    /**
+     * @return number of cache flips up to this snapshot, increases with every
+     *         new config values loaded
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns an instance of the specified configuration class loaded with the
+     * config values of this snapshot. See
+     * {@link ConfigManager#getConfig(Class, ConfigContext)}
+     *
+     * @param <T>
+     *            the type of configuration object returned
+     * @param classDefinition
+     *            the class definition for the desired configuration object
+     * @param context
+     *            application-specific collection of configuration settings
+     * @return an instance of {@code classDefinition} with the appropriate
+     *         values loaded
+     * @throws KeyNotFound
+     */
+    @Nonnull
+    public <T> T getConfig(final Class<T> classDefinition, final ConfigContext context) throws KeyNotFound {
+        return ConfigManager.INSTANCE.getConfig(this, classDefinition, context);
+    }
+
+    ConfigManagerCache getCache() {
+        return cache;
+    }
+
+    ConcurrentLRUCache<String, CachedConfig> getConfigObjectsCache() {
+        return configObjectsCache;
+    }
+
+    /**
+     * Remember a config object built from this snapshot
+     * 
+     * @param cachedConfig
+     */
+    void addRecentConfig(final CachedConfig cachedConfig) {
+        recentConfigs.add(cachedConfig);
+        if (recentConfigsSize.incrementAndGet() > maxRecentConfigs && recentConfigs.poll() != null) {
+            recentConfigsSize.decrementAndGet();
+        }
+    }
+
+    /**
+     * @return config objects built from this snapshot and used since, most
+     *         recently built last
+     */
+    List<CachedConfig> getUsedConfigs() {
+        List<CachedConfig> usedConfigs = new ArrayList<CachedConfig>();
+        for (CachedConfig cachedConfig : recentConfigs) {
+            if (cachedConfig.isUsed()) {
+                usedConfigs.add(cachedConfig);
+            }
+        }
+        return usedConfigs;
+    }
+
+    ConcurrentHashMap<String, FutureTask<?>> getPendingBuilds() {
+        return pendingBuilds;
+    }
+
+    /**
+     * @param classDefinition
+     *            config class
+     * @return per class entry of this snapshot, created on first use
+     */
+    ClassEntry getClassEntry(final Class<?> classDefinition) {
+        ClassEntry entry = classEntries.get(classDefinition);
+        if (entry == null) {
+            entry = new ClassEntry(cache.getContextTypes(classDefinition));
+            ClassEntry previous = classEntries.putIfAbsent(classDefinition, entry);
+            if (previous != null) {
+                entry = previous;
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * @return per class entries of this snapshot, by config class
+     */
+    Map<Class<?>, ClassEntry> getClassEntries() {
+        return classEntries;
+    }
+
+    /**
+     * Context types of a config class in this snapshot, and its config object
+     * for contexts without any of these types.
+     */
+    static final class ClassEntry {
+        private final SortedSet<String> contextTypes;
+        private volatile CachedConfig defaultConfig = null;
+        /** number of contexts a config object was built for */
+        private final AtomicInteger contextCount = new AtomicInteger(0);
+
+        ClassEntry(final SortedSet<String> contextTypes) {
+            this.contextTypes = contextTypes;
+        }
+
+        SortedSet<String> getContextTypes() {
+            return contextTypes;
+        }
+
+        CachedConfig getDefaultConfig() {
+            return defaultConfig;
+        }
+
+        void setDefaultConfig(final CachedConfig config) {
+            defaultConfig = config;
+        }
+
+        int getContextCount() {
+            return contextCount.get();
+        }
+
+        void incrementContextCount() {
+            contextCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Cached config object with the class and context it was built for.
+     * Objects pre-warmed from the previous snapshot are unused until first
+     * fetched.
+     */
+    static final class CachedConfig {
+        private final Class<?> classDefinition;
+        private final ConfigContext context;
+        private final Object config;
+        private volatile boolean used;
+
+        CachedConfig(final Class<?> classDefinition, final ConfigContext context, final Object config,
+                final boolean used) {
+            this.classDefinition = classDefinition;
+            this.context = context;
+            this.config = config;
+            this.used = used;
+        }
+
+        Class<?> getClassDefinition() {
+            return classDefinition;
+        }
+
+        ConfigContext getContext() {
+            return context;
+        }
+
+        /**
+         * @return config object, marked as used
+         */
+        Object getConfig() {
+            if (!used) {
+                used = true;
+            }
+            return config;
+        }
+
+        /**
+         * @return config object, not marked as used
+         */
+        Object peekConfig() {
+            return config;
+        }
+
+        boolean isUsed() {
+            return used;
+        }
+    }
+}
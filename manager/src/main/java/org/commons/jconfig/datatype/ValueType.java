@@ -83,6 +83,48 @@ public enum ValueType {
         public Class<List> classDefinition() {
             return List.class;
         }
+    },
+    /** primitive int, no boxing on reads */
+    Int {
+        @Override
+        public Class<Integer> classDefinition() {
+            return int.class;
+        }
+    },
+    /** primitive long, no boxing on reads */
+    Long {
+        @Override
+        public Class<java.lang.Long> classDefinition() {
+            return long.class;
+        }
+    },
+    /** primitive double, no boxing on reads */
+    Double {
+        @Override
+        public Class<java.lang.Double> classDefinition() {
+            return double.class;
+        }
+    },
+    /** primitive boolean, no boxing on reads */
+    Bool {
+        @Override
+        public Class<java.lang.Boolean> classDefinition() {
+            return boolean.class;
+        }
+    },
+    /** ":" separated list of ints as int[] */
+    IntArray {
+        @Override
+        public Class<int[]> classDefinition() {
+            return int[].class;
+        }
+    },
+    /** ":" separated list of longs as long[] */
+    LongArray {
+        @Override
+        public Class<long[]> classDefinition() {
+            return long[].class;
+        }
     };
 
     public abstract Class<?> classDefinition();
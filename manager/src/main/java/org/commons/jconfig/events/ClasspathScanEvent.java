@@ -0,0 +1,40 @@
+package org.commons.jconfig.events;
+
+/**
+ * The class path was scanned for annotated classes.
+ */
+public class ClasspathScanEvent extends ConfigEvent {
+
+    private final String annotationName;
+    private final int classesChecked;
+    private final int classesFound;
+
+    /**
+     * @param annotationName
+     *            annotation searched for
+     * @param classesChecked
+     *            number of classes loaded to check for the annotation
+     * @param classesFound
+     *            number of annotated classes
+     * @param durationNanos
+     */
+    public ClasspathScanEvent(final String annotationName, final int classesChecked, final int classesFound,
+            final long durationNanos) {
+        super(durationNanos);
+        this.annotationName = annotationName;
+        this.classesChecked = classesChecked;
+        this.classesFound = classesFound;
+    }
+
+    public String getAnnotationName() {
+        return annotationName;
+    }
+
+    public int getClassesChecked() {
+        return classesChecked;
+    }
+
+    public int getClassesFound() {
+        return classesFound;
+    }
+}
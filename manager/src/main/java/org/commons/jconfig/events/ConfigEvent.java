@@ -0,0 +1,37 @@
+package org.commons.jconfig.events;
+
+/**
+ * Base class of the config events, see {@link ConfigEvents}. An event records
+ * when an operation ended, how long it took and the thread that ran it.
+ */
+public abstract class ConfigEvent {
+
+    private final long endTime = System.currentTimeMillis();
+    private final long durationNanos;
+    private final String threadName = Thread.currentThread().getName();
+
+    protected ConfigEvent(final long durationNanos) {
+        this.durationNanos = durationNanos;
+    }
+
+    /**
+     * @return time the operation ended, in milliseconds since the epoch
+     */
+    public long getEndTime() {
+        return endTime;
+    }
+
+    /**
+     * @return duration of the operation in nanoseconds
+     */
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * @return name of the thread that ran the operation
+     */
+    public String getThreadName() {
+        return threadName;
+    }
+}
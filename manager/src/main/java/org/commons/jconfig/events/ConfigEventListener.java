@@ -0,0 +1,15 @@
+package org.commons.jconfig.events;
+
+/**
+ * Receives the config events, see {@link ConfigEvents#addListener}.
+ */
+public interface ConfigEventListener {
+
+    /**
+     * Called on the thread that ran the operation, so it must return quickly.
+     * 
+     * @param event
+     *            one of the {@link ConfigEvent} subclasses
+     */
+    void onEvent(ConfigEvent event);
+}
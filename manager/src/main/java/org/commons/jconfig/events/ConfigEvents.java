@@ -0,0 +1,71 @@
+package org.commons.jconfig.events;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Registry of the config event listeners. Instrumented code checks
+ * {@link #isEnabled()} before timing an operation or creating its event, so
+ * events cost a single volatile read while no listener is registered.
+ * 
+ * Example code, forwarding events to a recorder: <code>
+ * ConfigEvents.addListener(new ConfigEventListener() {
+ *     public void onEvent(ConfigEvent event) {
+ *         recorder.record(event);
+ *     }
+ * });
+ * </code>
+ */
+public final class ConfigEvents {
+
+    private static final Logger logger = Logger.getLogger(ConfigEvents.class);
+
+    private static final CopyOnWriteArrayList<ConfigEventListener> listeners = new CopyOnWriteArrayList<ConfigEventListener>();
+    private static volatile boolean enabled = false;
+
+    private ConfigEvents() {
+    }
+
+    /**
+     * @return true if at least one listener is registered
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @param listener
+     *            listener called with every config event
+     */
+    public static synchronized void addListener(final ConfigEventListener listener) {
+        listeners.addIfAbsent(listener);
+        enabled = !listeners.isEmpty();
+    }
+
+    /**
+     * @param listener
+     *            listener to stop sending config events to
+     */
+    public static synchronized void removeListener(final ConfigEventListener listener) {
+        listeners.remove(listener);
+        // under the same lock as addListener, so a concurrent add is not lost
+        enabled = !listeners.isEmpty();
+    }
+
+    /**
+     * Send the event to all the registered listeners. Listener exceptions are
+     * logged and do not fail the operation.
+     * 
+     * @param event
+     */
+    public static void emit(final ConfigEvent event) {
+        for (ConfigEventListener listener : listeners) {
+            try {
+                listener.onEvent(event);
+            } catch (RuntimeException e) {
+                logger.warn("Config event listener failed on " + event.getClass().getSimpleName(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package org.commons.jconfig.events;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Config values loaded since the last flip were published to readers.
+ */
+public class ConfigFlipEvent extends ConfigEvent {
+
+    private final Set<String> moduleNames;
+    private final long payloadSize;
+
+    /**
+     * @param moduleNames
+     *            modules with new config values
+     * @param payloadSize
+     *            length of the json config values inserted since the last
+     *            flip, in characters
+     * @param durationNanos
+     */
+    public ConfigFlipEvent(final Set<String> moduleNames, final long payloadSize, final long durationNanos) {
+        super(durationNanos);
+        this.moduleNames = Collections.unmodifiableSet(moduleNames);
+        this.payloadSize = payloadSize;
+    }
+
+    public Set<String> getModuleNames() {
+        return moduleNames;
+    }
+
+    public long getPayloadSize() {
+        return payloadSize;
+    }
+}
@@ -0,0 +1,46 @@
+package org.commons.jconfig.events;
+
+/**
+ * The config loader pushed the config values of a module to an application.
+ */
+public class ConfigLoaderPushEvent extends ConfigEvent {
+
+    private final String appName;
+    private final String moduleName;
+    private final long payloadSize;
+    private final boolean succeeded;
+
+    /**
+     * @param appName
+     * @param moduleName
+     * @param payloadSize
+     *            length of the json config values pushed, in characters
+     * @param succeeded
+     *            false if the application failed to load the values
+     * @param durationNanos
+     */
+    public ConfigLoaderPushEvent(final String appName, final String moduleName, final long payloadSize,
+            final boolean succeeded, final long durationNanos) {
+        super(durationNanos);
+        this.appName = appName;
+        this.moduleName = moduleName;
+        this.payloadSize = payloadSize;
+        this.succeeded = succeeded;
+    }
+
+    public String getAppName() {
+        return appName;
+    }
+
+    public String getModuleName() {
+        return moduleName;
+    }
+
+    public long getPayloadSize() {
+        return payloadSize;
+    }
+
+    public boolean isSucceeded() {
+        return succeeded;
+    }
+}
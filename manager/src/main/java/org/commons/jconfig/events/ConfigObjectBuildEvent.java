@@ -0,0 +1,40 @@
+package org.commons.jconfig.events;
+
+/**
+ * A config object was loaded with the config values of a context.
+ */
+public class ConfigObjectBuildEvent extends ConfigEvent {
+
+    private final String moduleName;
+    private final String context;
+    private final int keyCount;
+
+    /**
+     * @param moduleName
+     *            config class name
+     * @param context
+     *            context the config object was built for
+     * @param keyCount
+     *            number of keys set
+     * @param durationNanos
+     */
+    public ConfigObjectBuildEvent(final String moduleName, final String context, final int keyCount,
+            final long durationNanos) {
+        super(durationNanos);
+        this.moduleName = moduleName;
+        this.context = context;
+        this.keyCount = keyCount;
+    }
+
+    public String getModuleName() {
+        return moduleName;
+    }
+
+    public String getContext() {
+        return context;
+    }
+
+    public int getKeyCount() {
+        return keyCount;
+    }
+}
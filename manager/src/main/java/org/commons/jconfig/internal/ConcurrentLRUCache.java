@@ -173,6 +173,13 @@ public class ConcurrentLRUCache<Key, Value> {
         }
     }
 
+    /**
+     * @return number of keys removed to keep the cache within maxSize
+     */
+    public long getEvictionCount() {
+        return stats.get(REMOVED_KEYS);
+    }
+
     /**
      * Returns a string with the LRU stats. This method is for testing only,
      * should be used as part of the api.
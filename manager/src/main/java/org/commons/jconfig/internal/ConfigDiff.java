@@ -0,0 +1,58 @@
+package org.commons.jconfig.internal;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.commons.jconfig.annotations.ConfigGet;
+import org.commons.jconfig.config.ConfigRuntimeException;
+
+/**
+ * Compares two instances of a config class key by key. Keys are the
+ * {@link ConfigGet} methods without the "get" part, as used by
+ * ConfigManager.getValueAs* methods.
+ */
+public final class ConfigDiff {
+
+    private ConfigDiff() {
+    }
+
+    /**
+     * Get the keys with different values in the two config objects
+     *
+     * @param oldConfig
+     *            config object, null if none
+     * @param newConfig
+     *            config object of the same class
+     * @return sorted names of the changed keys, all keys if oldConfig is null.
+     *         Empty if no key changed.
+     */
+    public static SortedSet<String> changedKeys(final Object oldConfig, final Object newConfig) {
+        SortedSet<String> changedKeys = new TreeSet<String>();
+        for (Method method : newConfig.getClass().getMethods()) {
+            if (!method.isAnnotationPresent(ConfigGet.class)) {
+                continue;
+            }
+            if (oldConfig == null || !Arrays.deepEquals(new Object[] { getValue(method, oldConfig) },
+                    new Object[] { getValue(method, newConfig) })) {
+                changedKeys.add(method.getName().substring(3));
+            }
+        }
+        return Collections.unmodifiableSortedSet(changedKeys);
+    }
+
+    private static Object getValue(final Method method, final Object config) {
+        try {
+            return method.invoke(config, new Object[0]);
+        } catch (IllegalArgumentException e) {
+            throw new ConfigRuntimeException("ConfigManager fatal exception:", e);
+        } catch (IllegalAccessException e) {
+            throw new ConfigRuntimeException("ConfigManager fatal exception:", e);
+        } catch (InvocationTargetException e) {
+            throw new ConfigRuntimeException("ConfigManager fatal exception:", e);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package org.commons.jconfig.internal;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.commons.jconfig.config.ConfigRuntimeException;
+import org.commons.jconfig.config.KeyNotFound;
+
+/**
+ * Index of the keys of a config class, used by the ConfigManager dynamic key
+ * reads. A key is the name of a public "get" method without the "get" part.
+ * The index is built once per class, so reading a key is a hash lookup and a
+ * getter call instead of a method search.
+ */
+public final class ConfigKeyIndex {
+
+    private static final ConcurrentHashMap<Class<?>, ConfigKeyIndex> INDEXES = new ConcurrentHashMap<Class<?>, ConfigKeyIndex>();
+
+    private final Class<?> configClass;
+    /** all key names, getters with parameters included */
+    private final Set<String> keys = new HashSet<String>();
+    /** getters without parameters by key name */
+    private final Map<String, Method> getters = new HashMap<String, Method>();
+
+    private ConfigKeyIndex(final Class<?> configClass) {
+        this.configClass = configClass;
+        for (Method method : configClass.getMethods()) {
+            if (!method.getName().startsWith("get")) {
+                continue;
+            }
+            String key = method.getName().substring(3);
+            keys.add(key);
+            if (method.getParameterTypes().length == 0) {
+                try {
+                    // skip access checks on every call
+                    method.setAccessible(true);
+                } catch (SecurityException e) {
+                    // access checks still pass for public methods
+                }
+                getters.put(key, method);
+            }
+        }
+    }
+
+    /**
+     * @param configClass
+     * @return key index of the config class, built on first use
+     */
+    public static ConfigKeyIndex forClass(final Class<?> configClass) {
+        ConfigKeyIndex index = INDEXES.get(configClass);
+        if (index == null) {
+            index = new ConfigKeyIndex(configClass);
+            ConfigKeyIndex previous = INDEXES.putIfAbsent(configClass, index);
+            if (previous != null) {
+                index = previous;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * @param keyName
+     * @return true if the config class has a get method for the key
+     */
+    public boolean containsKey(final String keyName) {
+        return keys.contains(keyName);
+    }
+
+    /**
+     * Read a key of a config object
+     *
+     * @param config
+     *            instance of the indexed config class
+     * @param keyName
+     * @return key value
+     * @throws KeyNotFound
+     *             if the config class has no get method for the key
+     */
+    public Object getValue(final Object config, final String keyName) throws KeyNotFound {
+        Method getter = getters.get(keyName);
+        if (getter == null) {
+            throw new KeyNotFound("ConfigManager: method get" + keyName
+                    + " is required and is currently missing for class " + configClass);
+        }
+        try {
+            return getter.invoke(config, (Object[]) null);
+        } catch (IllegalArgumentException e) {
+            throw new ConfigRuntimeException("ConfigManager fatal exception:", e);
+        } catch (IllegalAccessException e) {
+            throw new ConfigRuntimeException("ConfigManager fatal exception:", e);
+        } catch (InvocationTargetException e) {
+            throw new ConfigRuntimeException("ConfigManager fatal exception:", e);
+        }
+    }
+}
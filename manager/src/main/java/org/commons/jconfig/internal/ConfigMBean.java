@@ -21,6 +21,7 @@ import javax.management.MBeanAttributeInfo;
 import javax.management.MBeanException;
 import javax.management.MBeanInfo;
 import javax.management.MBeanOperationInfo;
+import javax.management.MBeanParameterInfo;
 import javax.management.ReflectionException;
 import javax.management.RuntimeErrorException;
 
@@ -38,6 +39,12 @@ import org.commons.jconfig.config.ConfigManager;
  * 
  */
 public class ConfigMBean implements DynamicMBean {
+
+    /**
+     * Operation setting all the attributes of the config module in one call.
+     * Takes the module configurations as json, same format as the attribute values.
+     */
+    public static final String LOAD_MODULE_OPERATION = "loadModule";
     
     // Utilitary tuple
     private class Tuple {
@@ -132,6 +139,11 @@ public class ConfigMBean implements DynamicMBean {
                 configResource.getGetMethod(), configResource.getSetMethod());
         attributesInfo.add(adapterAttr);
         attributesInfo.add(configResourceAttr);
+
+        // Register bulk load of module configs
+        operationsInfo.add(new MBeanOperationInfo(LOAD_MODULE_OPERATION, "Set all module attributes from json",
+                new MBeanParameterInfo[] { new MBeanParameterInfo("json", String.class.getName(),
+                        "module configurations in json format") }, void.class.getName(), MBeanOperationInfo.ACTION));
         
         for (String attrName : attributesName) {
             final Tuple get = getters.get(attrName);
@@ -233,6 +245,10 @@ public class ConfigMBean implements DynamicMBean {
         Tuple toInvoke = null;
         if (params == null) params = new Object[0];
         if (signature == null) signature = new String[0];
+        if (actionName.equals(LOAD_MODULE_OPERATION) && params.length == 1) {
+            loadModule(params[0]);
+            return null;
+        }
         for (Tuple t : operations) {
             if (!t.method.getName().equals(actionName)) continue;
             final Class<?>[] sig = t.method.getParameterTypes();
@@ -266,6 +282,27 @@ public class ConfigMBean implements DynamicMBean {
         }
     }
 
+    /**
+     * Set all the attributes of the config module with a single insert into
+     * the ConfigManager cache.
+     * 
+     * @param json
+     *            module configurations, e.g. { "_Sets_Type_": "COLO", "_Sets_": [...], "SonoraHostname" : "localhost" }
+     * @throws MBeanException
+     *             if json is not a valid module configuration
+     */
+    private void loadModule(final Object json) throws MBeanException {
+        if (!(json instanceof String)) {
+            throw new MBeanException(new IllegalArgumentException("Module " + configClazz.getName()
+                    + " has value in different datatype " + json));
+        }
+        try {
+            manager.getCache().insertValue(configClazz.getName(), (String) json);
+        } catch (RuntimeException e) {
+            throw new MBeanException(e, "Fail to load module " + configClazz.getName());
+        }
+    }
+
     @Override
     public MBeanInfo getMBeanInfo() {
         return info;
@@ -1,9 +1,12 @@
 package org.commons.jconfig.internal;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
@@ -16,6 +19,8 @@ import org.apache.log4j.Logger;
 import org.commons.jconfig.config.ConfigContext;
 import org.commons.jconfig.config.ConfigManager;
 import org.commons.jconfig.config.ConfigRuntimeException;
+import org.commons.jconfig.events.ConfigEvents;
+import org.commons.jconfig.events.ConfigFlipEvent;
 import org.commons.jconfig.internal.ConfigAdapterJson.CONST;
 
 import com.google.gson.JsonArray;
@@ -193,6 +198,26 @@ public class ConfigManagerCache {
     }
     public ConfigManagerCache(final ConfigManager configManager) {
         this.configManager = configManager;
+        this.readOnly = false;
+    }
+
+    private ConfigManagerCache(final ConfigManager configManager, final Map<String, ClassMemConfig> readableCache) {
+        this.configManager = configManager;
+        this.readOnly = true;
+        readableCacheRef.set(readableCache);
+    }
+
+    /** true for the read only copies returned by {@link #getReadOnlyCopy()} */
+    private final boolean readOnly;
+
+    /**
+     * Returns a read only cache of the config values last flipped. Later
+     * inserts and flips on this cache do not affect the copy.
+     * 
+     * @return read only ConfigManagerCache
+     */
+    public ConfigManagerCache getReadOnlyCopy() {
+        return new ConfigManagerCache(configManager, readableCacheRef.get());
     }
 
     /*
@@ -279,16 +304,29 @@ public class ConfigManagerCache {
      * @param moduleName
      *            Module for which value needs to be set
      * @param jsonValue
-     *            Config value in json format
+     *            Config value in json format. Values not valid for the
+     *            module config class are logged and ignored, see
+     *            {@link ConfigValidator}
      */
     public void insertValue(@Nonnull final String moduleName, @Nonnull final String jsonValue) {
         // convert JSON into java object
         if (logger.isDebugEnabled()) {
             logger.debug("Set value " + jsonValue + " for module " + moduleName);
         }
+        if (readOnly) {
+            throw new ConfigRuntimeException("Cannot insert " + moduleName + " values in a read only config cache");
+        }
         JsonParser parser = new JsonParser();
         JsonObject json = (JsonObject) parser.parse(jsonValue);
 
+        ConfigValidator validator = ConfigValidator.forModule(moduleName, configManager);
+        if (validator != null) {
+            List<String> errors = validator.removeInvalidValues(json);
+            if (!errors.isEmpty()) {
+                logger.error("Invalid " + moduleName + " values ignored, using defaults: " + errors);
+            }
+        }
+
         // Block all writers on a flipcache operation
         synchronized (writeLock) {
             if (writableCache.containsKey(moduleName)) {
@@ -296,20 +334,222 @@ public class ConfigManagerCache {
             } else {
                 writableCache.put(moduleName, new ClassMemConfig(json));
             }
+            writablePayloadSize += jsonValue.length();
         }
     }
 
     private final Object writeLock = new Object();
+    /** length of the json values inserted since the last flip, guarded by writeLock */
+    private long writablePayloadSize = 0;
+    /** id of the open stage, 0 if none, guarded by writeLock */
+    private long openStageId = 0;
+    /** id of the last stage opened, guarded by writeLock */
+    private long lastStageId = 0;
 
+    /**
+     * Publish the values inserted since the last flip, replacing all the
+     * readable values: modules not inserted since the last flip are dropped.
+     * Use a stage to publish only the changed modules.
+     * 
+     * @throws ConfigRuntimeException
+     *             if a stage is open, staged values are only published by
+     *             {@link #commitStage(long, Collection)}
+     */
     public void flipCache() {
+        flip(0, null);
+    }
+
+    /**
+     * Publish the values inserted since the last flip, unless a stage is open.
+     * Checking for the stage and flipping is atomic with
+     * {@link #beginStage()} and {@link #commitStage(long, Collection)}.
+     * 
+     * @return false if a stage is open and the cache was not flipped
+     */
+    public boolean flipCacheUnlessStaged() {
+        synchronized (writeLock) {
+            if (openStageId != 0) {
+                return false;
+            }
+            flip(0, null);
+            return true;
+        }
+    }
+
+    /**
+     * Open a stage for a new version of the config values. Values inserted
+     * until the stage is committed or aborted are staged, and are published
+     * together by {@link #commitStage(long, Collection)}. If a stage is
+     * already open, e.g. left by a failed push, it is resumed with the
+     * modules staged so far.
+     * 
+     * @return id of the open stage
+     */
+    public long beginStage() {
+        if (readOnly) {
+            throw new ConfigRuntimeException("Cannot stage values in a read only config cache");
+        }
+        synchronized (writeLock) {
+            if (openStageId == 0) {
+                // values inserted before the stage are not part of it
+                writableCache.clear();
+                writablePayloadSize = 0;
+                openStageId = ++lastStageId;
+            }
+            return openStageId;
+        }
+    }
+
+    /**
+     * @return modules staged in the open stage, empty if no stage is open
+     */
+    public SortedSet<String> getStagedModules() {
+        synchronized (writeLock) {
+            if (openStageId == 0) {
+                return EMPTY_SET;
+            }
+            return new TreeSet<String>(writableCache.keySet());
+        }
+    }
+
+    /**
+     * @return true if a stage is open
+     */
+    public boolean isStageOpen() {
+        synchronized (writeLock) {
+            return openStageId != 0;
+        }
+    }
+
+    /**
+     * Publish the staged values with a single flip, if all modules of the new
+     * version were staged or are already loaded. Otherwise the stage is left
+     * open so the missing modules can be staged and the commit retried.
+     * Loaded modules not in the new version are dropped.
+     * 
+     * @param stageId
+     *            id returned by {@link #beginStage()}
+     * @param modules
+     *            all modules of the new version
+     * @throws ConfigRuntimeException
+     *             if the stage is not open or a module is missing
+     */
+    public void commitStage(final long stageId, @Nonnull final Collection<String> modules) {
+        if (stageId <= 0) {
+            throw new ConfigRuntimeException("Invalid config stage id " + stageId);
+        }
+        flip(stageId, modules);
+    }
+
+    /**
+     * Discard the staged values and close the stage
+     * 
+     * @param stageId
+     *            id returned by {@link #beginStage()}
+     * @throws ConfigRuntimeException
+     *             if the stage is not open
+     */
+    public void abortStage(final long stageId) {
+        synchronized (writeLock) {
+            if (openStageId == 0 || openStageId != stageId) {
+                throw new ConfigRuntimeException("Config stage " + stageId + " is not open");
+            }
+            writableCache.clear();
+            writablePayloadSize = 0;
+            openStageId = 0;
+        }
+        logger.info("Aborted config stage " + stageId);
+    }
+
+    /**
+     * Publish the modules inserted since the last flip. A stage commit
+     * overlays them on the readable cache: the new readable map shares the
+     * config values of the listed modules not inserted again with the
+     * previous one, so a commit only costs the changed modules and readers of
+     * the previous map are not affected. A plain flip replaces the readable
+     * cache with the inserted modules.
+     * 
+     * @param stageId
+     *            id of the stage to publish, 0 to flip outside of a stage
+     * @param modules
+     *            all modules of the new version, the previous modules not
+     *            listed are dropped; null for a plain flip
+     */
+    private void flip(final long stageId, final Collection<String> modules) {
+        if (readOnly) {
+            throw new ConfigRuntimeException("Cannot flip a read only config cache");
+        }
+        boolean recording = ConfigEvents.isEnabled();
+        long start = recording ? System.nanoTime() : 0;
+        long payloadSize;
+        Set<String> changed;
+        Map<String, ClassMemConfig> flipped;
         synchronized (writeLock) {
-            ConcurrentHashMap<String, ClassMemConfig> newReadableCache = new ConcurrentHashMap<String, ClassMemConfig>(
-                    writableCache);
+            if (openStageId != stageId) {
+                throw new ConfigRuntimeException(stageId == 0 ? "Cannot flip config cache while stage "
+                        + openStageId + " is open" : "Config stage " + stageId + " is not open");
+            }
+            Map<String, ClassMemConfig> readableCache = readableCacheRef.get();
+            if (modules != null) {
+                // unchanged modules are already loaded, they need not be staged again
+                SortedSet<String> missing = new TreeSet<String>(modules);
+                missing.removeAll(writableCache.keySet());
+                missing.removeAll(readableCache.keySet());
+                if (!missing.isEmpty()) {
+                    throw new ConfigRuntimeException("Config stage " + stageId + " is missing modules " + missing);
+                }
+            }
+            openStageId = 0;
+            ConcurrentHashMap<String, ClassMemConfig> newReadableCache;
+            if (modules != null) {
+                newReadableCache = new ConcurrentHashMap<String, ClassMemConfig>(readableCache);
+                newReadableCache.keySet().retainAll(modules);
+                newReadableCache.putAll(writableCache);
+            } else {
+                newReadableCache = new ConcurrentHashMap<String, ClassMemConfig>(writableCache);
+            }
+            changed = new TreeSet<String>(writableCache.keySet());
             writableCache.clear();
+            payloadSize = writablePayloadSize;
+            writablePayloadSize = 0;
             readableCacheRef.lazySet(newReadableCache);
-            configManager.setLoadingDone();
+            flipped = newReadableCache;
+        }
+        if (recording) {
+            ConfigEvents.emit(new ConfigFlipEvent(changed, payloadSize,
+                    System.nanoTime() - start));
+        }
+        if (stageId != 0) {
+            logger.info("Committed config stage " + stageId);
+        }
+        logger.info("Loading new config values from JMX for modules " + changed + ". " + flipped.toString());
+    }
+
+    /**
+     * Config values of a class are only replaced when its module is inserted
+     * again, a stage commit shares the values of the other modules with the
+     * previous readable cache.
+     * 
+     * @param other
+     *            another cache, usually a read only copy of a previous flip
+     * @param classDefinition
+     *            config class
+     * @return true if both caches load the config class from the same values
+     */
+    public boolean hasSameValues(final ConfigManagerCache other, final Class<?> classDefinition) {
+        return getClassValues(readableCacheRef.get(), classDefinition.getName()) == getClassValues(other.readableCacheRef
+                .get(), classDefinition.getName());
+    }
+
+    /**
+     * @return values the config class is loaded from, null if none
+     */
+    private static ClassMemConfig getClassValues(final Map<String, ClassMemConfig> cache, final String configName) {
+        ClassMemConfig classConfig = cache.get(configName);
+        if (classConfig == null) {
+            classConfig = cache.get(CONST._PROP_.toString());
         }
-        logger.info("Loading new config values from JMX. " + readableCacheRef.get().toString());
+        return classConfig;
     }
 
     /**
@@ -0,0 +1,337 @@
+package org.commons.jconfig.internal;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.log4j.Logger;
+import org.commons.jconfig.annotations.ByteRange;
+import org.commons.jconfig.annotations.ConfigGet;
+import org.commons.jconfig.annotations.ConfigResourceId;
+import org.commons.jconfig.annotations.NoEmptyElements;
+import org.commons.jconfig.annotations.NumberRange;
+import org.commons.jconfig.annotations.StringNotEmpty;
+import org.commons.jconfig.annotations.TimeRange;
+import org.commons.jconfig.config.ConfigManager;
+import org.commons.jconfig.datatype.ByteValue;
+import org.commons.jconfig.datatype.TimeValue;
+import org.commons.jconfig.datatype.ValueType;
+import org.commons.jconfig.internal.ConfigAdapterJson.CONST;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+/**
+ * Validates the config values of a module before they are inserted in the
+ * ConfigManager cache. The {@link ConfigGet} type of every key and the
+ * {@link NumberRange}, {@link TimeRange}, {@link ByteRange},
+ * {@link StringNotEmpty} and {@link NoEmptyElements} annotations of its
+ * setter are compiled into checks once per config class, so an invalid value
+ * is dropped when pushed instead of failing on every config object build.
+ */
+public final class ConfigValidator {
+
+    private static final Logger logger = Logger.getLogger(ConfigValidator.class);
+
+    private static final ConcurrentHashMap<Class<?>, ConfigValidator> VALIDATORS = new ConcurrentHashMap<Class<?>, ConfigValidator>();
+    /** modules without a config class, logged once */
+    private static final ConcurrentHashMap<String, Boolean> UNVALIDATED_MODULES = new ConcurrentHashMap<String, Boolean>();
+
+    private final List<KeyValidator> keyValidators = new ArrayList<KeyValidator>();
+
+    private ConfigValidator(final Class<?> configClass) {
+        for (Method getter : configClass.getMethods()) {
+            ConfigGet configGet = getter.getAnnotation(ConfigGet.class);
+            if (configGet == null || !getter.getName().startsWith("get")) {
+                continue;
+            }
+            String keyName = getter.getName().substring(3);
+            Method setter;
+            try {
+                setter = configClass.getMethod("set" + keyName, configGet.type().classDefinition());
+            } catch (NoSuchMethodException e) {
+                // reported by ConfigManager when the config object is built
+                continue;
+            }
+            KeyValidator keyValidator = new KeyValidator(keyName, configGet.type());
+            ConfigResourceId resourceId = setter.getAnnotation(ConfigResourceId.class);
+            if (resourceId != null) {
+                keyValidator.fileIds.add(resourceId.value());
+            }
+            keyValidator.fileIds.add(keyName);
+            keyValidator.fileIds.add(configClass.getName() + "." + keyName);
+            compileChecks(keyValidator, setter);
+            keyValidators.add(keyValidator);
+        }
+    }
+
+    /**
+     * @param configClass
+     * @return validator of the config class, compiled on first use
+     */
+    public static ConfigValidator forClass(final Class<?> configClass) {
+        ConfigValidator validator = VALIDATORS.get(configClass);
+        if (validator == null) {
+            validator = new ConfigValidator(configClass);
+            ConfigValidator previous = VALIDATORS.putIfAbsent(configClass, validator);
+            if (previous != null) {
+                validator = previous;
+            }
+        }
+        return validator;
+    }
+
+    /**
+     * @param moduleName
+     *            config class name
+     * @param manager
+     *            ConfigManager resolving the config class
+     * @return validator of the config class, null if the module is not a
+     *         config class of this application; its values are not validated
+     */
+    public static ConfigValidator forModule(final String moduleName, final ConfigManager manager) {
+        if (moduleName.startsWith("_")) {
+            // properties files and other modules without a config class
+            return null;
+        }
+        Class<?> configClass = manager.getConfigClass(moduleName);
+        if (configClass == null) {
+            if (UNVALIDATED_MODULES.putIfAbsent(moduleName, Boolean.TRUE) == null) {
+                logger.warn("No config class " + moduleName + ", its values are not validated");
+            }
+            return null;
+        }
+        return forClass(configClass);
+    }
+
+    /**
+     * Validate the config values of a module, defaults and _Sets_ values.
+     * Invalid values are removed, so their keys fall back to the default
+     * value of the key.
+     *
+     * @param moduleValues
+     *            module config values in json format
+     * @return description of the removed values, empty if all values are
+     *         valid
+     */
+    public List<String> removeInvalidValues(final JsonObject moduleValues) {
+        List<String> errors = new ArrayList<String>();
+        validateValues(moduleValues, "", errors);
+        JsonElement sets = moduleValues.get(CONST.SETS.toString());
+        if (sets != null && sets.isJsonArray()) {
+            for (JsonElement set : (JsonArray) sets) {
+                if (set.isJsonObject() && set.getAsJsonObject().get("keyList") != null
+                        && set.getAsJsonObject().get("keyList").isJsonObject()) {
+                    validateValues(set.getAsJsonObject().getAsJsonObject("keyList"), " in set " + set.getAsJsonObject()
+                            .get("key"), errors);
+                }
+            }
+        }
+        return errors.isEmpty() ? Collections.<String> emptyList() : errors;
+    }
+
+    private void validateValues(final JsonObject values, final String where, final List<String> errors) {
+        List<String> invalidKeys = new ArrayList<String>();
+        for (Entry<String, JsonElement> entry : values.entrySet()) {
+            JsonElement value = entry.getValue();
+            if (!value.isJsonPrimitive() && !value.isJsonObject()) {
+                // not loaded in the cache
+                continue;
+            }
+            for (KeyValidator keyValidator : keyValidators) {
+                if (keyValidator.fileIds.contains(entry.getKey())) {
+                    String error = keyValidator.validate(value.isJsonPrimitive() ? value.getAsString() : value
+                            .toString());
+                    if (error != null) {
+                        errors.add(keyValidator.keyName + " value " + value + where + " " + error);
+                        invalidKeys.add(entry.getKey());
+                        break;
+                    }
+                }
+            }
+        }
+        for (String invalidKey : invalidKeys) {
+            values.remove(invalidKey);
+        }
+    }
+
+    private static void compileChecks(final KeyValidator keyValidator, final Method setter) {
+        final NumberRange numberRange = setter.getAnnotation(NumberRange.class);
+        if (numberRange != null) {
+            keyValidator.checks.add(new Check() {
+                @Override
+                String check(final String value, final Object element) {
+                    if (element instanceof Number) {
+                        double number = ((Number) element).doubleValue();
+                        if (number < numberRange.min() || number > numberRange.max()) {
+                            return "is out of range [" + numberRange.min() + ", " + numberRange.max() + "]";
+                        }
+                    }
+                    return null;
+                }
+            });
+        }
+        TimeRange timeRange = setter.getAnnotation(TimeRange.class);
+        if (timeRange != null) {
+            final TimeValue min = TimeValue.parse(timeRange.min());
+            final TimeValue max = TimeValue.parse(timeRange.max());
+            keyValidator.checks.add(new Check() {
+                @Override
+                String check(final String value, final Object element) {
+                    if (element instanceof TimeValue) {
+                        TimeValue time = (TimeValue) element;
+                        if (time.compareTo(min) < 0 || time.compareTo(max) > 0) {
+                            return "is out of range [" + min + ", " + max + "]";
+                        }
+                    }
+                    return null;
+                }
+            });
+        }
+        ByteRange byteRange = setter.getAnnotation(ByteRange.class);
+        if (byteRange != null) {
+            final ByteValue min = ByteValue.parse(byteRange.min());
+            final ByteValue max = ByteValue.parse(byteRange.max());
+            keyValidator.checks.add(new Check() {
+                @Override
+                String check(final String value, final Object element) {
+                    if (element instanceof ByteValue) {
+                        long bytes = ((ByteValue) element).toBytes();
+                        if (bytes < min.toBytes() || bytes > max.toBytes()) {
+                            return "is out of range [" + min + ", " + max + "]";
+                        }
+                    }
+                    return null;
+                }
+            });
+        }
+        if (setter.isAnnotationPresent(StringNotEmpty.class)) {
+            keyValidator.checks.add(new Check() {
+                @Override
+                String check(final String value, final Object element) {
+                    return value.trim().length() == 0 ? "is empty" : null;
+                }
+            });
+        }
+        if (setter.isAnnotationPresent(NoEmptyElements.class)) {
+            final boolean list = keyValidator.isList();
+            keyValidator.checks.add(new Check() {
+                @Override
+                String check(final String value, final Object element) {
+                    if (!list) {
+                        return value.trim().length() == 0 ? "is empty" : null;
+                    }
+                    for (String listElement : value.split(":", -1)) {
+                        if (listElement.trim().length() == 0) {
+                            return "has empty elements";
+                        }
+                    }
+                    return null;
+                }
+            });
+        }
+    }
+
+    /**
+     * Check of a config value
+     */
+    private abstract static class Check {
+        /**
+         * @param value
+         *            config value
+         * @param element
+         *            parsed value, or parsed element of a list value
+         * @return error description, null if valid
+         */
+        abstract String check(String value, Object element);
+    }
+
+    /**
+     * Checks of a config key
+     */
+    private static final class KeyValidator {
+        private final String keyName;
+        private final ValueType valueType;
+        /** names the key value can be set under, see ConfigManager.buildConfigObject */
+        private final List<String> fileIds = new ArrayList<String>(3);
+        private final List<Check> checks = new ArrayList<Check>();
+
+        KeyValidator(final String keyName, final ValueType valueType) {
+            this.keyName = keyName;
+            this.valueType = valueType;
+        }
+
+        boolean isList() {
+            return valueType == ValueType.StringList || valueType == ValueType.TimeList
+                    || valueType == ValueType.IntArray || valueType == ValueType.LongArray;
+        }
+
+        String validate(final String value) {
+            List<Object> elements;
+            try {
+                elements = parse(value);
+            } catch (IllegalArgumentException e) {
+                return "is not a valid " + valueType;
+            } catch (JsonParseException e) {
+                return "is not a valid " + valueType;
+            }
+            for (Check check : checks) {
+                for (Object element : elements) {
+                    String error = check.check(value, element);
+                    if (error != null) {
+                        return error;
+                    }
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Parse the value as ConfigManager does when building a config object
+         *
+         * @return parsed value, or parsed elements of a list value
+         */
+        private List<Object> parse(final String value) {
+            List<Object> elements = new ArrayList<Object>();
+            if (ValueType.Number == valueType || ValueType.Double == valueType) {
+                elements.add(Double.parseDouble(value));
+            } else if (ValueType.Int == valueType) {
+                elements.add(Integer.parseInt(value.trim()));
+            } else if (ValueType.Long == valueType) {
+                elements.add(Long.parseLong(value.trim()));
+            } else if (ValueType.Time == valueType) {
+                elements.add(TimeValue.parse(value));
+            } else if (ValueType.Bytes == valueType) {
+                elements.add(ByteValue.parse(value));
+            } else if (ValueType.Json == valueType) {
+                elements.add(new JsonParser().parse(value));
+            } else if (isList()) {
+                String[] listElements = value.length() == 0 ? new String[0] : value.split(":");
+                for (String listElement : listElements) {
+                    if (ValueType.TimeList == valueType) {
+                        elements.add(TimeValue.parse(listElement));
+                    } else if (ValueType.IntArray == valueType) {
+                        elements.add(Integer.parseInt(listElement.trim()));
+                    } else if (ValueType.LongArray == valueType) {
+                        elements.add(Long.parseLong(listElement.trim()));
+                    } else {
+                        elements.add(listElement);
+                    }
+                }
+                if (elements.isEmpty()) {
+                    // checks of the whole value still apply
+                    elements.add(value);
+                }
+            } else {
+                elements.add(value);
+            }
+            return elements;
+        }
+    }
+}
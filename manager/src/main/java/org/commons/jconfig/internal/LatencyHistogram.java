@@ -0,0 +1,126 @@
+package org.commons.jconfig.internal;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.commons.jconfig.internal.jmx.LatencyStats;
+
+/**
+ * Histogram of latencies in nanoseconds, with log-linear buckets in the style
+ * of HdrHistogram: every power of 2 range is split in 4 buckets, so reported
+ * percentiles are within 25% of the recorded values. Buckets are striped by
+ * thread like {@link StripedCounter}, so recording from many threads does not
+ * contend.
+ */
+public final class LatencyHistogram {
+
+    /** buckets per power of 2 */
+    private static final int SUB_BUCKETS = 4;
+    /** values 0-3, and 4 buckets for each power of 2 from 2^2 to 2^63 */
+    static final int BUCKETS = SUB_BUCKETS * 63;
+    /** max stripes, bounding the footprint to BUCKETS * 8 longs */
+    private static final int MAX_STRIPES = 8;
+
+    private final int stripes;
+    private final AtomicLongArray counts;
+    private final StripedCounter total = new StripedCounter();
+    private final AtomicLong max = new AtomicLong(0);
+
+    /**
+     * Histogram for values recorded by many threads
+     */
+    public LatencyHistogram() {
+        this(Math.min(StripedCounter.STRIPES, MAX_STRIPES));
+    }
+
+    /**
+     * @param stripes
+     *            number of copies of the buckets, a power of 2; 1 for rarely
+     *            recorded values
+     */
+    public LatencyHistogram(final int stripes) {
+        this.stripes = stripes;
+        counts = new AtomicLongArray(stripes * BUCKETS);
+    }
+
+    /**
+     * @param value
+     *            latency in ns, negative values are recorded as 0
+     */
+    public void record(final long value) {
+        long nanos = Math.max(0, value);
+        counts.incrementAndGet(StripedCounter.stripe(stripes) * BUCKETS + bucket(nanos));
+        total.add(nanos);
+        long currentMax = max.get();
+        while (nanos > currentMax && !max.compareAndSet(currentMax, nanos)) {
+            currentMax = max.get();
+        }
+    }
+
+    /**
+     * @return bucket of a value
+     */
+    static int bucket(final long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - 2)) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS * (exponent - 1) + subBucket;
+    }
+
+    /**
+     * @return highest value of a bucket
+     */
+    static long bucketMax(final int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + 1;
+        long width = 1L << (exponent - 2);
+        long min = (SUB_BUCKETS + bucket % SUB_BUCKETS) * width;
+        return min + width - 1;
+    }
+
+    /**
+     * @return counts, mean, percentiles and max of the recorded values. Not an
+     *         atomic snapshot if recorded concurrently.
+     */
+    public LatencyStats getStats() {
+        long[] buckets = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            long bucketCount = counts.get(i);
+            buckets[i % BUCKETS] += bucketCount;
+            count += bucketCount;
+        }
+        long maxValue = max.get();
+        return new LatencyStats(count, count == 0 ? 0 : total.sum() / count,
+                percentile(buckets, count, 0.5, maxValue), percentile(buckets, count, 0.99, maxValue),
+                percentile(buckets, count, 0.999, maxValue), maxValue);
+    }
+
+    private static long percentile(final long[] buckets, final long count, final double percentile,
+            final long maxValue) {
+        long rank = (long) Math.ceil(count * percentile);
+        long seen = 0;
+        for (int bucket = 0; bucket < buckets.length; bucket++) {
+            seen += buckets[bucket];
+            if (seen >= rank && seen > 0) {
+                return Math.min(bucketMax(bucket), maxValue);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Clear all recorded values. Concurrent records may be lost.
+     */
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+        total.reset();
+        max.set(0);
+    }
+}
@@ -0,0 +1,153 @@
+package org.commons.jconfig.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.security.Principal;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Ownership and permission checks of the files the ConfigLoader shares with
+ * the applications of the host: the socket secret and the config segment.
+ * Only the user running the ConfigLoader may be able to write them, or a
+ * local user could push configs to every application.<BR>
+ * <BR>
+ *
+ * Owners and POSIX permissions are read with the java.nio.file API of Java 7,
+ * through reflection as the core still runs on Java 6. On Java 6 the checks
+ * fail, so the transports relying on them cannot be used.
+ */
+public final class PrivateFiles {
+
+    private PrivateFiles() {
+    }
+
+    /**
+     * Resolve fileName against dir, unless it is absolute
+     *
+     * @param fileName
+     * @param dir
+     *            the ConfigLoader config directory (JCONFIG_CDIR)
+     * @return the file
+     */
+    public static File resolve(final String fileName, final String dir) {
+        File file = new File(fileName);
+        if (file.isAbsolute() || dir == null) {
+            return file;
+        }
+        return new File(dir, fileName);
+    }
+
+    /**
+     * Check that no other user can create, replace or remove files in dir
+     *
+     * @param dir
+     * @throws IOException
+     *             if dir is writable by group or others, or cannot be checked
+     */
+    public static void checkDirectory(final File dir) throws IOException {
+        Set<String> permissions = getPermissions(dir);
+        if (permissions.contains("GROUP_WRITE") || permissions.contains("OTHERS_WRITE")) {
+            throw new IOException("Directory " + dir + " is writable by other users");
+        }
+    }
+
+    /**
+     * Check that file is owned by the current user and only writable by it
+     *
+     * @param file
+     * @param secret
+     *            true if the file must not be readable by other users either
+     * @throws IOException
+     *             if the file has another owner, is writable (or for a secret
+     *             readable) by group or others, or cannot be checked
+     */
+    public static void checkFile(final File file, final boolean secret) throws IOException {
+        if (!isOwner(file)) {
+            throw new IOException("File " + file + " is not owned by " + System.getProperty("user.name"));
+        }
+        Set<String> permissions = getPermissions(file);
+        if (permissions.contains("GROUP_WRITE") || permissions.contains("OTHERS_WRITE")) {
+            throw new IOException("File " + file + " is writable by other users");
+        }
+        if (secret && (permissions.contains("GROUP_READ") || permissions.contains("OTHERS_READ"))) {
+            throw new IOException("File " + file + " is readable by other users");
+        }
+    }
+
+    /**
+     * @param file
+     * @return true if file is owned by the current user
+     * @throws IOException
+     *             if the owner cannot be read
+     */
+    public static boolean isOwner(final File file) throws IOException {
+        Object owner = invokeFiles("getOwner", file);
+        return ((Principal) owner).getName().equals(System.getProperty("user.name"));
+    }
+
+    /**
+     * Remove all permissions of group and others
+     *
+     * @param file
+     *            file or directory
+     * @throws IOException
+     *             if the permissions cannot be changed
+     */
+    public static void restrictToOwner(final File file) throws IOException {
+        boolean dir = file.isDirectory();
+        if (!(file.setReadable(false, false) && file.setReadable(true, true) && file.setWritable(false, false)
+                && file.setWritable(true, true) && file.setExecutable(false, false) && (!dir || file
+                        .setExecutable(true, true)))) {
+            throw new IOException("Failed to restrict permissions of " + file);
+        }
+    }
+
+    /**
+     * @return names of the POSIX permissions of file, e.g. "OTHERS_WRITE".
+     *         Empty on file systems without POSIX permissions
+     */
+    private static Set<String> getPermissions(final File file) throws IOException {
+        Set<?> permissions;
+        try {
+            permissions = (Set<?>) invokeFiles("getPosixFilePermissions", file);
+        } catch (UnsupportedOperationException e) {
+            return Collections.emptySet();
+        }
+        Set<String> names = new HashSet<String>();
+        for (Object permission : permissions) {
+            names.add(permission.toString());
+        }
+        return names;
+    }
+
+    /**
+     * Invoke a java.nio.file.Files method taking a path and link options
+     */
+    private static Object invokeFiles(final String methodName, final File file) throws IOException {
+        try {
+            Object path = File.class.getMethod("toPath").invoke(file);
+            Class<?> files = Class.forName("java.nio.file.Files");
+            Class<?> pathClass = Class.forName("java.nio.file.Path");
+            Class<?> linkOption = Class.forName("java.nio.file.LinkOption");
+            Object noOptions = Array.newInstance(linkOption, 0);
+            return files.getMethod(methodName, pathClass, noOptions.getClass()).invoke(null, path, noOptions);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            } else if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException("Failed to check " + file + ": " + e.getCause());
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Checking the owner of " + file + " requires Java 7");
+        } catch (NoSuchMethodException e) {
+            throw new IOException("Checking the owner of " + file + " requires Java 7");
+        } catch (IllegalAccessException e) {
+            throw new IOException("Failed to check " + file + ": " + e);
+        }
+    }
+}
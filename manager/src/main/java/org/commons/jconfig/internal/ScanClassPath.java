@@ -19,6 +19,8 @@ import java.util.jar.JarFile;
 
 import org.apache.log4j.Logger;
 import org.commons.jconfig.config.ConfigRuntimeException;
+import org.commons.jconfig.events.ClasspathScanEvent;
+import org.commons.jconfig.events.ConfigEvents;
 
 
 public class ScanClassPath<T extends Annotation> {
@@ -39,6 +41,9 @@ public class ScanClassPath<T extends Annotation> {
      * thereby avoiding recursion.
      */
     private final Set<String> dirLookupSet = new HashSet<String>(); 
+
+    /** number of classes loaded to check for the annotation */
+    private int classesChecked = 0;
     
     private ScanClassPath(final Class<T> annoClazz) {
         this.annoClazz = annoClazz;
@@ -141,9 +146,16 @@ public class ScanClassPath<T extends Annotation> {
      * Returns all the classes in the classpath that are annotated.
      */
     public Set<Class<?>> scanAnnotatedClasses() {
+        boolean recording = ConfigEvents.isEnabled();
+        long start = recording ? System.nanoTime() : 0;
+        int checked = classesChecked;
         Set<Class<?>> clazzez = new HashSet<Class<?>>();
         clazzez.addAll(scanPackagesAnnotatedClasses());
         clazzez.addAll(scanURLClassLoaderAnnotatedClasses());
+        if (recording) {
+            ConfigEvents.emit(new ClasspathScanEvent(annoClazz.getName(), classesChecked - checked, clazzez.size(),
+                    System.nanoTime() - start));
+        }
         return clazzez;
     }
 
@@ -181,6 +193,7 @@ public class ScanClassPath<T extends Annotation> {
 
     private Class<?> applyFilter(final String clazzName) {
         if (isAllowed(clazzName)) {
+            classesChecked++;
             try {
                 Class<?> clazz = Class.forName(clazzName, false, this.getClass().getClassLoader());
                 T annotation = clazz.getAnnotation(annoClazz);
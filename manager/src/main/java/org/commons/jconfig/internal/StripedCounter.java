@@ -0,0 +1,118 @@
+package org.commons.jconfig.internal;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counter for statistics updated by many threads, in the spirit of java 8
+ * LongAdder. Each thread adds to one of several cells picked by a per thread
+ * hash, so concurrent updates rarely contend on the same cell; reading sums
+ * all the cells. A thread failing to update its cell because another thread
+ * updated it concurrently moves to another cell, so threads sharing a cell do
+ * not keep contending.
+ */
+public final class StripedCounter {
+
+    /** number of cells, a power of 2 */
+    static final int STRIPES = stripes(Runtime.getRuntime().availableProcessors());
+    /** cells are PAD longs apart, to keep them on separate cache lines */
+    private static final int PAD = 8;
+
+    /** per thread hash picking the cells of the thread, never 0 */
+    private static final ThreadLocal<int[]> probe = new ThreadLocal<int[]>() {
+        @Override
+        protected int[] initialValue() {
+            long id = Thread.currentThread().getId();
+            int hash = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+            return new int[] { hash == 0 ? 1 : hash };
+        }
+    };
+
+    private final AtomicLongArray cells = new AtomicLongArray(STRIPES * PAD);
+
+    /**
+     * @return number of cells for the given number of cpus, a power of 2 of at
+     *         least twice the cpus, up to 128
+     */
+    static int stripes(final int cpus) {
+        int stripes = 1;
+        while (stripes < 2 * cpus && stripes < 128) {
+            stripes <<= 1;
+        }
+        return stripes;
+    }
+
+    /**
+     * @return cell of the current thread, in [0, stripes)
+     */
+    static int stripe(final int stripes) {
+        return probe.get()[0] & (stripes - 1);
+    }
+
+    /**
+     * Move the current thread to other cells, after contending on its cell
+     */
+    static void rehash() {
+        int[] hash = probe.get();
+        // xorshift, never returns to 0
+        int h = hash[0];
+        h ^= h << 13;
+        h ^= h >>> 17;
+        h ^= h << 5;
+        hash[0] = h;
+    }
+
+    /**
+     * @param value
+     *            amount to add
+     */
+    public void add(final long value) {
+        update(value);
+    }
+
+    /**
+     * Add one.
+     * 
+     * @return new value of the current thread cell, not the sum
+     */
+    public long increment() {
+        return update(1);
+    }
+
+    /**
+     * @return value of the current thread cell, not the sum; usable to sample
+     *         one in n updates of a thread cheaply
+     */
+    public long current() {
+        return cells.get(stripe(STRIPES) * PAD);
+    }
+
+    private long update(final long value) {
+        int index = stripe(STRIPES) * PAD;
+        long current = cells.get(index);
+        if (cells.compareAndSet(index, current, current + value)) {
+            return current + value;
+        }
+        rehash();
+        return cells.addAndGet(stripe(STRIPES) * PAD, value);
+    }
+
+    /**
+     * @return sum of all cells, not an atomic snapshot if updated concurrently
+     */
+    public long sum() {
+        long sum = 0;
+        for (int i = 0; i < STRIPES; i++) {
+            sum += cells.get(i * PAD);
+        }
+        return sum;
+    }
+
+    /**
+     * Set to zero. Concurrent updates may be lost.
+     */
+    public void reset() {
+        for (int i = 0; i < STRIPES; i++) {
+            cells.set(i * PAD, 0);
+        }
+    }
+}
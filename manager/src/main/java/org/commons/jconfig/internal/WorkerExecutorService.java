@@ -1,9 +1,9 @@
 package org.commons.jconfig.internal;
 
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 import javax.annotation.concurrent.ThreadSafe;
@@ -29,7 +29,7 @@ public class WorkerExecutorService {
 
     // private final ExecutorThreadFactory mThreadFactoryBoss = new
     // ExecutorThreadFactory("async worker boss thread");
-    private final ExecutorService mScheduler;
+    private final ThreadPoolExecutor mScheduler;
 
     // private final ScheduledExecutorService mBossScheduler;
     // private final ScheduledFuture<?> bossFuture;
@@ -67,7 +67,8 @@ public class WorkerExecutorService {
     public WorkerExecutorService(final String name, int nThreads) {
         mName = name;
         mThreadFactory = new ExecutorThreadFactory("WorkerExecutorService thread for " + mName);
-        mScheduler = Executors.newFixedThreadPool(nThreads, mThreadFactory);
+        mScheduler = new ThreadPoolExecutor(nThreads, nThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(), mThreadFactory);
     }
 
     /**
@@ -132,6 +133,24 @@ public class WorkerExecutorService {
 
     private volatile boolean mIsShutdown = false;
 
+    /**
+     * Returns the number of workers waiting for a thread.
+     * 
+     * @return
+     */
+    public int getQueueSize() {
+        return mScheduler.getQueue().size();
+    }
+
+    /**
+     * Returns the approximate number of threads running workers.
+     * 
+     * @return
+     */
+    public int getActiveCount() {
+        return mScheduler.getActiveCount();
+    }
+
     /**
      * Returns true if this executor has been shut down.
      * 
@@ -101,13 +101,33 @@ public class ConfigLoaderJvm extends VirtualMachine {
      * @throws IOException
      */
     public void subscribeConfigs(final String appName) throws VirtualMachineException {
+        String[] params = { appName };
+        String[] signature = { "java.lang.String" };
+        invoke("subscribeConfigs", params, signature);
+    }
+
+    /**
+     * invoke the "subscribeConfigs" MBean operation on the config Loader VM,
+     * passing the id of the VM the application runs in. This allows the
+     * config Loader to attach directly to the application VM instead of
+     * probing every VM running on the host.
+     * 
+     * @param appName
+     * @param vmId
+     *            id of the application VM, see {@link VirtualMachine#currentVmId()}
+     * @throws VirtualMachineException
+     */
+    public void subscribeConfigs(final String appName, final String vmId) throws VirtualMachineException {
+        String[] params = { appName, vmId };
+        String[] signature = { "java.lang.String", "java.lang.String" };
+        invoke("subscribeConfigs", params, signature);
+    }
 
+    private void invoke(final String operation, final Object[] params, final String[] signature)
+            throws VirtualMachineException {
         try {
             ObjectName mbeanName = new ObjectName(ConfigLoaderJvm.CONFIG_LOADER_MBEAN_NAME);
-
-            String[] params = { appName };
-            String[] signature = { "java.lang.String" };
-            getJMXConnector().getMBeanServerConnection().invoke(mbeanName, "subscribeConfigs", params, signature);
+            getJMXConnector().getMBeanServerConnection().invoke(mbeanName, operation, params, signature);
 
         } catch (MalformedObjectNameException e) {
             throw new VirtualMachineException(e);
@@ -1,5 +1,8 @@
 package org.commons.jconfig.internal.jmx;
 
+import java.util.Arrays;
+import java.util.Set;
+
 import org.commons.jconfig.config.ConfigManager;
 
 
@@ -62,4 +65,30 @@ public class ConfigManagerJmx implements ConfigManagerJmxMXBean {
         ConfigManager.INSTANCE.resetAndFlipCache();
     }
 
+    @Override
+    public long beginStage() {
+        return ConfigManager.INSTANCE.beginStage();
+    }
+
+    @Override
+    public String[] getStagedModules() {
+        Set<String> modules = ConfigManager.INSTANCE.getCache().getStagedModules();
+        return modules.toArray(new String[modules.size()]);
+    }
+
+    @Override
+    public long commitStage(final long stageId, final String[] modules) {
+        return ConfigManager.INSTANCE.commitStage(stageId, Arrays.asList(modules));
+    }
+
+    @Override
+    public void abortStage(final long stageId) {
+        ConfigManager.INSTANCE.abortStage(stageId);
+    }
+
+    @Override
+    public long getConfigVersion() {
+        return ConfigManager.INSTANCE.snapshot().getVersion();
+    }
+
 }
@@ -29,5 +29,42 @@ public interface ConfigManagerJmxMXBean {
      * Flips ConfigManager cache
      */
     public void flipCache();
+
+    /**
+     * Open a stage for a new version of the config values. Config MBean values set until the
+     * stage is committed are only published by commitStage, all modules at once. A stage left
+     * open by a failed push is resumed with the modules staged so far.
+     * 
+     * @return stage id
+     */
+    public long beginStage();
+
+    /**
+     * @return modules staged in the open stage, empty if no stage is open
+     */
+    public String[] getStagedModules();
+
+    /**
+     * Publish the staged values with a single cache flip. Modules not staged keep their loaded
+     * values, loaded modules not listed are dropped. Fails, leaving the stage open, if one of
+     * the modules is neither staged nor loaded.
+     * 
+     * @param stageId id returned by beginStage
+     * @param modules all modules of the new version
+     * @return version of the committed config values
+     */
+    public long commitStage(long stageId, String[] modules);
+
+    /**
+     * Discard the staged values
+     * 
+     * @param stageId id returned by beginStage
+     */
+    public void abortStage(long stageId);
+
+    /**
+     * @return version of the config values in use, incremented by every cache flip
+     */
+    public long getConfigVersion();
     
 }
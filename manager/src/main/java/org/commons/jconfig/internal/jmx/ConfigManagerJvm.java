@@ -48,6 +48,10 @@ public class ConfigManagerJvm extends VirtualMachine {
      */
     public static final String CONFIG_MGR_MBEAN_NAME = "com.yahoo.configmgr:type=ConfigManager,appName=";
     public static final String CONFIG_MGR_MBEAN_SEARCH_PATTERN = "com.yahoo.configmgr:type=ConfigManager,appName=*";
+    /**
+     * MBean Name of the @ConfigManagerStatsMXBean of a ConfigManager
+     */
+    public static final String CONFIG_MGR_STATS_MBEAN_NAME = "com.yahoo.configmgr:type=ConfigManagerStats,appName=";
     public static final String APPNAME_KEY = "appName";
     private final ObjectName objectName;
     private String vmId = "-1";
@@ -69,7 +73,9 @@ public class ConfigManagerJvm extends VirtualMachine {
     
     /**
      * Attach to the VM with a registered @ConfigManagerMXBean who's name attribute matches
-     * objectName.
+     * objectName.<BR>
+     * If the vmId is known (e.g. the ConfigManager subscribed with the ConfigLoader) only
+     * that VM is attached to, otherwise every running VM is probed.
      * @throws @VirtualMachineException
      */
     @Override
@@ -77,42 +83,61 @@ public class ConfigManagerJvm extends VirtualMachine {
 
         // Iterate through the running vms ...
         List<VirtualMachineDescriptor> vms = com.sun.tools.attach.VirtualMachine.list();
+        boolean knownVm = !"-1".equals(vmId);
         for (VirtualMachineDescriptor vmd : vms) {
-            JMXConnector jmxc = null;
-            try {
-                jmxc = connect(vmd);
-                MBeanServerConnection mbsc = jmxc.getMBeanServerConnection();
-                // Look for one that has the ConfigLoader MBean registered
-                if (!mbsc.isRegistered(objectName)) {
+            if (knownVm && !vmId.equals(vmd.id())) {
+                continue;
+            }
+            if (attach(vmd)) {
+                return;
+            }
+        }
+        throw new VirtualMachineException("Unable to find config manager jvm with appname: " + objectName);
+    }
+
+    /**
+     * Attach to the given VM if it has a registered @ConfigManagerMXBean who's name attribute
+     * matches objectName.
+     * 
+     * @param vmd @VirtualMachineDescriptor to probe
+     * @return true if attached
+     * @throws VirtualMachineException
+     */
+    private boolean attach(final VirtualMachineDescriptor vmd) throws VirtualMachineException {
+        JMXConnector jmxc = null;
+        try {
+            jmxc = connect(vmd);
+            MBeanServerConnection mbsc = jmxc.getMBeanServerConnection();
+            // Look for one that has the ConfigLoader MBean registered
+            if (!mbsc.isRegistered(objectName)) {
+                jmxc.close();
+                return false;
+            }
+            //
+            // now does it match the objectName we are looking for
+            //
+            ConfigManagerJmxMXBean managerBean = JMX.newMBeanProxy(mbsc, objectName,
+                    ConfigManagerJmxMXBean.class, true);
+
+            if (managerBean.getVMName().equals(objectName.getKeyProperty(APPNAME_KEY))) {
+                vmId = vmd.id();
+                // Set the JMXConnector and the MBeanServerConnection
+                setJMXConnector(jmxc);
+                return true;
+            }
+            jmxc.close();
+        } catch (IOException e) {
+            if (jmxc != null) {
+                try {
                     jmxc.close();
-                    continue;
-                } else {
-                    //
-                    // now does it match the objectName we are looking for
-                    //
-                    ConfigManagerJmxMXBean managerBean = JMX.newMBeanProxy(mbsc, objectName,
-                            ConfigManagerJmxMXBean.class, true);
-
-                    if (managerBean.getVMName().equals(objectName.getKeyProperty(APPNAME_KEY))) {
-                        vmId = vmd.id();
-                        // Set the JMXConnector and the MBeanServerConnection
-                        setJMXConnector(jmxc);
-                        return;
-                    }
-                }
-            } catch (IOException e) {
-                if (jmxc != null) {
-                    try {
-                        jmxc.close();
-                    } catch (IOException e1) {
+                } catch (IOException e1) {
 
-                    }
                 }
-                // ignore exception to allow gc to collect the object ad
-                // continue to loop to find the correct jvm
             }
+            // ignore exception to allow gc to collect the object ad
+            // continue to loop to find the correct jvm
         }
-        throw new VirtualMachineException("Unable to find config manager jvm with appname: " + objectName);
+        return false;
     }
     
     /**
@@ -0,0 +1,68 @@
+package org.commons.jconfig.internal.jmx;
+
+import java.util.Map;
+
+/**
+ * MBean that exposes ConfigManager statistics: getConfig hits and misses,
+ * config object build times, cache flips, context cardinality and cache
+ * evictions. Registered next to the ConfigManager MBean, under
+ * {@link ConfigManagerJvm#CONFIG_MGR_STATS_MBEAN_NAME}.
+ * 
+ * Latencies are in nanoseconds. Only a sample of getConfig hits is timed, to
+ * keep the hit path cheap; misses are always timed.
+ */
+public interface ConfigManagerStatsMXBean {
+
+    /**
+     * @return getConfig calls answered from the config object cache
+     */
+    long getHitCount();
+
+    /**
+     * @return getConfig calls that built a config object, or waited for
+     *         another thread building it
+     */
+    long getMissCount();
+
+    /**
+     * @return latency of a sample of getConfig hits
+     */
+    LatencyStats getHitLatency();
+
+    /**
+     * @return latency of getConfig misses
+     */
+    LatencyStats getMissLatency();
+
+    /**
+     * @return config object build time by config class name, pre-warming
+     *         included
+     */
+    Map<String, LatencyStats> getBuildTime();
+
+    /**
+     * @return number of cache flips, i.e. new config values loaded
+     */
+    long getFlipCount();
+
+    /**
+     * @return cache flip duration, pre-warming included
+     */
+    LatencyStats getFlipDuration();
+
+    /**
+     * @return number of distinct contexts with a config object built from
+     *         the current config values, by config class name
+     */
+    Map<String, Integer> getContextCardinality();
+
+    /**
+     * @return config objects evicted from the config object cache
+     */
+    long getCacheEvictionCount();
+
+    /**
+     * Clear all statistics
+     */
+    void resetStats();
+}
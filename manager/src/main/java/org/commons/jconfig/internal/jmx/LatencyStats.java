@@ -0,0 +1,61 @@
+package org.commons.jconfig.internal.jmx;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * Summary of a latency histogram, exposed by {@link ConfigManagerStatsMXBean}.
+ * All latencies are in nanoseconds.
+ */
+public class LatencyStats {
+
+    private final long count;
+    private final long meanNanos;
+    private final long p50Nanos;
+    private final long p99Nanos;
+    private final long p999Nanos;
+    private final long maxNanos;
+
+    @ConstructorProperties({ "count", "meanNanos", "p50Nanos", "p99Nanos", "p999Nanos", "maxNanos" })
+    public LatencyStats(final long count, final long meanNanos, final long p50Nanos, final long p99Nanos,
+            final long p999Nanos, final long maxNanos) {
+        this.count = count;
+        this.meanNanos = meanNanos;
+        this.p50Nanos = p50Nanos;
+        this.p99Nanos = p99Nanos;
+        this.p999Nanos = p999Nanos;
+        this.maxNanos = maxNanos;
+    }
+
+    /**
+     * @return number of recorded latencies
+     */
+    public long getCount() {
+        return count;
+    }
+
+    public long getMeanNanos() {
+        return meanNanos;
+    }
+
+    public long getP50Nanos() {
+        return p50Nanos;
+    }
+
+    public long getP99Nanos() {
+        return p99Nanos;
+    }
+
+    public long getP999Nanos() {
+        return p999Nanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "COUNT:" + count + ", MEAN:" + meanNanos + "ns, P50:" + p50Nanos + "ns, P99:" + p99Nanos
+                + "ns, P999:" + p999Nanos + "ns, MAX:" + maxNanos + "ns";
+    }
+}
@@ -32,6 +32,31 @@ public class LoadAppConfigsNotification extends LoadConfigsNotification {
      */
     public LoadAppConfigsNotification(Object source, long sequenceNumber, long timeStamp, String msg, String appName, boolean result) {
         
+        this(source, sequenceNumber, timeStamp, msg, appName, result, 0);
+    }
+
+    /**
+     * Constructs LoadAppConfigsNotification object for configurations committed by the ConfigLoader.
+     *
+     * @param configVersion version of the config values committed in the application, see
+     *            ConfigManagerJmxMXBean.commitStage. 0 if the application has to flip its cache itself.
+     */
+    public LoadAppConfigsNotification(Object source, long sequenceNumber, long timeStamp, String msg, String appName,
+            boolean result, long configVersion) {
+
         super(LoadAppConfigsNotification.APP_CONFIGS_TYPE, source, sequenceNumber, timeStamp, msg, appName, result);
+        this.configVersion = configVersion;
     }
+
+    /**
+     * @return version of the config values committed by the ConfigLoader, 0 if none
+     */
+    public long getConfigVersion() {
+        return configVersion;
+    }
+
+    /**
+     * version of the committed config values, 0 if none
+     */
+    private long configVersion;
 }
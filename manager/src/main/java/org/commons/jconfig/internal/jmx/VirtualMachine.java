@@ -1,6 +1,7 @@
 package org.commons.jconfig.internal.jmx;
 
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 
 import javax.management.remote.JMXConnector;
 import javax.management.remote.JMXConnectorFactory;
@@ -93,6 +94,20 @@ public class VirtualMachine {
         }
     }
 
+    /**
+     * Id of the running VM as reported by @VirtualMachineDescriptor.id(), i.e. the process id.
+     * 
+     * @return id of this VM. "-1" if the runtime name does not expose the process id
+     */
+    public static String currentVmId() {
+        String name = ManagementFactory.getRuntimeMXBean().getName();
+        int index = name.indexOf('@');
+        if (index <= 0) {
+            return "-1";
+        }
+        return name.substring(0, index);
+    }
+
     /**
      * Set the @JMXConnector for this Virtual Machine instance.
      *  Also sets the @MBeanServerConnection for this Virtual Machine instance
@@ -0,0 +1,212 @@
+package org.commons.jconfig.internal.mmap;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+import org.commons.jconfig.config.ConfigLoaderAdapterID;
+import org.commons.jconfig.config.ConfigManager;
+import org.commons.jconfig.config.ConfigRuntimeException;
+import org.commons.jconfig.internal.ExecutorThreadFactory;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+/**
+ * ConfigManager side of the memory mapped config segment. Maps the segment
+ * published by the ConfigLoader read only, and loads the application modules
+ * into the ConfigManager cache every time the segment sequence changes.<BR>
+ * <BR>
+ *
+ * The published document is the merged AutoConf document plus the nodes of
+ * the other config loader adapters under {@link #ADAPTERS_NODE}, keyed by
+ * adapter uri. Module lookup follows AutoConfAdapter: a module listed by the
+ * application node takes precedence over the common "Modules" node.<BR>
+ * <BR>
+ *
+ * Only modules whose values changed since the last load are inserted again;
+ * the new version is published with a single stage commit listing all
+ * modules, so unchanged modules keep their values and missing ones are
+ * dropped.
+ */
+public class MappedConfigReader implements Runnable {
+
+    private final Logger logger = Logger.getLogger(MappedConfigReader.class);
+
+    /** Node holding the config module adapters output, keyed by adapter uri */
+    public static final String ADAPTERS_NODE = "_Adapters_";
+    /** Node holding module configurations shared by all applications */
+    public static final String MODULES_NODE = "Modules";
+
+    private final ConfigManager manager;
+    private final String appName;
+    private final Map<String, String> moduleAdapters;
+    private final String fileName;
+    private final long checkInterval;
+    private volatile boolean running = true;
+    private MappedConfigSegment segment = null;
+    private long lastSequence = 0;
+    /** values of the modules loaded by the last commit */
+    private final Map<String, JsonObject> loadedModules = new HashMap<String, JsonObject>();
+
+    /**
+     * @param manager
+     *            ConfigManager to load configs into
+     * @param appName
+     *            application name
+     * @param moduleAdapters
+     *            config module names and their ConfigLoader adapter uri
+     * @param fileName
+     *            config segment file published by the ConfigLoader
+     * @param checkInterval
+     *            ms between checks of the segment sequence
+     */
+    public MappedConfigReader(final ConfigManager manager, final String appName,
+            final Map<String, String> moduleAdapters, final String fileName, final long checkInterval) {
+        this.manager = manager;
+        this.appName = appName;
+        this.moduleAdapters = moduleAdapters;
+        this.fileName = fileName;
+        this.checkInterval = checkInterval;
+    }
+
+    /**
+     * Start watching the config segment on a daemon thread
+     */
+    public void start() {
+        new ExecutorThreadFactory("MappedConfigReader").newThread(this).start();
+    }
+
+    /**
+     * Stop watching the config segment
+     */
+    public void close() {
+        running = false;
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            check();
+            try {
+                Thread.sleep(checkInterval);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Load the segment into the ConfigManager if a new version was published.
+     *
+     * @return true if a new version was loaded
+     */
+    boolean check() {
+        try {
+            if (segment == null) {
+                segment = MappedConfigSegment.openForRead(fileName);
+            }
+            long sequence = segment.getSequence();
+            if (sequence == lastSequence || (sequence & 1) != 0) {
+                return false;
+            }
+            MappedConfigSegment.Version version = segment.read();
+            if (version == null || version.getSequence() == lastSequence) {
+                return false;
+            }
+            load(version.getPayload());
+            lastSequence = version.getSequence();
+            return true;
+        } catch (IOException e) {
+            logger.debug("Config segment " + fileName + " not available", e);
+        } catch (JsonParseException e) {
+            logger.error("Invalid config segment " + fileName, e);
+        } catch (ClassCastException e) {
+            logger.error("Invalid config segment " + fileName, e);
+        } catch (ConfigRuntimeException e) {
+            // cache changed by someone else, load all modules again next time
+            loadedModules.clear();
+            logger.error("Failed to load config segment " + fileName, e);
+        }
+        return false;
+    }
+
+    private void load(final String payload) {
+        JsonObject root = (JsonObject) new JsonParser().parse(payload);
+        JsonObject appNode = getObject(root, appName);
+        JsonObject modulesNode = getObject(root, MODULES_NODE);
+        JsonObject adaptersNode = getObject(root, ADAPTERS_NODE);
+
+        Map<String, JsonObject> found = new HashMap<String, JsonObject>();
+        for (Map.Entry<String, String> entry : moduleAdapters.entrySet()) {
+            String module = entry.getKey();
+            JsonObject moduleNode = null;
+            if (ConfigLoaderAdapterID.JSON_AUTOCONF.getUri().equals(entry.getValue())) {
+                moduleNode = getObject(appNode, module);
+                if (moduleNode == null) {
+                    moduleNode = getObject(modulesNode, module);
+                }
+            } else {
+                moduleNode = getObject(adaptersNode, entry.getValue());
+            }
+            if (moduleNode == null) {
+                logger.info("no configuration found for the " + module + " module for the " + appName + " applicaton");
+                continue;
+            }
+            found.put(module, moduleNode);
+        }
+        if (found.equals(loadedModules)) {
+            logger.debug("Config segment " + fileName + " has no changes for " + appName);
+            return;
+        }
+
+        Map<String, JsonObject> loaded = new HashMap<String, JsonObject>();
+        long stageId = manager.beginStage();
+        boolean committed = false;
+        try {
+            for (Map.Entry<String, JsonObject> entry : found.entrySet()) {
+                String module = entry.getKey();
+                JsonObject previous = loadedModules.get(module);
+                if (entry.getValue().equals(previous)) {
+                    loaded.put(module, previous);
+                    continue;
+                }
+                try {
+                    manager.getCache().insertValue(module, entry.getValue().toString());
+                    loaded.put(module, entry.getValue());
+                } catch (RuntimeException e) {
+                    // No need to fail the entire app just cause one module is bad.
+                    logger.error("Fail to load module " + module + " from config segment", e);
+                    if (previous != null) {
+                        // keep the values loaded before
+                        loaded.put(module, previous);
+                    }
+                }
+            }
+            manager.commitStage(stageId, loaded.keySet());
+            committed = true;
+        } finally {
+            if (!committed) {
+                manager.abortStage(stageId);
+            }
+        }
+        loadedModules.clear();
+        loadedModules.putAll(loaded);
+        logger.info("Loaded config segment " + fileName + " for " + appName);
+    }
+
+    private static JsonObject getObject(final JsonObject parent, final String name) {
+        if (parent == null) {
+            return null;
+        }
+        JsonElement element = parent.get(name);
+        if (element == null || !element.isJsonObject()) {
+            return null;
+        }
+        return element.getAsJsonObject();
+    }
+}
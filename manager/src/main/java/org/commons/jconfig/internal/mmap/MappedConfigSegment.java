@@ -0,0 +1,227 @@
+package org.commons.jconfig.internal.mmap;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.zip.CRC32;
+
+import org.commons.jconfig.internal.PrivateFiles;
+
+/**
+ * Memory mapped file shared by the ConfigLoader (single writer) and the
+ * ConfigManagers of all applications on the host (readers).<BR>
+ * <BR>
+ *
+ * <B>Layout</B><BR>
+ * int magic, int payload CRC32, long sequence, int payload length, int unused, UTF-8 payload.<BR>
+ * <BR>
+ *
+ * The sequence works as a seqlock: the writer makes it odd before updating
+ * the payload and even again once done. Readers retry while the sequence is
+ * odd or changed during their copy of the payload, or the payload does not
+ * match its CRC32. Plain stores to the mapped file may become visible to
+ * other processes in any order, so the CRC32 is what rejects a torn payload.
+ * Sequence 0 means nothing was published yet.<BR>
+ * <BR>
+ *
+ * <B>Note</B> The file only grows; readers remap when the payload outgrows
+ * their mapping.<BR>
+ * <BR>
+ *
+ * <B>Note</B> Whoever can write the file can push configs to every
+ * application, so both sides refuse a file in a directory writable by other
+ * users, or a file not owned by the current user or writable by other users.
+ * Applications must run as the same user as the ConfigLoader.
+ */
+public class MappedConfigSegment {
+
+    private static final int MAGIC = 0x4A434647;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int CHECKSUM_OFFSET = 4;
+    private static final int SEQUENCE_OFFSET = 8;
+    private static final int LENGTH_OFFSET = 16;
+    public static final int HEADER_SIZE = 24;
+
+    /** Initial size of a new segment file */
+    private static final int INITIAL_SIZE = 64 * 1024;
+
+    /** Number of attempts to read a consistent payload before giving up */
+    private static final int MAX_READ_ATTEMPTS = 100;
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final File file;
+    private final boolean writable;
+    private MappedByteBuffer buffer;
+
+    private MappedConfigSegment(final File file, final boolean writable) throws IOException {
+        this.file = file;
+        this.writable = writable;
+        map(writable ? Math.max(file.length(), INITIAL_SIZE) : file.length());
+        if (buffer.getInt(MAGIC_OFFSET) != MAGIC) {
+            if (!writable) {
+                throw new IOException("Not a config segment file " + file);
+            }
+            buffer.putLong(SEQUENCE_OFFSET, 0);
+            buffer.putInt(LENGTH_OFFSET, 0);
+            buffer.putInt(CHECKSUM_OFFSET, 0);
+            buffer.putInt(MAGIC_OFFSET, MAGIC);
+        } else if (writable && (getSequence() & 1) != 0) {
+            // the previous writer died during a write: make the sequence even
+            // again, republishing the payload if it was completely written and
+            // leaving a torn one to be rejected by its CRC32 until the next write
+            buffer.putLong(SEQUENCE_OFFSET, getSequence() + 1);
+        }
+    }
+
+    /**
+     * Open segment for publishing configs, creates the file if missing.
+     *
+     * @param fileName
+     * @return MappedConfigSegment
+     * @throws IOException
+     *             if the file cannot be mapped, or could be written by other
+     *             users
+     */
+    public static MappedConfigSegment openForWrite(final String fileName) throws IOException {
+        File file = new File(fileName).getAbsoluteFile();
+        PrivateFiles.checkDirectory(file.getParentFile());
+        if (file.createNewFile() && !(file.setWritable(false, false) && file.setWritable(true, true))) {
+            throw new IOException("Failed to restrict permissions of config segment file " + file);
+        }
+        PrivateFiles.checkFile(file, false);
+        return new MappedConfigSegment(file, true);
+    }
+
+    /**
+     * Open segment read only.
+     *
+     * @param fileName
+     * @return MappedConfigSegment
+     * @throws IOException
+     *             if the file is missing, not a config segment, or could be
+     *             written by other users
+     */
+    public static MappedConfigSegment openForRead(final String fileName) throws IOException {
+        File file = new File(fileName).getAbsoluteFile();
+        if (file.length() < HEADER_SIZE) {
+            throw new IOException("Config segment file " + fileName + " not found");
+        }
+        PrivateFiles.checkDirectory(file.getParentFile());
+        PrivateFiles.checkFile(file, false);
+        return new MappedConfigSegment(file, false);
+    }
+
+    /**
+     * @return sequence of the published payload. odd while being updated, 0 if
+     *         nothing was published yet
+     */
+    public long getSequence() {
+        return buffer.getLong(SEQUENCE_OFFSET);
+    }
+
+    /**
+     * Publish a new payload.
+     *
+     * @param payload
+     * @throws IOException
+     */
+    public synchronized void write(final String payload) throws IOException {
+        if (!writable) {
+            throw new IOException("Config segment " + file + " is read only");
+        }
+        byte[] data = payload.getBytes(UTF8);
+        if (HEADER_SIZE + data.length > buffer.capacity()) {
+            map(Math.max(HEADER_SIZE + data.length, 2L * buffer.capacity()));
+        }
+        long sequence = getSequence();
+        buffer.putLong(SEQUENCE_OFFSET, sequence + 1);
+        buffer.putInt(LENGTH_OFFSET, data.length);
+        buffer.putInt(CHECKSUM_OFFSET, checksum(data));
+        buffer.position(HEADER_SIZE);
+        buffer.put(data);
+        buffer.putLong(SEQUENCE_OFFSET, sequence + 2);
+    }
+
+    /**
+     * Read the published payload.
+     *
+     * @return payload and its sequence, null if nothing was published yet
+     * @throws IOException
+     *             if no consistent payload could be read
+     */
+    public synchronized Version read() throws IOException {
+        for (int attempt = 0; attempt < MAX_READ_ATTEMPTS; attempt++) {
+            long sequence = getSequence();
+            if (sequence == 0) {
+                return null;
+            }
+            if ((sequence & 1) != 0) {
+                Thread.yield();
+                continue;
+            }
+            int length = buffer.getInt(LENGTH_OFFSET);
+            int checksum = buffer.getInt(CHECKSUM_OFFSET);
+            if (length < 0 || file.length() < HEADER_SIZE + (long) length) {
+                // torn header, try again
+                continue;
+            }
+            if (HEADER_SIZE + length > buffer.capacity()) {
+                map(file.length());
+                continue;
+            }
+            byte[] data = new byte[length];
+            ByteBuffer payload = buffer.duplicate();
+            payload.position(HEADER_SIZE);
+            payload.get(data);
+            if (sequence == getSequence() && checksum == checksum(data)) {
+                return new Version(sequence, new String(data, UTF8));
+            }
+        }
+        throw new IOException("Failed to read consistent config segment " + file);
+    }
+
+    private static int checksum(final byte[] data) {
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        return (int) crc.getValue();
+    }
+
+    private void map(final long size) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, writable ? "rw" : "r");
+        try {
+            if (writable && raf.length() < size) {
+                raf.setLength(size);
+            }
+            buffer = raf.getChannel().map(writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY, 0,
+                    size);
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * Published payload with its sequence
+     */
+    public static class Version {
+        private final long sequence;
+        private final String payload;
+
+        public Version(final long sequence, final String payload) {
+            this.sequence = sequence;
+            this.payload = payload;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        public String getPayload() {
+            return payload;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package org.commons.jconfig.internal.socket;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+import org.commons.jconfig.config.ConfigManager;
+import org.commons.jconfig.internal.ExecutorThreadFactory;
+
+/**
+ * ConfigManager side of the loopback socket transport. Subscribes the
+ * application modules with the ConfigLoader and applies the module configs
+ * pushed back, flipping the ConfigManager cache on every FLIP frame.<BR>
+ * <BR>
+ *
+ * Reconnects until closed, so a ConfigLoader (re)started after the application
+ * still gets to push configs. Each connection is authenticated with the
+ * ConfigLoader secret file before subscribing, see {@link SocketAuth}.
+ */
+public class ConfigLoaderSocketClient implements Runnable {
+
+    private final Logger logger = Logger.getLogger(ConfigLoaderSocketClient.class);
+
+    /** Wait time before reconnecting to the ConfigLoader */
+    private static final long RECONNECT_INTERVAL = 1000;
+
+    private final ConfigManager manager;
+    private final String appName;
+    private final Map<String, String> moduleAdapters;
+    private final int port;
+    private final String secretFileName;
+    private volatile boolean running = true;
+    private volatile Socket socket = null;
+
+    /**
+     * @param manager
+     *            ConfigManager to load configs into
+     * @param appName
+     *            application name
+     * @param moduleAdapters
+     *            config module names and their ConfigLoader adapter uri
+     * @param port
+     *            ConfigLoader loopback port
+     * @param secretFileName
+     *            ConfigLoader socket secret file
+     */
+    public ConfigLoaderSocketClient(final ConfigManager manager, final String appName,
+            final Map<String, String> moduleAdapters, final int port, final String secretFileName) {
+        this.manager = manager;
+        this.appName = appName;
+        this.moduleAdapters = moduleAdapters;
+        this.port = port;
+        this.secretFileName = secretFileName;
+    }
+
+    /**
+     * Start receiving configs on a daemon thread
+     */
+    public void start() {
+        new ExecutorThreadFactory("ConfigLoaderSocketClient").newThread(this).start();
+    }
+
+    /**
+     * Stop receiving configs
+     */
+    public void close() {
+        running = false;
+        closeSocket();
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                socket = new Socket(InetAddress.getByName("127.0.0.1"), port);
+                if (!running) {
+                    break;
+                }
+                DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                if (!authenticate(in, out)) {
+                    logger.error("ConfigLoader on port " + port + " failed to authenticate, not subscribing " + appName);
+                } else {
+                    subscribeFrame().write(out);
+                    out.flush();
+                    logger.info("Subscribed " + appName + " with ConfigLoader on port " + port);
+
+                    while (running) {
+                        handle(SocketFrame.read(in));
+                    }
+                }
+            } catch (IOException e) {
+                logger.debug("ConfigLoader socket connection closed for " + appName, e);
+            } finally {
+                closeSocket();
+            }
+
+            try {
+                Thread.sleep(RECONNECT_INTERVAL);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Shared secret handshake, the secret is read on every connect as a
+     * restarted ConfigLoader writes a new one.
+     * 
+     * @return true if the ConfigLoader knows the secret
+     * @throws IOException
+     *             if the secret file cannot be read or the connection fails
+     */
+    private boolean authenticate(final DataInputStream in, final DataOutputStream out) throws IOException {
+        String secret = SocketAuth.readSecret(secretFileName);
+        SocketFrame challenge = SocketFrame.read(in);
+        if (challenge.getType() != SocketFrame.AUTH) {
+            return false;
+        }
+        String nonce = SocketAuth.newNonce();
+        new SocketFrame(SocketFrame.AUTH, nonce + SocketFrame.LINE_SEPARATOR
+                + SocketAuth.sign(secret, challenge.getPayload())).write(out);
+        out.flush();
+        SocketFrame response = SocketFrame.read(in);
+        return response.getType() == SocketFrame.AUTH && SocketAuth.verify(secret, nonce, response.getPayload());
+    }
+
+    private SocketFrame subscribeFrame() {
+        StringBuilder sb = new StringBuilder(appName);
+        for (Map.Entry<String, String> entry : moduleAdapters.entrySet()) {
+            sb.append(SocketFrame.LINE_SEPARATOR);
+            sb.append(entry.getKey());
+            sb.append(SocketFrame.MODULE_SEPARATOR);
+            sb.append(entry.getValue());
+        }
+        return new SocketFrame(SocketFrame.SUBSCRIBE, sb.toString());
+    }
+
+    private void handle(final SocketFrame frame) {
+        if (frame.getType() == SocketFrame.MODULE) {
+            String payload = frame.getPayload();
+            int index = payload.indexOf(SocketFrame.LINE_SEPARATOR);
+            if (index <= 0) {
+                logger.error("Invalid module frame from ConfigLoader " + frame);
+                return;
+            }
+            try {
+                manager.getCache().insertValue(payload.substring(0, index), payload.substring(index + 1));
+            } catch (RuntimeException e) {
+                // No need to fail the entire app just cause one module is bad.
+                logger.error("Fail to load module " + payload.substring(0, index) + " from ConfigLoader", e);
+            }
+        } else if (frame.getType() == SocketFrame.FLIP) {
+            logger.info("ConfigLoader socket update for " + appName + " is complete");
+            manager.resetAndFlipCache();
+        } else {
+            logger.error("Unknown frame from ConfigLoader " + frame);
+        }
+    }
+
+    private void closeSocket() {
+        Socket s = socket;
+        if (s != null) {
+            try {
+                s.close();
+            } catch (IOException e) {
+                // ignore exception to allow gc to collect resources
+            }
+            socket = null;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package org.commons.jconfig.internal.socket;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.commons.jconfig.internal.PrivateFiles;
+
+/**
+ * Shared secret authentication of the loopback socket transport.<BR>
+ * <BR>
+ *
+ * The ConfigLoader writes a random secret to a file only readable by its
+ * owner, in a directory other users cannot write, so only processes of the
+ * same user can subscribe. Neither side sends
+ * the secret, both prove knowledge of it by signing a nonce of the other side:
+ * <BR>
+ * 1. loader sends AUTH: loader nonce<BR>
+ * 2. manager sends AUTH: manager nonce, a new line and the signed loader nonce<BR>
+ * 3. loader verifies, sends AUTH: the signed manager nonce<BR>
+ * 4. manager verifies, then sends SUBSCRIBE<BR>
+ */
+public class SocketAuth {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int SECRET_SIZE = 32;
+    private static final int NONCE_SIZE = 16;
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final SecureRandom random = new SecureRandom();
+
+    private SocketAuth() {
+    }
+
+    /**
+     * Write a new random secret to fileName, replacing the previous one. The
+     * file is only readable and writable by its owner.
+     *
+     * @param fileName
+     * @return the secret
+     * @throws IOException
+     *             if the directory is writable by other users, an existing
+     *             secret file is owned by another user, or the secret file
+     *             cannot be written or protected
+     */
+    public static String writeSecret(final String fileName) throws IOException {
+        File file = new File(fileName).getAbsoluteFile();
+        PrivateFiles.checkDirectory(file.getParentFile());
+        if (file.exists() && !PrivateFiles.isOwner(file)) {
+            throw new IOException("Socket secret file " + file + " is owned by another user");
+        }
+        // createTempFile applies the umask, so another user could open a temp
+        // file before its permissions are restricted. Create it in a new
+        // directory only accessible by us instead, then move it in place.
+        File tempDir = File.createTempFile(file.getName(), ".dir", file.getParentFile());
+        if (!(tempDir.delete() && tempDir.mkdir())) {
+            throw new IOException("Failed to create socket secret directory " + tempDir);
+        }
+        File temp = new File(tempDir, file.getName());
+        try {
+            PrivateFiles.restrictToOwner(tempDir);
+            if (!temp.createNewFile()) {
+                throw new IOException("Socket secret file " + temp + " already exists");
+            }
+            PrivateFiles.restrictToOwner(temp);
+            String secret = newNonce(SECRET_SIZE);
+            OutputStream out = new FileOutputStream(temp);
+            try {
+                out.write(secret.getBytes(UTF8));
+            } finally {
+                out.close();
+            }
+            if (!temp.renameTo(file)) {
+                throw new IOException("Failed to rename socket secret file " + temp + " to " + file);
+            }
+            return secret;
+        } finally {
+            temp.delete();
+            tempDir.delete();
+        }
+    }
+
+    /**
+     * Read the secret written by the ConfigLoader. A secret other users could
+     * have written or read is refused.
+     *
+     * @param fileName
+     * @return the secret
+     * @throws IOException
+     *             if the secret file is in a directory writable by other
+     *             users, is not private to the current user, cannot be read
+     *             or is empty
+     */
+    public static String readSecret(final String fileName) throws IOException {
+        File file = new File(fileName).getAbsoluteFile();
+        PrivateFiles.checkDirectory(file.getParentFile());
+        PrivateFiles.checkFile(file, true);
+        InputStream in = new FileInputStream(file);
+        try {
+            byte[] data = new byte[SECRET_SIZE * 2];
+            int length = 0;
+            int read;
+            while (length < data.length && (read = in.read(data, length, data.length - length)) > 0) {
+                length += read;
+            }
+            String secret = new String(data, 0, length, UTF8).trim();
+            if (secret.length() == 0) {
+                throw new IOException("Socket secret file " + fileName + " is empty");
+            }
+            return secret;
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * @return a new random hex nonce
+     */
+    public static String newNonce() {
+        return newNonce(NONCE_SIZE);
+    }
+
+    private static String newNonce(final int size) {
+        byte[] bytes = new byte[size];
+        random.nextBytes(bytes);
+        return toHex(bytes);
+    }
+
+    /**
+     * Sign nonce with the secret
+     *
+     * @param secret
+     * @param nonce
+     * @return hex signature
+     */
+    public static String sign(final String secret, final String nonce) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(new SecretKeySpec(secret.getBytes(UTF8), ALGORITHM));
+            return toHex(mac.doFinal(nonce.getBytes(UTF8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        }
+    }
+
+    /**
+     * Verify the signature of nonce, in constant time
+     *
+     * @param secret
+     * @param nonce
+     * @param signature
+     * @return true if signature was made with the secret
+     */
+    public static boolean verify(final String secret, final String nonce, final String signature) {
+        return MessageDigest.isEqual(sign(secret, nonce).getBytes(UTF8), signature.getBytes(UTF8));
+    }
+
+    private static String toHex(final byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xf, 16));
+            sb.append(Character.forDigit(b & 0xf, 16));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,94 @@
+package org.commons.jconfig.internal.socket;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+
+/**
+ * Frame of the loopback socket protocol between ConfigLoader and
+ * ConfigManager.<BR>
+ * <BR>
+ *
+ * Each frame is a 4 byte payload length, a 1 byte frame type and the UTF-8
+ * encoded payload.<BR>
+ * <BR>
+ *
+ * <B>Frames</B><BR>
+ * AUTH (both ways): shared secret handshake, see {@link SocketAuth}. Must
+ * complete before any other frame.<BR>
+ * SUBSCRIBE (manager to loader): appName, followed by one
+ * "moduleName=adapterUri" line per config module.<BR>
+ * MODULE (loader to manager): moduleName, a new line and the module config json.<BR>
+ * FLIP (loader to manager): empty, all modules of the update were sent.<BR>
+ */
+public class SocketFrame {
+
+    public static final byte SUBSCRIBE = 1;
+    public static final byte MODULE = 2;
+    public static final byte FLIP = 3;
+    public static final byte AUTH = 4;
+
+    /** Separates appName/moduleName from the rest of the payload */
+    public static final char LINE_SEPARATOR = '\n';
+    /** Separates module name from adapter uri in SUBSCRIBE frames */
+    public static final char MODULE_SEPARATOR = '=';
+
+    /** Frames larger than this are considered corrupt */
+    private static final int MAX_PAYLOAD_SIZE = 16 * 1024 * 1024;
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final byte type;
+    private final String payload;
+
+    public SocketFrame(final byte type, final String payload) {
+        this.type = type;
+        this.payload = payload;
+    }
+
+    public byte getType() {
+        return type;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    /**
+     * Write frame to the stream. Caller is responsible for flushing.
+     *
+     * @param out
+     * @throws IOException
+     */
+    public void write(final DataOutputStream out) throws IOException {
+        byte[] data = payload.getBytes(UTF8);
+        out.writeInt(data.length);
+        out.writeByte(type);
+        out.write(data);
+    }
+
+    /**
+     * Read the next frame, blocks until available.
+     *
+     * @param in
+     * @return SocketFrame
+     * @throws IOException
+     *             on end of stream or corrupt frame
+     */
+    public static SocketFrame read(final DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > MAX_PAYLOAD_SIZE) {
+            throw new IOException("Invalid frame length " + length);
+        }
+        byte type = in.readByte();
+        byte[] data = new byte[length];
+        in.readFully(data);
+        return new SocketFrame(type, new String(data, UTF8));
+    }
+
+    @Override
+    public String toString() {
+        return "[" + type + ", " + payload + "]";
+    }
+}
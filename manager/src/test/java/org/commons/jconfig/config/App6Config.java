@@ -0,0 +1,91 @@
+package org.commons.jconfig.config;
+
+import org.commons.jconfig.annotations.Config;
+import org.commons.jconfig.annotations.ConfigGet;
+import org.commons.jconfig.annotations.ConfigResource;
+import org.commons.jconfig.annotations.ConfigSet;
+import org.commons.jconfig.datatype.ValueType;
+
+/**
+ * This example uses the primitive value types. Getters return int, long,
+ * double, boolean and primitive arrays, so reading a value on a hot path does
+ * not unbox a wrapper object.
+ * 
+ * Also check /src/test/resources for the app6.json.
+ */
+@Config(description = "Primitive value types configuration")
+@ConfigResource(name = "app6.json")
+public class App6Config {
+
+    private int mMaxConnections = 10;
+
+    @ConfigGet(description = "Max number of connections.", type = ValueType.Int, defaultValue = "10")
+    public int getMaxConnections() {
+        return mMaxConnections;
+    }
+
+    @ConfigSet
+    public void setMaxConnections(final int value) {
+        mMaxConnections = value;
+    }
+
+    private long mMaxBytes = 1024;
+
+    @ConfigGet(description = "Max number of bytes.", type = ValueType.Long, defaultValue = "1024")
+    public long getMaxBytes() {
+        return mMaxBytes;
+    }
+
+    @ConfigSet
+    public void setMaxBytes(final long value) {
+        mMaxBytes = value;
+    }
+
+    private double mLoadFactor = 0.75;
+
+    @ConfigGet(description = "Load factor.", type = ValueType.Double, defaultValue = "0.75")
+    public double getLoadFactor() {
+        return mLoadFactor;
+    }
+
+    @ConfigSet
+    public void setLoadFactor(final double value) {
+        mLoadFactor = value;
+    }
+
+    private boolean mCompress = true;
+
+    @ConfigGet(description = "Compress responses. Boolean value true/false", type = ValueType.Bool, defaultValue = "true")
+    public boolean getCompress() {
+        return mCompress;
+    }
+
+    @ConfigSet
+    public void setCompress(final boolean value) {
+        mCompress = value;
+    }
+
+    private int[] mPorts = { 80 };
+
+    @ConfigGet(description = "Ports, ':' separated.", type = ValueType.IntArray, defaultValue = "80")
+    public int[] getPorts() {
+        return mPorts;
+    }
+
+    @ConfigSet
+    public void setPorts(final int[] value) {
+        mPorts = value;
+    }
+
+    private long[] mOffsets = {};
+
+    @ConfigGet(description = "Offsets, ':' separated.", type = ValueType.LongArray, defaultValue = "")
+    public long[] getOffsets() {
+        return mOffsets;
+    }
+
+    @ConfigSet
+    public void setOffsets(final long[] value) {
+        mOffsets = value;
+    }
+}
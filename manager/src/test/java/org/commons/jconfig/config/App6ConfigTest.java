@@ -0,0 +1,32 @@
+package org.commons.jconfig.config;
+
+import java.util.Arrays;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class App6ConfigTest {
+
+    @Test
+    public void getPrimitives() {
+        App6Config config = ConfigManager.INSTANCE.getConfig(App6Config.class, ConfigContext.EMPTY);
+        Assert.assertEquals(config.getMaxConnections(), 25);
+        Assert.assertEquals(config.getMaxBytes(), 1099511627776L);
+        Assert.assertEquals(config.getLoadFactor(), 0.5, 0.0);
+        Assert.assertFalse(config.getCompress());
+    }
+
+    @Test
+    public void getPrimitiveArrays() {
+        App6Config config = ConfigManager.INSTANCE.getConfig(App6Config.class, ConfigContext.EMPTY);
+        Assert.assertTrue(Arrays.equals(config.getPorts(), new int[] { 8080, 8081, 8082 }));
+        Assert.assertTrue(Arrays.equals(config.getOffsets(), new long[] { 1L, 4294967296L }));
+    }
+
+    @Test
+    public void getValueAsNumber() {
+        Assert.assertEquals(ConfigManager.INSTANCE.getValueAsNumber(App6Config.class, "MaxConnections").intValue(),
+                25);
+        Assert.assertEquals(ConfigManager.INSTANCE.getValueAsBoolean(App6Config.class, "Compress"), Boolean.FALSE);
+    }
+}
@@ -0,0 +1,45 @@
+package org.commons.jconfig.config;
+
+import java.lang.management.ManagementFactory;
+import java.util.Set;
+
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+import org.commons.jconfig.config.ConfigContext.Entry;
+import org.commons.jconfig.internal.jmx.ConfigManagerJvm;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ConfigManagerStatsTest {
+
+    @Test
+    public void testHitsAndMisses() {
+        ConfigManagerStats stats = ConfigManager.INSTANCE.getStats();
+        ConfigContext context = new ConfigContext(new Entry("SUBSET1", "stats"));
+        long hits = stats.getHitCount();
+        long misses = stats.getMissCount();
+
+        ConfigManager.INSTANCE.getConfig(App2Config.class, context);
+        for (int i = 0; i < ConfigManagerStats.HIT_SAMPLE_RATE; i++) {
+            ConfigManager.INSTANCE.getConfig(App2Config.class, context);
+        }
+        Assert.assertTrue(stats.getMissCount() >= misses + 1);
+        Assert.assertTrue(stats.getHitCount() >= hits + ConfigManagerStats.HIT_SAMPLE_RATE);
+        Assert.assertTrue(stats.getMissLatency().getCount() > 0);
+        Assert.assertTrue(stats.getHitLatency().getCount() > 0);
+        Assert.assertTrue(stats.getBuildTime().get(App2Config.class.getName()).getCount() > 0);
+        Assert.assertTrue(stats.getContextCardinality().get(App2Config.class.getName()) > 0);
+    }
+
+    @Test
+    public void testMBean() throws Exception {
+        ConfigManager.INSTANCE.getConfig(App1Config.class, ConfigContext.EMPTY);
+        Set<ObjectName> names = ManagementFactory.getPlatformMBeanServer().queryNames(
+                new ObjectName(ConfigManagerJvm.CONFIG_MGR_STATS_MBEAN_NAME + "*"), null);
+        Assert.assertFalse(names.isEmpty());
+        CompositeData flipDuration = (CompositeData) ManagementFactory.getPlatformMBeanServer().getAttribute(
+                names.iterator().next(), "FlipDuration");
+        Assert.assertTrue((Long) flipDuration.get("count") > 0);
+    }
+}
@@ -0,0 +1,82 @@
+package org.commons.jconfig.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.commons.jconfig.config.ConfigContext.Entry;
+import org.commons.jconfig.internal.ConfigManagerCache;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ConfigSnapshotTest {
+
+    @Test
+    public void testSameSnapshotSameObject() {
+        ConfigSnapshot snapshot = ConfigManager.INSTANCE.snapshot();
+        ConfigContext context = new ConfigContext(new Entry("SUBSET1", "800"));
+        Assert.assertSame(snapshot.getConfig(App2Config.class, context),
+                snapshot.getConfig(App2Config.class, context));
+        Assert.assertSame(snapshot.getConfig(App1Config.class, ConfigContext.EMPTY),
+                snapshot.getConfig(App1Config.class, ConfigContext.EMPTY));
+    }
+
+    @Test
+    public void testConcurrentMissBuildsOnce() throws Exception {
+        final ConfigSnapshot snapshot = ConfigManager.INSTANCE.snapshot();
+        final ConfigContext context = new ConfigContext(new Entry("SUBSET1", "single-flight"));
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(20);
+        try {
+            List<Future<App2Config>> futures = new ArrayList<Future<App2Config>>();
+            for (int i = 0; i < 20; i++) {
+                futures.add(executor.submit(new Callable<App2Config>() {
+                    @Override
+                    public App2Config call() throws Exception {
+                        start.await();
+                        return snapshot.getConfig(App2Config.class, context);
+                    }
+                }));
+            }
+            start.countDown();
+            App2Config first = futures.get(0).get();
+            for (Future<App2Config> future : futures) {
+                Assert.assertSame(future.get(), first);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testUsedConfigs() {
+        ConfigSnapshot snapshot = new ConfigSnapshot(1, new ConfigManagerCache(ConfigManager.INSTANCE)
+                .getReadOnlyCopy(), 10, 2);
+        ConfigSnapshot.CachedConfig unused = new ConfigSnapshot.CachedConfig(App1Config.class,
+                ConfigContext.EMPTY, new App1Config(), false);
+        ConfigSnapshot.CachedConfig used = new ConfigSnapshot.CachedConfig(App1Config.class, ConfigContext.EMPTY,
+                new App1Config(), true);
+        snapshot.addRecentConfig(unused);
+        snapshot.addRecentConfig(used);
+        Assert.assertEquals(snapshot.getUsedConfigs().size(), 1);
+        Assert.assertSame(snapshot.getUsedConfigs().get(0), used);
+
+        // pre-warming reads do not mark it used
+        unused.peekConfig();
+        Assert.assertEquals(snapshot.getUsedConfigs().size(), 1);
+
+        // fetching an unused object marks it used
+        unused.getConfig();
+        Assert.assertEquals(snapshot.getUsedConfigs().size(), 2);
+
+        // only the most recent objects are remembered
+        snapshot.addRecentConfig(new ConfigSnapshot.CachedConfig(App1Config.class, ConfigContext.EMPTY,
+                new App1Config(), true));
+        Assert.assertEquals(snapshot.getUsedConfigs().size(), 2);
+        Assert.assertSame(snapshot.getUsedConfigs().get(0), used);
+    }
+}
@@ -0,0 +1,83 @@
+package org.commons.jconfig.events;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.commons.jconfig.config.App1Config;
+import org.commons.jconfig.config.ConfigContext;
+import org.commons.jconfig.config.ConfigManager;
+import org.commons.jconfig.internal.ConfigManagerCache;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ConfigEventsTest {
+
+    private static class RecordingListener implements ConfigEventListener {
+        private final List<ConfigEvent> events = new ArrayList<ConfigEvent>();
+
+        @Override
+        public synchronized void onEvent(final ConfigEvent event) {
+            events.add(event);
+        }
+
+        synchronized <T extends ConfigEvent> List<T> getEvents(final Class<T> type) {
+            List<T> found = new ArrayList<T>();
+            for (ConfigEvent event : events) {
+                if (type.isInstance(event)) {
+                    found.add(type.cast(event));
+                }
+            }
+            return found;
+        }
+    }
+
+    @Test
+    public void testFlipAndBuildEvents() {
+        RecordingListener listener = new RecordingListener();
+        ConfigEvents.addListener(listener);
+        try {
+            Assert.assertTrue(ConfigEvents.isEnabled());
+            String json = "{ \"MaxNumberOfConnections\" : 30 }";
+            ConfigManagerCache cache = new ConfigManagerCache(ConfigManager.INSTANCE);
+            cache.insertValue(App1Config.class.getName(), json);
+            cache.flipCache();
+            ConfigManager.INSTANCE.buildConfigObject(new App1Config(), ConfigContext.EMPTY,
+                    Charset.forName("UTF-8"), cache);
+
+            List<ConfigFlipEvent> flips = listener.getEvents(ConfigFlipEvent.class);
+            Assert.assertEquals(flips.size(), 1);
+            Assert.assertTrue(flips.get(0).getModuleNames().contains(App1Config.class.getName()));
+            Assert.assertEquals(flips.get(0).getPayloadSize(), json.length());
+            Assert.assertTrue(flips.get(0).getDurationNanos() >= 0);
+
+            List<ConfigObjectBuildEvent> builds = listener.getEvents(ConfigObjectBuildEvent.class);
+            Assert.assertEquals(builds.size(), 1);
+            Assert.assertEquals(builds.get(0).getModuleName(), App1Config.class.getName());
+            Assert.assertEquals(builds.get(0).getKeyCount(), 3);
+        } finally {
+            ConfigEvents.removeListener(listener);
+        }
+        Assert.assertFalse(ConfigEvents.isEnabled());
+    }
+
+    @Test
+    public void testFailingListener() {
+        ConfigEventListener failing = new ConfigEventListener() {
+            @Override
+            public void onEvent(final ConfigEvent event) {
+                throw new IllegalStateException("listener failure");
+            }
+        };
+        RecordingListener listener = new RecordingListener();
+        ConfigEvents.addListener(failing);
+        ConfigEvents.addListener(listener);
+        try {
+            ConfigEvents.emit(new ClasspathScanEvent("Config", 10, 1, 1000));
+            Assert.assertEquals(listener.getEvents(ClasspathScanEvent.class).size(), 1);
+        } finally {
+            ConfigEvents.removeListener(failing);
+            ConfigEvents.removeListener(listener);
+        }
+    }
+}
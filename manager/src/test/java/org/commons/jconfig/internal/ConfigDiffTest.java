@@ -0,0 +1,32 @@
+package org.commons.jconfig.internal;
+
+import java.util.SortedSet;
+
+import org.commons.jconfig.config.App1Config;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ConfigDiffTest {
+
+    @Test
+    public void testNoChange() {
+        Assert.assertTrue(ConfigDiff.changedKeys(new App1Config(), new App1Config()).isEmpty());
+    }
+
+    @Test
+    public void testChangedKeys() {
+        App1Config newConfig = new App1Config();
+        newConfig.setMaxNumberOfConnections(20);
+        newConfig.setAttachmentServerHost("att.host");
+
+        SortedSet<String> changedKeys = ConfigDiff.changedKeys(new App1Config(), newConfig);
+        Assert.assertEquals(changedKeys.size(), 2);
+        Assert.assertEquals(changedKeys.first(), "AttachmentServerHost");
+        Assert.assertEquals(changedKeys.last(), "MaxNumberOfConnections");
+    }
+
+    @Test
+    public void testNoOldConfig() {
+        Assert.assertEquals(ConfigDiff.changedKeys(null, new App1Config()).size(), 3);
+    }
+}
@@ -0,0 +1,30 @@
+package org.commons.jconfig.internal;
+
+import org.commons.jconfig.config.App1Config;
+import org.commons.jconfig.config.KeyNotFound;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ConfigKeyIndexTest {
+
+    @Test
+    public void testContainsKey() {
+        ConfigKeyIndex index = ConfigKeyIndex.forClass(App1Config.class);
+        Assert.assertSame(ConfigKeyIndex.forClass(App1Config.class), index);
+        Assert.assertTrue(index.containsKey("MaxNumberOfConnections"));
+        Assert.assertFalse(index.containsKey("MissingKey"));
+    }
+
+    @Test
+    public void testGetValue() {
+        App1Config config = new App1Config();
+        config.setAttachmentServerHost("att.host");
+        Assert.assertEquals(ConfigKeyIndex.forClass(App1Config.class).getValue(config, "AttachmentServerHost"),
+                "att.host");
+    }
+
+    @Test(expectedExceptions = KeyNotFound.class)
+    public void testGetMissingValue() {
+        ConfigKeyIndex.forClass(App1Config.class).getValue(new App1Config(), "MissingKey");
+    }
+}
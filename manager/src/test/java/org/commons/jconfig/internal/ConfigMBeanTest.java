@@ -0,0 +1,42 @@
+package org.commons.jconfig.internal;
+
+import javax.management.MBeanException;
+import javax.management.MBeanOperationInfo;
+import javax.management.ReflectionException;
+
+import org.commons.jconfig.config.App1Config;
+import org.commons.jconfig.config.ConfigManager;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ConfigMBeanTest {
+
+    @Test
+    public void testLoadModuleOperationRegistered() {
+        ConfigMBean mbean = new ConfigMBean(ConfigManager.INSTANCE, App1Config.class);
+
+        boolean found = false;
+        for (MBeanOperationInfo op : mbean.getMBeanInfo().getOperations()) {
+            if (op.getName().equals(ConfigMBean.LOAD_MODULE_OPERATION)) {
+                Assert.assertEquals(op.getSignature().length, 1);
+                Assert.assertEquals(op.getSignature()[0].getType(), String.class.getName());
+                found = true;
+            }
+        }
+        Assert.assertTrue(found);
+    }
+
+    @Test(expectedExceptions = MBeanException.class)
+    public void testLoadModuleWrongDatatype() throws MBeanException, ReflectionException {
+        ConfigMBean mbean = new ConfigMBean(ConfigManager.INSTANCE, App1Config.class);
+        mbean.invoke(ConfigMBean.LOAD_MODULE_OPERATION, new Object[] { Integer.valueOf(1) },
+                new String[] { Integer.class.getName() });
+    }
+
+    @Test(expectedExceptions = MBeanException.class)
+    public void testLoadModuleInvalidJson() throws MBeanException, ReflectionException {
+        ConfigMBean mbean = new ConfigMBean(ConfigManager.INSTANCE, App1Config.class);
+        mbean.invoke(ConfigMBean.LOAD_MODULE_OPERATION, new Object[] { "[ \"not a module\" ]" },
+                new String[] { String.class.getName() });
+    }
+}
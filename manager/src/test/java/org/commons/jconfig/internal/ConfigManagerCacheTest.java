@@ -8,6 +8,7 @@ import java.io.InputStreamReader;
 import java.io.Reader;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
 
@@ -146,6 +147,141 @@ public class ConfigManagerCacheTest {
         Assert.assertEquals(adapter.get(obj, context2, "VxPortNumber", "9999"), "80");
     }
 
+    @Test
+    public void readOnlyCopy() {
+        ConfigManagerCache cache = new ConfigManagerCache(ConfigManager.INSTANCE);
+        Object obj = new Object();
+        cache.insertValue(obj.getClass().getName(), "{\"VxHostName\":\"vxs.ne1.xyz.com\"}");
+        cache.flipCache();
+        ConfigManagerCache copy = cache.getReadOnlyCopy();
+
+        cache.insertValue(obj.getClass().getName(), "{\"VxHostName\":\"vxs.ne2.xyz.com\"}");
+        cache.flipCache();
+        ConfigContext context = new ConfigContext();
+        Assert.assertEquals(cache.get(obj, context, "VxHostName", ""), "vxs.ne2.xyz.com");
+        Assert.assertEquals(copy.get(obj, context, "VxHostName", ""), "vxs.ne1.xyz.com");
+    }
+
+    @Test(expectedExceptions = ConfigRuntimeException.class)
+    public void readOnlyCopyInsert() {
+        ConfigManagerCache copy = new ConfigManagerCache(ConfigManager.INSTANCE).getReadOnlyCopy();
+        copy.insertValue(Object.class.getName(), "{\"VxHostName\":\"vxs.ne1.xyz.com\"}");
+    }
+
+    @Test
+    public void commitKeepsUnchangedModules() {
+        ConfigManagerCache cache = new ConfigManagerCache(ConfigManager.INSTANCE);
+        ConfigContext context = new ConfigContext();
+        cache.insertValue(Object.class.getName(), "{\"VxHostName\":\"vxs.ne1.xyz.com\"}");
+        cache.insertValue(String.class.getName(), "{\"VxHostName\":\"vxs.ne3.xyz.com\"}");
+        cache.flipCache();
+        ConfigManagerCache copy = cache.getReadOnlyCopy();
+
+        // only the changed module is sent, the commit lists all modules
+        long stageId = cache.beginStage();
+        cache.insertValue(Object.class.getName(), "{\"VxHostName\":\"vxs.ne2.xyz.com\"}");
+        cache.commitStage(stageId, Arrays.asList(Object.class.getName(), String.class.getName()));
+        Assert.assertEquals(cache.get(new Object(), context, "VxHostName", ""), "vxs.ne2.xyz.com");
+        Assert.assertEquals(cache.get("", context, "VxHostName", ""), "vxs.ne3.xyz.com");
+        Assert.assertEquals(copy.get(new Object(), context, "VxHostName", ""), "vxs.ne1.xyz.com");
+        // unchanged module values are shared with the previous flip
+        Assert.assertSame(cache.getContextTypes(String.class), copy.getContextTypes(String.class));
+
+        // a stage needs not resend loaded modules, and drops the modules it does not list
+        stageId = cache.beginStage();
+        cache.insertValue(Object.class.getName(), "{\"VxHostName\":\"vxs.ne4.xyz.com\"}");
+        cache.commitStage(stageId, Arrays.asList(Object.class.getName()));
+        Assert.assertEquals(cache.get(new Object(), context, "VxHostName", ""), "vxs.ne4.xyz.com");
+        Assert.assertEquals(cache.get("", context, "VxHostName", "none"), "none");
+    }
+
+    @Test
+    public void hasSameValues() {
+        ConfigManagerCache cache = new ConfigManagerCache(ConfigManager.INSTANCE);
+        cache.insertValue(Object.class.getName(), "{\"VxHostName\":\"vxs.ne1.xyz.com\"}");
+        cache.insertValue(String.class.getName(), "{\"VxHostName\":\"vxs.ne3.xyz.com\"}");
+        cache.flipCache();
+        ConfigManagerCache copy = cache.getReadOnlyCopy();
+
+        long stageId = cache.beginStage();
+        cache.insertValue(Object.class.getName(), "{\"VxHostName\":\"vxs.ne1.xyz.com\"}");
+        cache.commitStage(stageId, Arrays.asList(Object.class.getName(), String.class.getName()));
+        // inserted again, even with the same values
+        Assert.assertFalse(cache.hasSameValues(copy, Object.class));
+        Assert.assertTrue(cache.hasSameValues(copy, String.class));
+        // no values at all
+        Assert.assertTrue(cache.hasSameValues(copy, Integer.class));
+
+        cache.insertValue(String.class.getName(), "{\"VxHostName\":\"vxs.ne3.xyz.com\"}");
+        cache.flipCache();
+        Assert.assertFalse(cache.hasSameValues(copy, String.class));
+    }
+
+    @Test
+    public void flipDropsRemovedModules() {
+        ConfigManagerCache cache = new ConfigManagerCache(ConfigManager.INSTANCE);
+        ConfigContext context = new ConfigContext();
+        cache.insertValue(Object.class.getName(), "{\"VxHostName\":\"vxs.ne1.xyz.com\"}");
+        cache.insertValue(String.class.getName(), "{\"VxHostName\":\"vxs.ne3.xyz.com\"}");
+        cache.flipCache();
+        Assert.assertEquals(cache.get("", context, "VxHostName", ""), "vxs.ne3.xyz.com");
+
+        // a plain flip publishes the inserted modules only, the removed module is dropped
+        cache.insertValue(Object.class.getName(), "{\"VxHostName\":\"vxs.ne2.xyz.com\"}");
+        cache.flipCache();
+        Assert.assertEquals(cache.get(new Object(), context, "VxHostName", ""), "vxs.ne2.xyz.com");
+        Assert.assertEquals(cache.get("", context, "VxHostName", "none"), "none");
+    }
+
+    @Test
+    public void commitStage() {
+        ConfigManagerCache cache = new ConfigManagerCache(ConfigManager.INSTANCE);
+        ConfigContext context = new ConfigContext();
+        cache.insertValue(Object.class.getName(), "{\"VxHostName\":\"vxs.ne1.xyz.com\"}");
+        cache.flipCache();
+
+        long stageId = cache.beginStage();
+        cache.insertValue(Object.class.getName(), "{\"VxHostName\":\"vxs.ne2.xyz.com\"}");
+        try {
+            cache.commitStage(stageId, Arrays.asList(Object.class.getName(), String.class.getName()));
+            Assert.fail("stage committed without all modules");
+        } catch (ConfigRuntimeException e) {
+            // stage left open
+        }
+        Assert.assertTrue(cache.isStageOpen());
+        Assert.assertEquals(cache.get(new Object(), context, "VxHostName", ""), "vxs.ne1.xyz.com");
+
+        // resumed with the modules staged so far
+        Assert.assertEquals(cache.beginStage(), stageId);
+        Assert.assertEquals(cache.getStagedModules().first(), Object.class.getName());
+        cache.insertValue(String.class.getName(), "{\"VxHostName\":\"vxs.ne3.xyz.com\"}");
+        cache.commitStage(stageId, Arrays.asList(Object.class.getName(), String.class.getName()));
+        Assert.assertFalse(cache.isStageOpen());
+        Assert.assertEquals(cache.get(new Object(), context, "VxHostName", ""), "vxs.ne2.xyz.com");
+        Assert.assertEquals(cache.get("", context, "VxHostName", ""), "vxs.ne3.xyz.com");
+        Assert.assertTrue(cache.beginStage() > stageId);
+    }
+
+    @Test
+    public void abortStage() {
+        ConfigManagerCache cache = new ConfigManagerCache(ConfigManager.INSTANCE);
+        long stageId = cache.beginStage();
+        cache.insertValue(Object.class.getName(), "{\"VxHostName\":\"vxs.ne1.xyz.com\"}");
+        try {
+            cache.flipCache();
+            Assert.fail("flipped while a stage is open");
+        } catch (ConfigRuntimeException e) {
+            // staged values are only published by commitStage
+        }
+        Assert.assertFalse(cache.flipCacheUnlessStaged());
+        Assert.assertTrue(cache.isStageOpen());
+        cache.abortStage(stageId);
+        Assert.assertFalse(cache.isStageOpen());
+        Assert.assertTrue(cache.getStagedModules().isEmpty());
+        Assert.assertTrue(cache.flipCacheUnlessStaged());
+        Assert.assertEquals(cache.get(new Object(), new ConfigContext(), "VxHostName", "none"), "none");
+    }
+
     @Test(invocationCount = 1000, threadPoolSize = 1000)
     public void testThreadSafeClass() throws InterruptedException {
         ConfigManagerCache threadSafeAdapter = new ConfigManagerCache(ConfigManager.INSTANCE);
@@ -0,0 +1,78 @@
+package org.commons.jconfig.internal;
+
+import java.util.List;
+
+import org.commons.jconfig.config.App1Config;
+import org.commons.jconfig.config.App2Config;
+import org.commons.jconfig.config.ConfigContext;
+import org.commons.jconfig.config.ConfigContext.Entry;
+import org.commons.jconfig.config.ConfigManager;
+import org.commons.jconfig.config.ConfigManagerConfig;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+public class ConfigValidatorTest {
+
+    private static JsonObject parse(final String json) {
+        return (JsonObject) new JsonParser().parse(json);
+    }
+
+    @Test
+    public void testValidValues() {
+        JsonObject json = parse("{ \"MaxCacheSize\" : 100, \"ConfigLoaderSyncInterval\" : \"5 m\" }");
+        Assert.assertTrue(ConfigValidator.forClass(ConfigManagerConfig.class).removeInvalidValues(json).isEmpty());
+        Assert.assertEquals(json.entrySet().size(), 2);
+    }
+
+    @Test
+    public void testRanges() {
+        JsonObject json = parse("{ \"MaxCacheSize\" : 5, \"ConfigLoaderSyncInterval\" : \"2 h\", "
+                + "\"ConfigLoaderSocketPort\" : 8080 }");
+        List<String> errors = ConfigValidator.forClass(ConfigManagerConfig.class).removeInvalidValues(json);
+        Assert.assertEquals(errors.size(), 2);
+        Assert.assertNull(json.get("MaxCacheSize"));
+        Assert.assertNull(json.get("ConfigLoaderSyncInterval"));
+        Assert.assertNotNull(json.get("ConfigLoaderSocketPort"));
+    }
+
+    @Test
+    public void testTypesAndEmptyStrings() {
+        // resource id and full key names are validated too
+        JsonObject json = parse("{ \"MaxNumberOfConnections\" : \"many\", \"YM_DOWNLOAD_SERVER\" : \" \" }");
+        List<String> errors = ConfigValidator.forClass(App1Config.class).removeInvalidValues(json);
+        Assert.assertEquals(errors.size(), 2);
+        Assert.assertTrue(json.entrySet().isEmpty());
+    }
+
+    @Test
+    public void testSetValues() {
+        JsonObject json = parse("{ \"_Sets_Type_\" : \"SUBSET1\", \"_Sets_\" : [ { \"key\" : [ \"1\" ], "
+                + "\"keyList\" : { \"TimeoutProblem1\" : \"6 d\", \"Timeout\" : \"5 s\" } } ], "
+                + "\"TimeoutProblem2\" : \"1 h\" }");
+        List<String> errors = ConfigValidator.forClass(App2Config.class).removeInvalidValues(json);
+        Assert.assertEquals(errors.size(), 1);
+        JsonObject keyList = json.getAsJsonArray("_Sets_").get(0).getAsJsonObject().getAsJsonObject("keyList");
+        Assert.assertNull(keyList.get("TimeoutProblem1"));
+        Assert.assertNotNull(keyList.get("Timeout"));
+    }
+
+    @Test
+    public void testInsertIgnoresInvalidValues() {
+        ConfigManagerCache cache = new ConfigManagerCache(ConfigManager.INSTANCE);
+        cache.insertValue(App2Config.class.getName(), "{ \"TimeoutProblem1\" : \"9 d\", \"TimeoutProblem2\" : \"3 h\" }");
+        cache.flipCache();
+        ConfigContext context = new ConfigContext(new Entry("SUBSET1", "1"));
+        Assert.assertNull(cache.get(new App2Config(), context, "TimeoutProblem1", null));
+        Assert.assertEquals(cache.get(new App2Config(), context, "TimeoutProblem2", null), "3 h");
+    }
+
+    @Test
+    public void testUnknownModule() {
+        Assert.assertNull(ConfigValidator.forModule("_PROP_", ConfigManager.INSTANCE));
+        Assert.assertNull(ConfigValidator.forModule("org.commons.jconfig.NoSuchConfig", ConfigManager.INSTANCE));
+        Assert.assertNotNull(ConfigValidator.forModule(App1Config.class.getName(), ConfigManager.INSTANCE));
+    }
+}
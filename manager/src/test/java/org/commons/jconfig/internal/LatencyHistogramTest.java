@@ -0,0 +1,77 @@
+package org.commons.jconfig.internal;
+
+import org.commons.jconfig.internal.jmx.LatencyStats;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testBuckets() {
+        for (long value : new long[] { 0, 1, 3, 4, 5, 7, 8, 1000, 123456789, Long.MAX_VALUE }) {
+            int bucket = LatencyHistogram.bucket(value);
+            Assert.assertTrue(bucket < LatencyHistogram.BUCKETS);
+            Assert.assertTrue(LatencyHistogram.bucketMax(bucket) >= value);
+            // within 25% of the value
+            Assert.assertTrue(LatencyHistogram.bucketMax(bucket) - value <= value / 4);
+        }
+    }
+
+    @Test
+    public void testStats() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000);
+        }
+        LatencyStats stats = histogram.getStats();
+        Assert.assertEquals(stats.getCount(), 1000);
+        Assert.assertEquals(stats.getMeanNanos(), 500500);
+        Assert.assertEquals(stats.getMaxNanos(), 1000000);
+        Assert.assertTrue(stats.getP50Nanos() >= 500000 && stats.getP50Nanos() <= 625000);
+        Assert.assertTrue(stats.getP99Nanos() >= 990000 && stats.getP99Nanos() <= 1000000);
+
+        histogram.reset();
+        Assert.assertEquals(histogram.getStats().getCount(), 0);
+        Assert.assertEquals(histogram.getStats().getMaxNanos(), 0);
+    }
+
+    @Test
+    public void testStripedCounter() throws InterruptedException {
+        final StripedCounter counter = new StripedCounter();
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 1000; j++) {
+                        counter.increment();
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertEquals(counter.sum(), 8000);
+        counter.reset();
+        Assert.assertEquals(counter.sum(), 0);
+    }
+
+    @Test
+    public void testStripedCounterRehash() {
+        Assert.assertEquals(StripedCounter.stripes(1), 2);
+        Assert.assertEquals(StripedCounter.stripes(6), 16);
+        Assert.assertEquals(StripedCounter.stripes(1000), 128);
+
+        StripedCounter counter = new StripedCounter();
+        counter.add(5);
+        Assert.assertEquals(counter.current(), 5);
+        int stripe = StripedCounter.stripe(1 << 30);
+        StripedCounter.rehash();
+        Assert.assertTrue(StripedCounter.stripe(1 << 30) != stripe);
+        // the thread moved to another cell, the sum is unchanged
+        Assert.assertEquals(counter.increment(), counter.current());
+        Assert.assertEquals(counter.sum(), 6);
+    }
+}
@@ -37,4 +37,19 @@ public class VirtualMachineTest {
             }
         }
     }
+
+    @Test
+    public void testCurrentVmId() {
+        String vmId = VirtualMachine.currentVmId();
+        Assert.assertNotEquals(vmId, "-1");
+
+        // our own VM is among the running VMs
+        boolean found = false;
+        for (VirtualMachineDescriptor vmd : com.sun.tools.attach.VirtualMachine.list()) {
+            if (vmd.id().equals(vmId)) {
+                found = true;
+            }
+        }
+        Assert.assertTrue(found);
+    }
 }
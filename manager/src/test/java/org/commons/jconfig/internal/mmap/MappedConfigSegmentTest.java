@@ -0,0 +1,135 @@
+package org.commons.jconfig.internal.mmap;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import org.commons.jconfig.internal.PrivateFiles;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class MappedConfigSegmentTest {
+
+    /** @return a new file name in a directory only accessible by the current user */
+    private String tempFileName() throws IOException {
+        File dir = File.createTempFile("configSegment", ".dir");
+        Assert.assertTrue(dir.delete() && dir.mkdir());
+        PrivateFiles.restrictToOwner(dir);
+        dir.deleteOnExit();
+        File file = new File(dir, "config_loader.mmap");
+        file.deleteOnExit();
+        return file.getAbsolutePath();
+    }
+
+    @Test
+    public void testWriteRead() throws IOException {
+        String fileName = tempFileName();
+        MappedConfigSegment writer = MappedConfigSegment.openForWrite(fileName);
+        MappedConfigSegment reader = MappedConfigSegment.openForRead(fileName);
+
+        // nothing published yet
+        Assert.assertEquals(reader.getSequence(), 0);
+        Assert.assertNull(reader.read());
+
+        writer.write("{ \"Modules\" : {} }");
+        MappedConfigSegment.Version version = reader.read();
+        Assert.assertEquals(version.getSequence(), 2);
+        Assert.assertEquals(version.getPayload(), "{ \"Modules\" : {} }");
+
+        writer.write("{}");
+        Assert.assertEquals(reader.getSequence(), 4);
+        Assert.assertEquals(reader.read().getPayload(), "{}");
+    }
+
+    @Test
+    public void testGrow() throws IOException {
+        String fileName = tempFileName();
+        MappedConfigSegment writer = MappedConfigSegment.openForWrite(fileName);
+        MappedConfigSegment reader = MappedConfigSegment.openForRead(fileName);
+
+        StringBuilder sb = new StringBuilder();
+        while (sb.length() < 200 * 1024) {
+            sb.append("0123456789");
+        }
+        writer.write(sb.toString());
+        Assert.assertEquals(reader.read().getPayload(), sb.toString());
+    }
+
+    @Test
+    public void testReopen() throws IOException {
+        String fileName = tempFileName();
+        MappedConfigSegment.openForWrite(fileName).write("first");
+
+        // existing segment keeps its sequence
+        MappedConfigSegment writer = MappedConfigSegment.openForWrite(fileName);
+        Assert.assertEquals(writer.getSequence(), 2);
+        writer.write("second");
+        Assert.assertEquals(MappedConfigSegment.openForRead(fileName).read().getPayload(), "second");
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testTornPayload() throws IOException {
+        String fileName = tempFileName();
+        MappedConfigSegment.openForWrite(fileName).write("{ \"Modules\" : {} }");
+
+        // payload changed without a matching CRC32, sequence still even
+        RandomAccessFile raf = new RandomAccessFile(fileName, "rw");
+        try {
+            raf.seek(MappedConfigSegment.HEADER_SIZE + 3);
+            raf.write('X');
+        } finally {
+            raf.close();
+        }
+        MappedConfigSegment.openForRead(fileName).read();
+    }
+
+    @Test
+    public void testReopenAfterInterruptedWrite() throws IOException {
+        String fileName = tempFileName();
+        MappedConfigSegment.openForWrite(fileName).write("first");
+
+        // writer died after writing the payload, before making the sequence even
+        RandomAccessFile raf = new RandomAccessFile(fileName, "rw");
+        try {
+            raf.seek(8);
+            raf.writeLong(3);
+        } finally {
+            raf.close();
+        }
+        MappedConfigSegment writer = MappedConfigSegment.openForWrite(fileName);
+        Assert.assertEquals(writer.getSequence(), 4);
+        MappedConfigSegment.Version version = MappedConfigSegment.openForRead(fileName).read();
+        Assert.assertEquals(version.getSequence(), 4);
+        Assert.assertEquals(version.getPayload(), "first");
+
+        writer.write("second");
+        Assert.assertEquals(MappedConfigSegment.openForRead(fileName).read().getSequence(), 6);
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testReadMissingFile() throws IOException {
+        MappedConfigSegment.openForRead(tempFileName());
+    }
+
+    @Test
+    public void testNewFileOnlyWritableByOwner() throws IOException {
+        String fileName = tempFileName();
+        MappedConfigSegment.openForWrite(fileName);
+        PrivateFiles.checkFile(new File(fileName), false);
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testWritableByOthersRefused() throws IOException {
+        String fileName = tempFileName();
+        MappedConfigSegment.openForWrite(fileName).write("first");
+        Assert.assertTrue(new File(fileName).setWritable(true, false));
+        MappedConfigSegment.openForRead(fileName);
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testWorldWritableDirRefused() throws IOException {
+        String fileName = tempFileName();
+        Assert.assertTrue(new File(fileName).getParentFile().setWritable(true, false));
+        MappedConfigSegment.openForWrite(fileName);
+    }
+}
@@ -0,0 +1,95 @@
+package org.commons.jconfig.internal.socket;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.commons.jconfig.internal.PrivateFiles;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class SocketAuthTest {
+
+    @Test
+    public void testSignVerify() {
+        String nonce = SocketAuth.newNonce();
+        String signature = SocketAuth.sign("secret", nonce);
+        Assert.assertTrue(SocketAuth.verify("secret", nonce, signature));
+        Assert.assertFalse(SocketAuth.verify("other", nonce, signature));
+        Assert.assertFalse(SocketAuth.verify("secret", SocketAuth.newNonce(), signature));
+        Assert.assertFalse(SocketAuth.verify("secret", nonce, ""));
+    }
+
+    /** @return a new directory only accessible by the current user */
+    static File privateDir() throws IOException {
+        File dir = File.createTempFile("socket", ".dir");
+        Assert.assertTrue(dir.delete() && dir.mkdir());
+        PrivateFiles.restrictToOwner(dir);
+        return dir;
+    }
+
+    @Test
+    public void testWriteReadSecret() throws IOException {
+        File dir = privateDir();
+        File file = new File(dir, "config_loader.socket.secret");
+        try {
+            String secret = SocketAuth.writeSecret(file.getPath());
+            Assert.assertEquals(SocketAuth.readSecret(file.getPath()), secret);
+
+            String next = SocketAuth.writeSecret(file.getPath());
+            Assert.assertFalse(next.equals(secret));
+            Assert.assertEquals(SocketAuth.readSecret(file.getPath()), next);
+        } finally {
+            file.delete();
+            dir.delete();
+        }
+    }
+
+    @Test
+    public void testReadReadableSecret() throws IOException {
+        File dir = privateDir();
+        File file = new File(dir, "config_loader.socket.secret");
+        try {
+            SocketAuth.writeSecret(file.getPath());
+            Assert.assertTrue(file.setReadable(true, false));
+            try {
+                SocketAuth.readSecret(file.getPath());
+                Assert.fail("secret readable by others must be refused");
+            } catch (IOException e) {
+                Assert.assertTrue(e.getMessage().contains("readable by other users"), e.getMessage());
+            }
+        } finally {
+            file.delete();
+            dir.delete();
+        }
+    }
+
+    @Test
+    public void testWorldWritableDirRefused() throws IOException {
+        File dir = privateDir();
+        File file = new File(dir, "config_loader.socket.secret");
+        try {
+            SocketAuth.writeSecret(file.getPath());
+            Assert.assertTrue(dir.setWritable(true, false));
+            try {
+                SocketAuth.readSecret(file.getPath());
+                Assert.fail("secret in a world-writable directory must be refused");
+            } catch (IOException e) {
+                Assert.assertTrue(e.getMessage().contains("writable by other users"), e.getMessage());
+            }
+            try {
+                SocketAuth.writeSecret(file.getPath());
+                Assert.fail("secret in a world-writable directory must be refused");
+            } catch (IOException e) {
+                Assert.assertTrue(e.getMessage().contains("writable by other users"), e.getMessage());
+            }
+        } finally {
+            file.delete();
+            dir.delete();
+        }
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testReadMissingSecret() throws IOException {
+        SocketAuth.readSecret("/nonexistent/config_loader.socket.secret");
+    }
+}
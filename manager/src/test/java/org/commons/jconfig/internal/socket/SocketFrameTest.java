@@ -0,0 +1,54 @@
+package org.commons.jconfig.internal.socket;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class SocketFrameTest {
+
+    @Test
+    public void testWriteRead() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        new SocketFrame(SocketFrame.MODULE, "org.commons.jconfig.config.App1Config\n{\"Name\":\"h\u00e9llo\"}").write(out);
+        new SocketFrame(SocketFrame.FLIP, "").write(out);
+        out.flush();
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        SocketFrame module = SocketFrame.read(in);
+        Assert.assertEquals(module.getType(), SocketFrame.MODULE);
+        Assert.assertEquals(module.getPayload(), "org.commons.jconfig.config.App1Config\n{\"Name\":\"h\u00e9llo\"}");
+
+        SocketFrame flip = SocketFrame.read(in);
+        Assert.assertEquals(flip.getType(), SocketFrame.FLIP);
+        Assert.assertEquals(flip.getPayload(), "");
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testReadInvalidLength() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(-1);
+        out.writeByte(SocketFrame.FLIP);
+        out.flush();
+
+        SocketFrame.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testReadTruncated() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(10);
+        out.writeByte(SocketFrame.MODULE);
+        out.write(new byte[] { 1, 2, 3 });
+        out.flush();
+
+        SocketFrame.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+}